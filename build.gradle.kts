@@ -42,6 +42,61 @@ tasks.shadowJar {
     }
 }
 
+/* Models and textures are converted into a binary pack at build time, see org.wysko.midis2jam2.util.AssetPack */
+val assetPackDir = File(buildDir, "generated/assetPack")
+
+val assetPack by tasks.registering(JavaExec::class) {
+    group = "build"
+    description = "Converts the models and textures in the assets into jME's binary j3o format."
+    dependsOn("compileKotlin", "compileJava")
+    classpath = sourceSets.main.get().output.classesDirs + configurations.runtimeClasspath.get()
+    mainClass.set("org.wysko.midis2jam2.util.AssetPack")
+
+    val resources = file("src/main/resources")
+    inputs.dir(File(resources, "Assets"))
+    outputs.dir(assetPackDir)
+    args(resources.absolutePath, assetPackDir.absolutePath)
+
+    doFirst {
+        delete(assetPackDir)
+    }
+}
+
+tasks.processResources {
+    dependsOn(assetPack)
+    from(assetPackDir)
+
+    /* Assets that made it into the pack are not shipped a second time */
+    exclude { File(assetPackDir, "AssetPack/${it.relativePath.pathString}.j3o").exists() }
+}
+
+/* Benchmarks live in their own source set, so they can see the main classes without being shipped with them */
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+configurations["jmhRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks and writes the results to build/reports/jmh/results.json."
+    dependsOn(jmh.classesTaskName)
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val results = File(buildDir, "reports/jmh/results.json")
+    args("-rf", "json", "-rff", results.absolutePath)
+
+    /* Pass -PjmhArgs="..." to select benchmarks or parameters, e.g. -PjmhArgs="TickBenchmark -p family=KEYBOARD" */
+    (project.findProperty("jmhArgs") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+
+    doFirst {
+        results.parentFile.mkdirs()
+    }
+}
+
 dependencies {
     // JMonkeyEngine
     implementation("org.jmonkeyengine:jme3-core:3.4.0-stable")
@@ -60,6 +115,10 @@ dependencies {
     testImplementation(platform("org.junit:junit-bom:5.7.2"))
     testImplementation("org.junit.jupiter:junit-jupiter:5.8.1")
 
+    // Benchmarking
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.33")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.33")
+
     // Theme
     implementation("com.formdev:flatlaf:1.6.1")
 
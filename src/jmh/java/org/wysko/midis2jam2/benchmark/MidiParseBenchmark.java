@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package org.wysko.midis2jam2.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wysko.midis2jam2.Midis2jam2;
+import org.wysko.midis2jam2.midi.MidiFile;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MidiSystem;
+import javax.sound.midi.Sequence;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Measures how long it takes to parse MIDI files of increasing density, with the Java sound reader as a reference.
+ * Files on disk can be benchmarked by passing their paths as the {@code source} parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MidiParseBenchmark {
+	
+	/** The file to parse, either {@code synthetic:<notes per channel>} or a path. */
+	@Param({"synthetic:1000", "synthetic:10000", "synthetic:100000"})
+	public String source;
+	
+	/** The bytes of the file. */
+	private byte[] bytes;
+	
+	@Setup
+	public void setUp() {
+		Midis2jam2.getLOGGER().setLevel(Level.WARNING);
+		bytes = SyntheticMidi.load(source);
+	}
+	
+	@Benchmark
+	public MidiFile readMidiFile() throws IOException, InvalidMidiDataException {
+		return MidiFile.readMidiFile(ByteBuffer.wrap(bytes));
+	}
+	
+	@Benchmark
+	public Sequence javaSoundSequence() throws IOException, InvalidMidiDataException {
+		return MidiSystem.getSequence(new ByteArrayInputStream(bytes));
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package org.wysko.midis2jam2.benchmark;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.DesktopAssetManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wysko.midis2jam2.HeadlessMidis2jam2;
+import org.wysko.midis2jam2.Midis2jam2;
+import org.wysko.midis2jam2.midi.MidiFile;
+import org.wysko.midis2jam2.util.AssetPack;
+import org.wysko.midis2jam2.util.InstrumentTransition;
+import org.wysko.midis2jam2.util.M2J2Settings;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Measures the time from the bytes of a MIDI file to a scene with every instrument constructed, for each family of
+ * instruments. This covers note period and clone calculation as well as model loading. The asset manager is shared
+ * between invocations, so models come from its cache after the first invocation, as they would for a second song.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StartupBenchmark {
+	
+	/** The family of instruments in the file. */
+	@Param
+	public SyntheticMidi.Family family;
+	
+	/** The number of notes each channel plays. */
+	@Param({"1000", "10000"})
+	public int notes;
+	
+	private byte[] bytes;
+	
+	private AssetManager assetManager;
+	
+	@Setup
+	public void setUp() {
+		Midis2jam2.getLOGGER().setLevel(Level.WARNING);
+		AssetPack.setDiskCache(null);
+		assetManager = new DesktopAssetManager(true);
+		bytes = SyntheticMidi.generate(family, notes, 16);
+	}
+	
+	@Benchmark
+	public HeadlessMidis2jam2 startupToScene() throws Exception {
+		HeadlessMidis2jam2 context = new HeadlessMidis2jam2(MidiFile.readMidiFile(ByteBuffer.wrap(bytes)),
+				new M2J2Settings(0, InstrumentTransition.NORMAL), assetManager);
+		context.initializeHeadless();
+		context.close();
+		return context;
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package org.wysko.midis2jam2.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates standard MIDI files for benchmarking. Files are generated from a fixed seed, so the same parameters
+ * always produce the same bytes.
+ * <p>
+ * Each channel plays notes that start every sixteenth note and last between a sixteenth and a half note, so several
+ * notes of a channel overlap at any time. This exercises both polyphonic instruments and the clone calculation of
+ * monophonic instruments.
+ */
+final class SyntheticMidi {
+	
+	/** Ticks per quarter note of generated files. */
+	static final int DIVISION = 480;
+	
+	/** The number of ticks between the starts of consecutive notes of a channel. */
+	private static final int NOTE_SPACING = DIVISION / 4;
+	
+	/** The MIDI channel of percussion. */
+	private static final int PERCUSSION_CHANNEL = 9;
+	
+	private SyntheticMidi() {
+	}
+	
+	/**
+	 * Returns the bytes of a MIDI file, given a source. The source is either {@code synthetic:<notes>}, which
+	 * {@link #generate(Family, int, int) generates} a file with that many notes per channel for {@link Family#ALL
+	 * every family}, or the path to a MIDI file on disk.
+	 *
+	 * @param source the source of the file
+	 * @return the bytes of the MIDI file
+	 */
+	static byte[] load(String source) {
+		if (source.startsWith("synthetic:")) {
+			return generate(Family.ALL, Integer.parseInt(source.substring("synthetic:".length())), 16);
+		}
+		try {
+			return Files.readAllBytes(Paths.get(source));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Generates a type 1 MIDI file with one track per channel.
+	 *
+	 * @param family           the instrument families to play, one per channel
+	 * @param notesPerChannel  the number of notes each channel plays
+	 * @param numberOfTempos   the number of evenly spaced tempo changes
+	 * @return the bytes of the MIDI file
+	 */
+	static byte[] generate(Family family, int notesPerChannel, int numberOfTempos) {
+		Random random = new Random(family.ordinal() * 31L + notesPerChannel);
+		long length = (long) notesPerChannel * NOTE_SPACING;
+		
+		List<byte[]> tracks = new ArrayList<>();
+		tracks.add(tempoTrack(numberOfTempos, length, random));
+		int[] programs = family.programs;
+		for (int i = 0; i < programs.length; i++) {
+			tracks.add(noteTrack(programs[i], i, notesPerChannel, random));
+		}
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write('M');
+		out.write('T');
+		out.write('h');
+		out.write('d');
+		writeInt(out, 6);
+		writeShort(out, 1);
+		writeShort(out, tracks.size());
+		writeShort(out, DIVISION);
+		for (byte[] track : tracks) {
+			out.write('M');
+			out.write('T');
+			out.write('r');
+			out.write('k');
+			writeInt(out, track.length);
+			out.write(track, 0, track.length);
+		}
+		return out.toByteArray();
+	}
+	
+	/** Generates a track of tempo changes, between 60 and 180 BPM, spread evenly over the length of the file. */
+	private static byte[] tempoTrack(int numberOfTempos, long length, Random random) {
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < numberOfTempos; i++) {
+			int tempo = 60_000_000 / (60 + random.nextInt(121));
+			long tick = numberOfTempos == 1 ? 0 : length * i / numberOfTempos;
+			events.add(new Event(tick, 0xFF, 0x51, 0x03, tempo >> 16, (tempo >> 8) & 0xFF, tempo & 0xFF));
+		}
+		return encode(events);
+	}
+	
+	/**
+	 * Generates the notes of a channel.
+	 *
+	 * @param program the program of the channel, or -1 for percussion
+	 * @param index   the index of the channel, which is skipped over the percussion channel
+	 */
+	private static byte[] noteTrack(int program, int index, int notes, Random random) {
+		int channel = program == -1 ? PERCUSSION_CHANNEL : (index >= PERCUSSION_CHANNEL ? index + 1 : index) & 0xF;
+		List<Event> events = new ArrayList<>();
+		if (program != -1) {
+			events.add(new Event(0, 0xC0 | channel, program));
+		}
+		for (int i = 0; i < notes; i++) {
+			long start = (long) i * NOTE_SPACING;
+			long end = start + NOTE_SPACING * (1 + random.nextInt(8));
+			int note = program == -1 ? 35 + random.nextInt(47) : 36 + random.nextInt(49);
+			events.add(new Event(start, 0x90 | channel, note, 64 + random.nextInt(64)));
+			events.add(new Event(end, 0x80 | channel, note, 0));
+		}
+		return encode(events);
+	}
+	
+	/** Sorts events by time and encodes them as the body of a track, followed by an end of track event. */
+	private static byte[] encode(List<Event> events) {
+		events.sort(Comparator.comparingLong(e -> e.tick));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long tick = 0;
+		for (Event event : events) {
+			writeVarInt(out, event.tick - tick);
+			tick = event.tick;
+			for (int b : event.bytes) {
+				out.write(b);
+			}
+		}
+		writeVarInt(out, 0);
+		out.write(0xFF);
+		out.write(0x2F);
+		out.write(0x00);
+		return out.toByteArray();
+	}
+	
+	private static void writeVarInt(ByteArrayOutputStream out, long value) {
+		int shift = 0;
+		while ((value >> (shift + 7)) != 0) {
+			shift += 7;
+		}
+		for (; shift > 0; shift -= 7) {
+			out.write((int) ((value >> shift) & 0x7F) | 0x80);
+		}
+		out.write((int) (value & 0x7F));
+	}
+	
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		writeShort(out, value >> 16);
+		writeShort(out, value);
+	}
+	
+	private static void writeShort(ByteArrayOutputStream out, int value) {
+		out.write((value >> 8) & 0xFF);
+		out.write(value & 0xFF);
+	}
+	
+	/** A MIDI event with its raw bytes. */
+	private static final class Event {
+		
+		private final long tick;
+		
+		private final int[] bytes;
+		
+		private Event(long tick, int... bytes) {
+			this.tick = tick;
+			this.bytes = bytes;
+		}
+	}
+	
+	/** Families of instruments, by the programs that select them. A program of -1 means the percussion channel. */
+	enum Family {
+		KEYBOARD(0),
+		MALLETS(12),
+		ACCORDION(21),
+		GUITAR(24),
+		BASS_GUITAR(33),
+		STRINGS(40),
+		ENSEMBLE(48),
+		BRASS(56),
+		SAXOPHONE(65),
+		PIPE(73),
+		PERCUSSION(-1),
+		ALL(0, 12, 21, 24, 33, 40, 48, 56, 65, 73, -1);
+		
+		private final int[] programs;
+		
+		Family(int... programs) {
+			this.programs = programs;
+		}
+	}
+}
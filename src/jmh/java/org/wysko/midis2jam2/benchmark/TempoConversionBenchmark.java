@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package org.wysko.midis2jam2.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wysko.midis2jam2.Midis2jam2;
+import org.wysko.midis2jam2.midi.MidiFile;
+
+import javax.sound.midi.InvalidMidiDataException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/** Measures conversions between MIDI ticks and seconds, for files with an increasing number of tempo changes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TempoConversionBenchmark {
+	
+	/** The number of conversions per invocation. */
+	private static final int CONVERSIONS = 4096;
+	
+	/** The number of tempo changes in the file. */
+	@Param({"1", "64", "4096"})
+	public int tempos;
+	
+	private MidiFile file;
+	
+	/** Random ticks across the file. */
+	private final long[] ticks = new long[CONVERSIONS];
+	
+	/** The same ticks, in seconds. */
+	private final double[] seconds = new double[CONVERSIONS];
+	
+	@Setup
+	public void setUp() throws IOException, InvalidMidiDataException {
+		Midis2jam2.getLOGGER().setLevel(Level.WARNING);
+		file = MidiFile.readMidiFile(ByteBuffer.wrap(SyntheticMidi.generate(SyntheticMidi.Family.KEYBOARD, 10_000,
+				tempos)));
+		long length = 10_000L * SyntheticMidi.DIVISION / 4;
+		Random random = new Random(0);
+		for (int i = 0; i < CONVERSIONS; i++) {
+			ticks[i] = (long) (random.nextDouble() * length);
+			seconds[i] = file.midiTickInSeconds(ticks[i]);
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(CONVERSIONS)
+	public double midiTickInSeconds() {
+		double sum = 0;
+		for (long tick : ticks) {
+			sum += file.midiTickInSeconds(tick);
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(CONVERSIONS)
+	public double secondsInMidiTicks() {
+		double sum = 0;
+		for (double time : seconds) {
+			sum += file.secondsInMidiTicks(time);
+		}
+		return sum;
+	}
+}
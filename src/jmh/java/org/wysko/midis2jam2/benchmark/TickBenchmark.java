@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package org.wysko.midis2jam2.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wysko.midis2jam2.HeadlessMidis2jam2;
+import org.wysko.midis2jam2.Midis2jam2;
+import org.wysko.midis2jam2.midi.MidiFile;
+import org.wysko.midis2jam2.util.AssetPack;
+import org.wysko.midis2jam2.util.InstrumentTransition;
+import org.wysko.midis2jam2.util.M2J2Settings;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Measures the steady-state cost of a frame at 60 frames per second: ticking every instrument of a family, then the
+ * instrument registry, shadows and stands. When the song ends, playback seeks back to the beginning, so every measured
+ * frame is in the middle of the song.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark {
+	
+	/** The length of a frame, in seconds. */
+	private static final float FRAME = 1 / 60F;
+	
+	/** The family of instruments in the file. */
+	@Param
+	public SyntheticMidi.Family family;
+	
+	/** The number of notes each channel plays. */
+	@Param({"10000"})
+	public int notes;
+	
+	private HeadlessMidis2jam2 context;
+	
+	/** The length of the song, in seconds. */
+	private double length;
+	
+	@Setup
+	public void setUp() throws Exception {
+		Midis2jam2.getLOGGER().setLevel(Level.WARNING);
+		AssetPack.setDiskCache(null);
+		MidiFile file = MidiFile.readMidiFile(ByteBuffer.wrap(SyntheticMidi.generate(family, notes, 16)));
+		context = new HeadlessMidis2jam2(file, new M2J2Settings(0, InstrumentTransition.NORMAL));
+		context.initializeHeadless();
+		context.seek(0);
+		length = file.lengthInSeconds();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public void frame() {
+		if (context.getTimeSinceStart() > length) {
+			context.seek(0);
+		}
+		context.step(FRAME);
+	}
+}
@@ -17,21 +17,18 @@
 
 package org.wysko.midis2jam2;
 
-import com.jme3.app.Application;
 import com.jme3.app.state.AbstractAppState;
-import com.jme3.app.state.AppStateManager;
 import com.jme3.asset.AssetManager;
 import org.wysko.midis2jam2.gui.Displays;
-import org.wysko.midis2jam2.instrument.Instrument;
+import org.wysko.midis2jam2.midi.JavaXSequencer;
 import org.wysko.midis2jam2.midi.MidiFile;
-import org.wysko.midis2jam2.midi.MidiTempoEvent;
 import org.wysko.midis2jam2.starter.Liaison;
+import org.wysko.midis2jam2.starter.PlaybackClock;
+import org.wysko.midis2jam2.starter.SequencerHandler;
 import org.wysko.midis2jam2.util.M2J2Settings;
 import org.wysko.midis2jam2.world.Camera;
 
 import javax.sound.midi.Sequencer;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /** Contains all the code relevant to operating the 3D scene. */
 public class DesktopMidis2jam2 extends Midis2jam2 {
@@ -39,6 +36,12 @@ public class DesktopMidis2jam2 extends Midis2jam2 {
 	/** The MIDI sequencer. */
 	private final Sequencer sequencer;
 	
+	/** Starts, stops and repositions the {@link #sequencer}, and applies its tempo changes. */
+	private final SequencerHandler sequencerHandler;
+	
+	/** Derives {@link #timeSinceStart} from the position of the {@link #sequencer} on each frame. */
+	private final PlaybackClock playbackClock;
+	
 	/** Reference to the Swing window that is encapsulating the canvas that holds midis2jam2. */
 	private Displays window;
 	
@@ -52,44 +55,8 @@ public class DesktopMidis2jam2 extends Midis2jam2 {
 	public DesktopMidis2jam2(Sequencer sequencer, MidiFile midiFile, M2J2Settings settings) {
 		super(midiFile, settings);
 		this.sequencer = sequencer;
-	}
-	
-	@Override
-	public void initialize(AppStateManager stateManager, Application app) {
-		super.initialize(stateManager, app);
-		
-		/* To begin MIDI playback, I perform a check every millisecond to see if it is time to begin the playback of
-		the MIDI file. This is done by looking at timeSinceStart which contains the number of seconds since the
-		beginning of the file. It starts as a negative number to represent that time is to pass before the file will
-		play. Once it reaches 0, playback should begin.
-		 
-		 The Java MIDI sequencer has a bug where the first tempo of the file will not be applied, so once the
-		 sequencer is ready to play, we set the tempo. And, sometimes it will miss a tempo change in the file. To
-		 reduce the complications from this (unfortunately, it does not solve the issue; it only partially treats it)
-		 we perform a check every millisecond and apply any tempos that should be applied now. */
-		
-		new Timer(true).scheduleAtFixedRate(new TimerTask() {
-			@Override
-			public void run() {
-				if (timeSinceStart + (settings.getLatencyFix() / 1000.0) >= 0 && !seqHasRunOnce && sequencer.isOpen()) {
-					sequencer.setTempoInBPM((float) getFile().firstTempoInBpm());
-					sequencer.start();
-					seqHasRunOnce = true;
-					new Timer(true).scheduleAtFixedRate(new TimerTask() {
-						@Override
-						public void run() {
-							/* Find the first tempo we haven't hit and need to execute */
-							long currentMidiTick = sequencer.getTickPosition();
-							for (MidiTempoEvent tempo : getFile().getTempos()) {
-								if (tempo.getTime() == currentMidiTick) {
-									sequencer.setTempoInBPM(60_000_000F / tempo.getNumber());
-								}
-							}
-						}
-					}, 0, 1);
-				}
-			}
-		}, 0, 1);
+		this.sequencerHandler = new JavaXSequencer(sequencer);
+		this.playbackClock = new PlaybackClock(sequencerHandler, settings.getLatencyFix() / 1000.0);
 	}
 	
 	/**
@@ -106,9 +73,18 @@ public class DesktopMidis2jam2 extends Midis2jam2 {
 	public void cleanup() {
 		getLOGGER().info("Cleaning up.");
 		
+		if (instrumentLoader != null) {
+			instrumentLoader.cancel();
+		}
+		
 		getLOGGER().fine("Stopping and closing sequencer.");
-		sequencer.stop();
-		sequencer.close();
+		sequencerHandler.stop();
+		
+		getLOGGER().fine("Closing the profiler.");
+		profiler.close();
+		
+		getLOGGER().fine(() -> String.format("Evicting %d cached materials.", getMaterialCache().getSize()));
+		getMaterialCache().clear();
 		
 		getLOGGER().fine("Enabling GuiLauncher.");
 		((Liaison) app).enableLauncher();
@@ -123,18 +99,22 @@ public class DesktopMidis2jam2 extends Midis2jam2 {
 			return;
 		}
 		
-		if (sequencer.isOpen()) {
-			/* Increment time if sequencer is ready / playing */
-			timeSinceStart += tpf;
-		}
-		
-		for (Instrument instrument : instruments) {
-			/* Null if not implemented yet */
-			if (instrument != null) {
-				instrument.tick(timeSinceStart, tpf);
+		if (sequencer.isOpen() && isReadyToPlay()) {
+			/* Advance time if the sequencer is ready / playing, and the first instruments have loaded */
+			timeSinceStart = playbackClock.advance(timeSinceStart, tpf);
+			if (profiler.isEnabled()) {
+				profiler.synced(playbackClock.getDrift());
+			}
+			
+			/* Time starts negative, playback begins once the sequencer's position reaches the start of the file */
+			if (!seqHasRunOnce && playbackClock.sequencerTime(timeSinceStart) >= 0) {
+				sequencerHandler.start(getFile());
+				seqHasRunOnce = true;
 			}
 		}
 		
+		tickScene(tpf);
+		
 		/* If at the end of the file */
 		if (sequencer.getMicrosecondPosition() == sequencer.getMicrosecondLength()) {
 			if (!afterEnd) {
@@ -148,12 +128,22 @@ public class DesktopMidis2jam2 extends Midis2jam2 {
 			exit();
 		}
 		
-		shadowController.tick();
-		standController.tick();
-		
 		Camera.preventCameraFromLeaving(app.getCamera());
 	}
 	
+	/**
+	 * {@inheritDoc} The sequencer is repositioned to the same time, shifted by the latency fix. Since the sequencer
+	 * cannot play before the beginning of the file, times before zero are clamped to zero.
+	 */
+	@Override
+	public void seek(double time) {
+		double target = Math.max(0, time);
+		super.seek(target);
+		if (sequencer.isOpen()) {
+			sequencerHandler.seek(getFile(), playbackClock.sequencerTime(target));
+		}
+	}
+	
 	@Override
 	public void onAction(String name, boolean isPressed, float tpf) {
 		super.onAction(name, isPressed, tpf);
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package org.wysko.midis2jam2;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.DesktopAssetManager;
+import org.wysko.midis2jam2.midi.MidiFile;
+import org.wysko.midis2jam2.util.FrameProfiler;
+import org.wysko.midis2jam2.util.M2J2Settings;
+
+/**
+ * Runs midis2jam2 without a window, renderer or sequencer, so the animation of every instrument can be profiled and
+ * tested on machines with no display or GPU.
+ * <p>
+ * Time is kept by a virtual clock that advances by a fixed timestep on each {@link #step(float) step}, and
+ * {@link #simulate(float)} steps through the whole file as fast as the CPU allows. Assets are loaded through a
+ * desktop {@link AssetManager} that has no renderer attached. Close it when done, to stop the threads that construct
+ * instruments.
+ */
+public class HeadlessMidis2jam2 extends Midis2jam2 implements AutoCloseable {
+	
+	/** The asset manager. */
+	private final AssetManager assetManager;
+	
+	/**
+	 * Instantiates a headless midis2jam2 with its own asset manager.
+	 *
+	 * @param midiFile the MIDI file
+	 * @param settings the settings
+	 */
+	public HeadlessMidis2jam2(MidiFile midiFile, M2J2Settings settings) {
+		this(midiFile, settings, new DesktopAssetManager(true));
+	}
+	
+	/**
+	 * Instantiates a headless midis2jam2. The asset manager can be shared between instances, in which case models
+	 * are loaded from its cache.
+	 *
+	 * @param midiFile     the MIDI file
+	 * @param settings     the settings
+	 * @param assetManager the asset manager
+	 */
+	public HeadlessMidis2jam2(MidiFile midiFile, M2J2Settings settings, AssetManager assetManager) {
+		super(midiFile, settings);
+		this.assetManager = assetManager;
+	}
+	
+	/**
+	 * Builds the scene. Since there is no application, this must be called instead of attaching this as an app state.
+	 */
+	public void initializeHeadless() {
+		initializeScene();
+	}
+	
+	/**
+	 * Advances the virtual clock and ticks every instrument.
+	 *
+	 * @param timestep the amount of time to advance, expressed in seconds
+	 */
+	public void step(float timestep) {
+		timeSinceStart += timestep;
+		tickScene(timestep);
+	}
+	
+	/**
+	 * Steps from the current time to the end of the MIDI file as fast as possible, measuring the wall-clock time and
+	 * the memory allocated by this thread. The memory that measuring allocates itself is not counted.
+	 *
+	 * @param timestep the amount of time to advance on each frame, expressed in seconds
+	 * @return the measurements of the simulation
+	 */
+	public SimulationResult simulate(float timestep) {
+		double end = file.lengthInSeconds();
+		long overhead = FrameProfiler.getAllocationOverhead();
+		long allocatedBefore = FrameProfiler.threadAllocatedBytes();
+		long startTime = System.nanoTime();
+		
+		long frames = 0;
+		while (timeSinceStart < end) {
+			step(timestep);
+			frames++;
+		}
+		
+		double elapsed = (System.nanoTime() - startTime) / 1E9;
+		long allocatedAfter = FrameProfiler.threadAllocatedBytes();
+		long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1
+				: Math.max(0, allocatedAfter - allocatedBefore - overhead);
+		return new SimulationResult(frames, elapsed, allocated);
+	}
+	
+	public double getTimeSinceStart() {
+		return timeSinceStart;
+	}
+	
+	@Override
+	public AssetManager getAssetManager() {
+		return assetManager;
+	}
+	
+	@Override
+	public void exit() {
+		/* There is no application to stop */
+	}
+	
+	/** Stops constructing instruments and closes the profiler. */
+	@Override
+	public void close() {
+		if (instrumentLoader != null) {
+			instrumentLoader.cancel();
+		}
+		profiler.close();
+	}
+	
+	/** The measurements of a {@link #simulate(float) simulation}. */
+	public static final class SimulationResult {
+		
+		/** The number of frames simulated. */
+		private final long frames;
+		
+		/** The wall-clock time the simulation took, in seconds. */
+		private final double seconds;
+		
+		/** The number of bytes allocated during the simulation, or -1 if it could not be measured. */
+		private final long bytesAllocated;
+		
+		SimulationResult(long frames, double seconds, long bytesAllocated) {
+			this.frames = frames;
+			this.seconds = seconds;
+			this.bytesAllocated = bytesAllocated;
+		}
+		
+		/** @return the number of frames simulated per wall-clock second */
+		public double framesPerSecond() {
+			return frames / Math.max(seconds, 1E-9);
+		}
+		
+		/** @return the average number of bytes allocated per frame, or -1 if it could not be measured */
+		public double bytesPerFrame() {
+			return bytesAllocated < 0 ? -1 : (double) bytesAllocated / Math.max(frames, 1);
+		}
+		
+		public long getFrames() {
+			return frames;
+		}
+		
+		public double getSeconds() {
+			return seconds;
+		}
+		
+		public long getBytesAllocated() {
+			return bytesAllocated;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("Simulated %d frames in %.2f s (%.0f frames/s), %s allocated per frame.", frames,
+					seconds, framesPerSecond(), bytesAllocated < 0 ? "unknown bytes" :
+							String.format("%.0f bytes", bytesPerFrame()));
+		}
+	}
+}
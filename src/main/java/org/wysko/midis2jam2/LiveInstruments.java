@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2;
+
+import org.wysko.midis2jam2.instrument.Instrument;
+import org.wysko.midis2jam2.instrument.InstrumentRegistry;
+import org.wysko.midis2jam2.instrument.family.piano.Keyboard;
+import org.wysko.midis2jam2.midi.LiveMidiReceiver;
+import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent;
+import org.wysko.midis2jam2.midi.MidiNoteEvent;
+import org.wysko.midis2jam2.midi.MidiNoteOffEvent;
+import org.wysko.midis2jam2.midi.MidiNoteOnEvent;
+import org.wysko.midis2jam2.midi.MidiProgramEvent;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import static org.wysko.midis2jam2.instrument.family.piano.Keyboard.KeyboardSkin.PIANO;
+
+/**
+ * Plays a live MIDI stream. Since the events are not known in advance, instruments are created on the render thread
+ * as the stream asks for them: when a channel changes its program, or plays its first note. Each event is then
+ * {@link Instrument#append(MidiChannelSpecificEvent) appended} to the instrument that plays it.
+ * <p>
+ * Only some instruments can be played live. A program whose instrument cannot is played on a piano instead, and
+ * percussion is not played.
+ */
+final class LiveInstruments {
+	
+	/** The channel that plays percussion. */
+	private static final int PERCUSSION_CHANNEL = 9;
+	
+	private static final int CHANNELS = 16;
+	
+	private static final int NOTES = MidiNoteEvent.MIDI_MAX_NOTE + 1;
+	
+	private static final int PROGRAMS = 128;
+	
+	/** Context to the main class. */
+	private final Midis2jam2 context;
+	
+	/** Receives the stream. */
+	private final LiveMidiReceiver receiver;
+	
+	/** The current program of each channel. */
+	private final int[] programs = new int[CHANNELS];
+	
+	/** The instrument that plays the current program of each channel, or null if the channel has not played yet. */
+	private final Instrument[] channelInstruments = new Instrument[CHANNELS];
+	
+	/**
+	 * The instrument of each program of each channel, indexed by {@code channel * PROGRAMS + program}, so that a
+	 * channel that returns to a program plays the same instrument again.
+	 */
+	private final Instrument[] programInstruments = new Instrument[CHANNELS * PROGRAMS];
+	
+	/**
+	 * The instrument that is playing each note of each channel, indexed by {@code channel * NOTES + note}. A note off
+	 * is sent here, since the program may have changed while the note was held.
+	 */
+	private final Instrument[] noteInstruments = new Instrument[CHANNELS * NOTES];
+	
+	/** The programs that cannot be played live and have been replaced by a piano, so each is only logged once. */
+	private final boolean[] unsupportedPrograms = new boolean[PROGRAMS];
+	
+	/** True once percussion has been ignored, so it is only logged once. */
+	private boolean percussionIgnored;
+	
+	/** Kept so that a lambda is not allocated on each frame. */
+	private final Consumer<MidiChannelSpecificEvent> route = this::route;
+	
+	/**
+	 * Instantiates live instruments.
+	 *
+	 * @param context  context to the main class, which must time events by a {@link
+	 *                 org.wysko.midis2jam2.midi.MidiFile#live() live file}
+	 * @param receiver receives the stream
+	 */
+	LiveInstruments(Midis2jam2 context, LiveMidiReceiver receiver) {
+		this.context = context;
+		this.receiver = receiver;
+	}
+	
+	/**
+	 * Routes every event that has been received since the last frame to its instrument, creating instruments as
+	 * needed. Call once per frame on the render thread, before the instruments tick.
+	 *
+	 * @param time the current time, in seconds
+	 */
+	void update(double time) {
+		receiver.drain(context.getFile(), time, route);
+	}
+	
+	private void route(MidiChannelSpecificEvent event) {
+		int channel = event.getChannel();
+		if (channel == PERCUSSION_CHANNEL) {
+			if (!percussionIgnored) {
+				Midis2jam2.getLOGGER().info("Percussion cannot be played live yet, so channel 10 is ignored.");
+				percussionIgnored = true;
+			}
+			return;
+		}
+		
+		if (event instanceof MidiProgramEvent) {
+			/* Built now, so that it is ready for the first note */
+			programs[channel] = ((MidiProgramEvent) event).getProgramNum();
+			channelInstruments[channel] = instrumentFor((MidiProgramEvent) event);
+		} else if (event instanceof MidiNoteOffEvent) {
+			int index = channel * NOTES + ((MidiNoteOffEvent) event).getNote();
+			if (noteInstruments[index] != null) {
+				noteInstruments[index].append(event);
+				noteInstruments[index] = null;
+			}
+		} else if (event instanceof MidiNoteOnEvent) {
+			if (channelInstruments[channel] == null) {
+				/* The channel plays program 0 until its program changes */
+				MidiProgramEvent program = new MidiProgramEvent(event.getTime(), channel, programs[channel]);
+				program.setTimeInSeconds(event.getTimeInSeconds());
+				channelInstruments[channel] = instrumentFor(program);
+			}
+			playNote((MidiNoteOnEvent) event, channelInstruments[channel]);
+		} else if (channelInstruments[channel] != null) {
+			channelInstruments[channel].append(event);
+		}
+	}
+	
+	/** Plays a note on an instrument, first ending the same note if it is held by another instrument. */
+	private void playNote(MidiNoteOnEvent noteOn, Instrument instrument) {
+		int index = noteOn.getChannel() * NOTES + noteOn.getNote();
+		Instrument previous = noteInstruments[index];
+		if (previous != null && previous != instrument) {
+			MidiNoteOffEvent noteOff = new MidiNoteOffEvent(noteOn.getTime(), noteOn.getChannel(), noteOn.getNote());
+			noteOff.setTimeInSeconds(noteOn.getTimeInSeconds());
+			previous.append(noteOff);
+		}
+		instrument.append(noteOn);
+		noteInstruments[index] = instrument;
+	}
+	
+	/**
+	 * Returns the instrument of a program of a channel, creating it and attaching it to the scene if the channel has
+	 * not played the program before. If the instrument of the program {@link Midis2jam2#isLive(int) cannot be played
+	 * live}, a piano is created instead, without building the instrument of the program.
+	 *
+	 * @param program the program
+	 * @return the instrument
+	 */
+	private Instrument instrumentFor(MidiProgramEvent program) {
+		int programNum = program.getProgramNum();
+		int index = program.getChannel() * PROGRAMS + programNum;
+		if (programInstruments[index] != null) {
+			return programInstruments[index];
+		}
+		
+		Instrument instrument;
+		if (Midis2jam2.isLive(programNum)) {
+			instrument = context.fromEvents(programNum, new ArrayList<>());
+		} else {
+			if (!unsupportedPrograms[programNum]) {
+				Midis2jam2.getLOGGER().info(() -> String.format(
+						"Program %d cannot be played live yet, so it is played on a piano.", programNum));
+				unsupportedPrograms[programNum] = true;
+			}
+			instrument = new Keyboard(context, new ArrayList<>(), PIANO);
+		}
+		
+		context.getRootNode().attachChild(instrument.getOffsetNode());
+		context.instruments.add(instrument);
+		context.instrumentRegistry = new InstrumentRegistry(context.instruments);
+		programInstruments[index] = instrument;
+		return instrument;
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2;
+
+import com.jme3.asset.AssetManager;
+import org.jetbrains.annotations.Nullable;
+import org.wysko.midis2jam2.midi.LiveMidiReceiver;
+import org.wysko.midis2jam2.midi.MidiFile;
+import org.wysko.midis2jam2.midi.OscMidiListener;
+import org.wysko.midis2jam2.util.M2J2Settings;
+import org.wysko.midis2jam2.world.Camera;
+
+/**
+ * Visualizes a live MIDI stream, like a keyboard player's, in a window. There is no file or sequencer: time starts
+ * when the window opens, and the instruments are created as the stream plays them. Since the stream cannot be
+ * replayed, seeking does nothing. If the stream arrives over the network, the state of its jitter buffer is shown by
+ * the profiler.
+ */
+public class LiveMidis2jam2 extends Midis2jam2 {
+	
+	/** Receives the stream. */
+	private final LiveMidiReceiver receiver;
+	
+	/** Sends the stream from the network to the {@link #receiver}, or null if it comes from a device. */
+	@Nullable
+	private final OscMidiListener listener;
+	
+	/**
+	 * Instantiates a live midis2jam2.
+	 *
+	 * @param receiver receives the stream
+	 * @param settings the settings
+	 */
+	public LiveMidis2jam2(LiveMidiReceiver receiver, M2J2Settings settings) {
+		this(receiver, null, settings);
+	}
+	
+	/**
+	 * Instantiates a live midis2jam2 for a stream that may arrive over the network.
+	 *
+	 * @param receiver receives the stream
+	 * @param listener sends the stream from the network to the receiver, or null if it comes from a device
+	 * @param settings the settings
+	 */
+	public LiveMidis2jam2(LiveMidiReceiver receiver, @Nullable OscMidiListener listener, M2J2Settings settings) {
+		super(MidiFile.live(), settings);
+		this.receiver = receiver;
+		this.listener = listener;
+		this.timeSinceStart = 0;
+		listen(receiver);
+	}
+	
+	@Override
+	public AssetManager getAssetManager() {
+		return app.getAssetManager();
+	}
+	
+	@Override
+	public void update(float tpf) {
+		super.update(tpf);
+		timeSinceStart += tpf;
+		if (listener != null && profiler.isEnabled()) {
+			profiler.networked(listener.getBufferDepth(), listener.getPacketsReceived(), listener.getPacketsLost(),
+					listener.getPacketsLate());
+		}
+		tickScene(tpf);
+		Camera.preventCameraFromLeaving(app.getCamera());
+	}
+	
+	/** The stream cannot be replayed, so this does nothing. */
+	@Override
+	public void seek(double time) {
+		// Do nothing
+	}
+	
+	@Override
+	public void cleanup() {
+		getLOGGER().info("Cleaning up.");
+		
+		if (listener != null) {
+			getLOGGER().fine("Closing the network listener.");
+			listener.close();
+		}
+		
+		getLOGGER().fine("Closing the MIDI input device.");
+		receiver.close();
+		
+		getLOGGER().fine("Closing the profiler.");
+		profiler.close();
+		
+		getLOGGER().fine(() -> String.format("Evicting %d cached materials.", getMaterialCache().getSize()));
+		getMaterialCache().clear();
+	}
+	
+	/** Stops the app state. */
+	@Override
+	public void exit() {
+		app.getStateManager().detach(this);
+		app.stop();
+	}
+}
@@ -31,6 +31,8 @@ import com.jme3.input.controls.KeyTrigger;
 import com.jme3.input.controls.MouseButtonTrigger;
 import com.jme3.material.Material;
 import com.jme3.math.Vector3f;
+import com.jme3.renderer.Caps;
+import com.jme3.renderer.Statistics;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import org.jetbrains.annotations.Contract;
@@ -38,6 +40,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 import org.wysko.midis2jam2.instrument.Instrument;
+import org.wysko.midis2jam2.instrument.InstrumentLoader;
+import org.wysko.midis2jam2.instrument.InstrumentRegistry;
 import org.wysko.midis2jam2.instrument.family.animusic.SpaceLaser;
 import org.wysko.midis2jam2.instrument.family.brass.*;
 import org.wysko.midis2jam2.instrument.family.chromaticpercussion.Mallets;
@@ -68,18 +72,25 @@ import org.wysko.midis2jam2.instrument.family.soundeffects.ReverseCymbal;
 import org.wysko.midis2jam2.instrument.family.soundeffects.TelephoneRing;
 import org.wysko.midis2jam2.instrument.family.strings.*;
 import org.wysko.midis2jam2.midi.*;
+import org.wysko.midis2jam2.util.AssetPack;
+import org.wysko.midis2jam2.util.FrameProfiler;
 import org.wysko.midis2jam2.util.M2J2Settings;
 import org.wysko.midis2jam2.util.MatType;
+import org.wysko.midis2jam2.util.MaterialCache;
 import org.wysko.midis2jam2.util.Utils;
 import org.wysko.midis2jam2.world.Camera;
 import org.wysko.midis2jam2.world.ShadowController;
 import org.wysko.midis2jam2.world.StandController;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static com.jme3.scene.Spatial.CullHint.Always;
 import static com.jme3.scene.Spatial.CullHint.Dynamic;
 import static org.wysko.midis2jam2.instrument.family.ensemble.StageChoir.ChoirType.*;
 import static org.wysko.midis2jam2.instrument.family.ensemble.StageStrings.StageStringsType.*;
@@ -93,6 +104,18 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	
 	private static final Logger LOGGER = Logger.getLogger(Midis2jam2.class.getName());
 	
+	/** The number of seconds to jump when seeking backwards or forwards with the keyboard. */
+	private static final double SEEK_STEP = 10.0;
+	
+	/**
+	 * Playback begins once every instrument that plays within this many seconds has loaded. Instruments that play
+	 * later are loaded during playback, shortly before they play.
+	 */
+	private static final double LOAD_AHEAD = 10.0;
+	
+	/** The profiler display is rewritten once every this many frames, since building its text allocates. */
+	private static final int PROFILER_DISPLAY_INTERVAL = 15;
+	
 	/** The {@link M2J2Settings} for this instantiation of midis2jam2. */
 	public final M2J2Settings settings;
 	
@@ -102,6 +125,9 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	/** The MIDI file. */
 	protected final MidiFile file;
 	
+	/** Shares materials between all instruments. */
+	private final MaterialCache materialCache = new MaterialCache(this::createMaterial);
+	
 	/** The root note of the scene. */
 	private final Node rootNode = new Node("root");
 	
@@ -117,6 +143,18 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	 */
 	protected double timeSinceStart = -4;
 	
+	/** Groups the {@link #instruments} by class and tracks which are visible. Updated once per frame. */
+	protected InstrumentRegistry instrumentRegistry;
+	
+	/** Constructs the instruments in the background, and evicts idle ones. */
+	protected InstrumentLoader instrumentLoader;
+	
+	/** Creates and plays instruments from a live MIDI stream, or null if a file is being played. */
+	private LiveInstruments liveInstruments;
+	
+	/** True once enough instruments have loaded for playback to begin. */
+	private boolean readyToPlay;
+	
 	/** The shadow controller. */
 	protected ShadowController shadowController;
 	
@@ -135,12 +173,46 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	/** The current camera position. */
 	private Camera currentCamera = Camera.CAMERA_1A;
 	
-	/** 3D text for debugging. */
+	/** Measures each frame, while the profiler display is shown or a profiler log is kept. */
+	protected final FrameProfiler profiler;
+	
+	/** Shows the {@link #profiler}'s summary, toggled with F3. */
 	private BitmapText debugText;
 	
+	/** Reused to read the renderer's statistics on each frame, and the indices of the values the profiler needs. */
+	private int[] renderStatistics;
+	
+	private int drawCallsIndex;
+	
+	private int trianglesIndex;
+	
+	/** Shows the progress of the {@link #instrumentLoader}, while it is loading. */
+	private BitmapText loadingText;
+	
 	protected Midis2jam2(MidiFile file, M2J2Settings settings) {
 		this.file = file;
 		this.settings = settings;
+		this.profiler = createProfiler(settings.getProfileLog());
+	}
+	
+	/**
+	 * Creates the profiler. If there is a log file, the profiler starts enabled and writes every frame to it.
+	 *
+	 * @param log the file to log every frame to, or null to not keep a log
+	 */
+	private static FrameProfiler createProfiler(File log) {
+		if (log == null) {
+			return new FrameProfiler();
+		}
+		try {
+			FrameProfiler profiler = FrameProfiler.toFile(log);
+			profiler.setEnabled(true);
+			return profiler;
+		} catch (IOException e) {
+			LOGGER.warning(() -> "Could not open the profiler log " + log + ".");
+			LOGGER.warning(exceptionToLines(e));
+			return new FrameProfiler();
+		}
 	}
 	
 	/**
@@ -178,8 +250,13 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	/**
 	 * Reads the MIDI file and calculates program events, appropriately creating instances of each instrument and
 	 * assigning the correct events to respective instruments.
+	 * <p>
+	 * Instruments are constructed in the background by the {@link #instrumentLoader} shortly before they first play,
+	 * since each one loads its own models and performs its own note calculations. They are attached to the
+	 * {@link #rootNode} on the render thread as they finish, see {@link #updateLoadedInstruments()}.
 	 */
 	protected void calculateInstruments() throws ReflectiveOperationException {
+		List<InstrumentLoader.Entry> factories = new ArrayList<>();
 		List<ArrayList<MidiChannelSpecificEvent>> channels = new ArrayList<>();
 		
 		/* Create 16 ArrayLists for each channel */
@@ -210,7 +287,7 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 			}
 			
 			if (j == 9) {
-				instruments.add(new Percussion(this, channelEvents));
+				factories.add(manifestEntry(channelEvents, () -> new Percussion(this, channelEvents)));
 			} else {
 				/* A melodic channel */
 				/* Collect program events */
@@ -225,11 +302,147 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 				}
 				
 				MidiProgramEvent.removeDuplicateProgramEvents(programEvents);
-				assignChannelEventsToInstruments(channelEvents, programEvents);
+				assignChannelEventsToInstruments(channelEvents, programEvents, factories);
+			}
+		}
+		
+		instrumentLoader = new InstrumentLoader(factories, settings.getInstrumentMemoryBudget() * 1024L * 1024L,
+				materialCache);
+	}
+	
+	/**
+	 * Creates an entry of the manifest of instruments, timed by the notes of its events.
+	 *
+	 * @param events  the events of the instrument
+	 * @param factory constructs the instrument
+	 * @return the entry
+	 */
+	private InstrumentLoader.Entry manifestEntry(List<MidiChannelSpecificEvent> events,
+	                                             Supplier<Instrument> factory) {
+		double[] noteTimes = events.stream()
+				.filter(MidiNoteOnEvent.class::isInstance)
+				.mapToDouble(event -> getFile().eventInSeconds(event))
+				.toArray();
+		return new InstrumentLoader.Entry(noteTimes, factory);
+	}
+	
+	/**
+	 * Lets the {@link #instrumentLoader} build instruments that are about to play and evict idle ones. Built
+	 * instruments are brought to the current time and attached to the {@link #rootNode}, evicted ones are detached,
+	 * and the GPU buffers of meshes that no live instrument uses anymore are deleted. The {@link #instruments} are kept
+	 * in the order of the manifest, and the {@link #instrumentRegistry} is rebuilt whenever they change. Call on the
+	 * render thread.
+	 */
+	protected void updateLoadedInstruments() {
+		if (instrumentLoader == null) {
+			return;
+		}
+		
+		boolean changed = instrumentLoader.update(timeSinceStart,
+				instrument -> {
+					instrument.seek(timeSinceStart);
+					rootNode.attachChild(instrument.getOffsetNode());
+				},
+				instrument -> instrument.getOffsetNode().removeFromParent(),
+				mesh -> {
+					if (app != null) {
+						mesh.getBufferList().forEach(app.getRenderer()::deleteBuffer);
+					}
+				});
+		if (changed) {
+			instruments.clear();
+			instruments.addAll(instrumentLoader.instruments());
+			instrumentRegistry = new InstrumentRegistry(instruments);
+		}
+		
+		if (loadingText != null) {
+			if (isReadyToPlay()) {
+				loadingText.removeFromParent();
+				loadingText = null;
+			} else {
+				loadingText.setText(String.format("Loading instruments... %d/%d", instrumentLoader.getBuiltCount(),
+						instrumentLoader.getScheduledCount()));
 			}
 		}
 	}
 	
+	/**
+	 * Plays a live MIDI stream instead of the {@link #file}, which should be a {@link MidiFile#live() live file}.
+	 * Instruments are created as the stream needs them, on each frame before the instruments tick.
+	 *
+	 * @param receiver receives the stream
+	 */
+	public void listen(LiveMidiReceiver receiver) {
+		liveInstruments = new LiveInstruments(this, receiver);
+	}
+	
+	/**
+	 * Determines whether playback can begin, which is once every instrument that plays within {@link #LOAD_AHEAD}
+	 * seconds has loaded and been attached. Once this returns true, it always returns true.
+	 *
+	 * @return true if playback can begin, false otherwise
+	 */
+	protected boolean isReadyToPlay() {
+		if (!readyToPlay) {
+			readyToPlay = instrumentLoader == null || instrumentLoader.isReadyFor(timeSinceStart + LOAD_AHEAD);
+		}
+		return readyToPlay;
+	}
+	
+	/**
+	 * Determines whether the instrument that {@link #fromEvents(int, List)} creates for a program can be played live,
+	 * that is, whether it overrides {@link Instrument#append(MidiChannelSpecificEvent)}. These are the keyboards, the
+	 * accordions and the pizzicato strings. Nothing is built, so this is cheap enough to call on the render thread.
+	 *
+	 * @param programNum the number of the program
+	 * @return true if the instrument of the program can be played live, false otherwise
+	 */
+	@SuppressWarnings("java:S1479")
+	static boolean isLive(int programNum) {
+		switch (programNum) {
+			case 0:
+			case 1:
+			case 2:
+			case 3:
+			case 4:
+			case 5:
+			case 6:
+			case 7:
+			case 8:
+			case 15:
+			case 16:
+			case 17:
+			case 18:
+			case 19:
+			case 20:
+			case 21:
+			case 23:
+			case 45:
+			case 55:
+			case 83:
+			case 84:
+			case 86:
+			case 87:
+			case 88:
+			case 89:
+			case 90:
+			case 91:
+			case 93:
+			case 94:
+			case 95:
+			case 96:
+			case 97:
+			case 99:
+			case 100:
+			case 101:
+			case 102:
+			case 103:
+				return true;
+			default:
+				return false;
+		}
+	}
+	
 	/**
 	 * Given a program number and list of events, returns a new instrument of the correct type containing the specified
 	 * events. Follows the GM-1 standard. If the instrument associated with the program number is not yet implemented,
@@ -242,7 +455,7 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	 */
 	@Nullable
 	@SuppressWarnings({"java:S138", "java:S1541", "java:S1479", "java:S1142"})
-	private Instrument fromEvents(int programNum, List<MidiChannelSpecificEvent> events) {
+	Instrument fromEvents(int programNum, List<MidiChannelSpecificEvent> events) {
 		switch (programNum) {
 			case 0:
 				return (new Keyboard(this, events, PIANO));
@@ -482,14 +695,17 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	 *
 	 * @param channelEvents the list of all events in this channel
 	 * @param programEvents the list of all program events in this channel
+	 * @param factories     the list to add the constructor of each instrument to
 	 */
 	@SuppressWarnings("java:NoSonar")
 	private void assignChannelEventsToInstruments(ArrayList<MidiChannelSpecificEvent> channelEvents,
-	                                              List<MidiProgramEvent> programEvents) {
+	                                              List<MidiProgramEvent> programEvents,
+	                                              List<InstrumentLoader.Entry> factories) {
 		
 		/* If there is only one program event, just assign all events to that */
 		if (programEvents.size() == 1) {
-			instruments.add(fromEvents(programEvents.get(0).getProgramNum(), channelEvents));
+			int programNum = programEvents.get(0).getProgramNum();
+			factories.add(manifestEntry(channelEvents, () -> fromEvents(programNum, channelEvents)));
 			return;
 		}
 		
@@ -534,7 +750,8 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 		
 		/* Create instruments from each program and list */
 		for (Map.Entry<Integer, List<MidiChannelSpecificEvent>> integerListEntry : lastProgramForNote.entrySet()) { // NOSONAR
-			instruments.add(fromEvents(integerListEntry.getKey(), integerListEntry.getValue()));
+			factories.add(manifestEntry(integerListEntry.getValue(),
+					() -> fromEvents(integerListEntry.getKey(), integerListEntry.getValue())));
 		}
 	}
 	
@@ -606,17 +823,42 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 		}
 	}
 	
-	/** Initializes on-screen debug text. */
-	@TestOnly
+	/** Initializes the on-screen profiler display, which is hidden until it is toggled with F3. */
 	private void initDebugText() {
 		BitmapFont bitmapFont = this.app.getAssetManager().loadFont("Interface/Fonts/Default.fnt");
 		debugText = new BitmapText(bitmapFont, false);
 		getDebugText().setSize(bitmapFont.getCharSet().getRenderedSize());
 		getDebugText().setText("");
-		getDebugText().setLocalTranslation(300, getDebugText().getLineHeight() + 500, 0);
+		getDebugText().setCullHint(Always);
 		this.app.getGuiNode().attachChild(getDebugText());
 	}
 	
+	/**
+	 * Shows or hides the profiler display. The profiler measures frames while its display is shown, or for as long as
+	 * it keeps a log. The renderer only counts what it draws while it is measured.
+	 */
+	private void toggleProfiler() {
+		boolean show = getDebugText().getCullHint() == Always;
+		getDebugText().setCullHint(show ? Dynamic : Always);
+		profiler.setEnabled(show || profiler.isLogging());
+		this.app.getRenderer().getStatistics().setEnabled(profiler.isEnabled());
+	}
+	
+	/** Passes the number of draw calls and triangles the renderer drew on the last frame to the profiler. */
+	private void readRenderStatistics() {
+		Statistics statistics = this.app.getRenderer().getStatistics();
+		if (renderStatistics == null) {
+			List<String> labels = Arrays.asList(statistics.getLabels());
+			renderStatistics = new int[labels.size()];
+			drawCallsIndex = labels.indexOf("Objects");
+			trianglesIndex = labels.indexOf("Triangles");
+		}
+		statistics.getData(renderStatistics);
+		statistics.clearFrame();
+		profiler.rendered(drawCallsIndex == -1 ? 0 : renderStatistics[drawCallsIndex],
+				trianglesIndex == -1 ? 0 : renderStatistics[trianglesIndex]);
+	}
+	
 	/**
 	 * Sets the camera position, given a {@link Camera}.
 	 *
@@ -663,6 +905,15 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 		
 		this.app.getInputManager().addMapping("lmb", new MouseButtonTrigger(MouseInput.BUTTON_LEFT));
 		this.app.getInputManager().addListener(this, "lmb");
+		
+		this.app.getInputManager().addMapping("seekBack", new KeyTrigger(KeyInput.KEY_LBRACKET));
+		this.app.getInputManager().addListener(this, "seekBack");
+		
+		this.app.getInputManager().addMapping("seekForward", new KeyTrigger(KeyInput.KEY_RBRACKET));
+		this.app.getInputManager().addListener(this, "seekForward");
+		
+		this.app.getInputManager().addMapping("profiler", new KeyTrigger(KeyInput.KEY_F3));
+		this.app.getInputManager().addListener(this, "profiler");
 	}
 	
 	/**
@@ -690,7 +941,7 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 		Material material = type == MatType.UNSHADED ?
 				unshadedMaterial(assetPrefix(t)) :
 				reflectiveMaterial(assetPrefix(t), brightness);
-		Spatial model = getAssetManager().loadModel(assetPrefix(m));
+		Spatial model = AssetPack.loadModel(getAssetManager(), assetPrefix(m));
 		model.setMaterial(material);
 		return model;
 	}
@@ -706,36 +957,41 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	}
 	
 	/**
-	 * Returns a reflective material given a texture file.
+	 * Returns a reflective material given a texture file. The material is shared with every other model that uses
+	 * the same texture and brightness, so it must not be modified.
 	 *
 	 * @param reflectiveTextureFile the path to the texture
 	 * @param brightness            the brightness of the reflective material
 	 * @return the reflective material
 	 */
 	public Material reflectiveMaterial(String reflectiveTextureFile, float brightness) {
-		Material material = new Material(getAssetManager(), LIGHTING_MAT);
-		material.setVector3(FRESNEL_PARAMS, new Vector3f(0.1F, brightness, 0.1F));
-		material.setBoolean(ENV_MAP_AS_SPHERE_MAP, true);
-		material.setTexture(ENV_MAP, getAssetManager().loadTexture(reflectiveTextureFile));
-		return material;
+		return materialCache.acquire(assetPrefix(reflectiveTextureFile), MatType.REFLECTIVE, brightness);
 	}
 	
 	/**
-	 * Returns a reflective material given a texture file.
+	 * Returns an unshaded material given a texture file. The material is shared with every other model that uses the
+	 * same texture, so it must not be modified.
 	 *
 	 * @param texture the path to the texture
-	 * @return the reflective material
+	 * @return the unshaded material
 	 */
 	public Material unshadedMaterial(String texture) {
-		String goodTexture;
-		if (!texture.startsWith("Assets/")) {
-			goodTexture = "Assets/" + texture;
+		return materialCache.acquire(assetPrefix(texture), MatType.UNSHADED, 0);
+	}
+	
+	/** Creates a new material for the {@link #materialCache}. */
+	private Material createMaterial(String texture, MatType type, float brightness) {
+		if (type == MatType.UNSHADED) {
+			Material material = new Material(getAssetManager(), UNSHADED_MAT);
+			material.setTexture(COLOR_MAP, AssetPack.loadTexture(getAssetManager(), texture));
+			return material;
 		} else {
-			goodTexture = texture;
+			Material material = new Material(getAssetManager(), LIGHTING_MAT);
+			material.setVector3(FRESNEL_PARAMS, new Vector3f(0.1F, brightness, 0.1F));
+			material.setBoolean(ENV_MAP_AS_SPHERE_MAP, true);
+			material.setTexture(ENV_MAP, AssetPack.loadTexture(getAssetManager(), texture));
+			return material;
 		}
-		Material material = new Material(getAssetManager(), UNSHADED_MAT);
-		material.setTexture(COLOR_MAP, getAssetManager().loadTexture(goodTexture));
-		return material;
 	}
 	
 	@Override
@@ -756,12 +1012,44 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 		setupInputMappings();
 		setCamera(Camera.CAMERA_1A);
 		
+		initDebugText();
+		initLoadingText();
+		this.app.getRenderer().getStatistics().setEnabled(profiler.isEnabled());
+		
+		/* Keep rendering while instruments load */
+		initializeScene(false);
+	}
+	
+	/** Initializes the on-screen text that shows the progress of loading instruments. */
+	private void initLoadingText() {
+		BitmapFont bitmapFont = this.app.getAssetManager().loadFont("Interface/Fonts/Default.fnt");
+		loadingText = new BitmapText(bitmapFont, false);
+		loadingText.setSize(bitmapFont.getCharSet().getRenderedSize());
+		loadingText.setText("Loading instruments...");
+		loadingText.setLocalTranslation(20, loadingText.getLineHeight() + 20, 0);
+		this.app.getGuiNode().attachChild(loadingText);
+	}
+	
+	/**
+	 * Loads the stage and every instrument, and sets up the {@link #instrumentRegistry}, {@link #shadowController}
+	 * and {@link #standController}. Equivalent to {@code initializeScene(true)}.
+	 */
+	protected void initializeScene() {
+		initializeScene(true);
+	}
+	
+	/**
+	 * Loads the stage, starts loading the instruments, and sets up the {@link #instrumentRegistry},
+	 * {@link #shadowController} and {@link #standController}. This needs an {@link AssetManager}, but not an
+	 * application or renderer.
+	 *
+	 * @param wait true to wait for every instrument to load and attach them, false to attach them as they load
+	 */
+	protected void initializeScene(boolean wait) {
 		/* Load stage */
 		Spatial stage = loadModel("Stage.obj", "Stage.bmp");
 		rootNode.attachChild(stage);
 		
-		initDebugText();
-		
 		/* Instrument calculation */
 		
 		try {
@@ -770,13 +1058,86 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 			LOGGER.severe(() -> "There was an error calculating instruments.\n" + exceptionToLines(e));
 		}
 		
-		shadowController = new ShadowController(this,
-				(int) instruments.stream().filter(Harp.class::isInstance).count(),
-				(int) instruments.stream().filter(Guitar.class::isInstance).count(),
-				(int) instruments.stream().filter(BassGuitar.class::isInstance).count());
+		if (wait && instrumentLoader != null) {
+			instrumentLoader.buildAll();
+		}
 		
+		/* Instruments are constructed off the render thread, so attach them to the scene here */
+		instrumentRegistry = new InstrumentRegistry(instruments);
+		updateLoadedInstruments();
+		
+		shadowController = new ShadowController(this);
 		standController = new StandController(this);
+	}
+	
+	/**
+	 * Attaches instruments that have finished loading and detaches evicted ones, appends the events of a live stream,
+	 * ticks every instrument at {@link #timeSinceStart}, then updates the {@link #instrumentRegistry}, shadows and
+	 * stands. Call once per frame.
+	 * While the {@link #profiler} is enabled, each of these steps is timed.
+	 *
+	 * @param delta the amount of time since the last frame, expressed in seconds
+	 */
+	protected void tickScene(float delta) {
+		boolean profiling = profiler.isEnabled();
+		long startTime = profiling ? System.nanoTime() : 0;
+		
+		updateLoadedInstruments();
+		if (liveInstruments != null) {
+			liveInstruments.update(timeSinceStart);
+		}
+		
+		if (profiling) {
+			profiler.sceneUpdated(System.nanoTime() - startTime);
+		}
+		
+		/* Indexed, since an iterator would be allocated on every frame */
+		for (int i = 0, size = instruments.size(); i < size; i++) {
+			Instrument instrument = instruments.get(i);
+			/* Null if not implemented yet */
+			if (instrument == null) continue;
+			if (profiling) {
+				long tickTime = System.nanoTime();
+				instrument.tick(timeSinceStart, delta);
+				profiler.instrumentTicked(instrument, System.nanoTime() - tickTime);
+			} else {
+				instrument.tick(timeSinceStart, delta);
+			}
+		}
+		
+		startTime = profiling ? System.nanoTime() : 0;
+		
+		/* Recount visible instruments once, for stacking and shadows */
+		instrumentRegistry.update();
 		
+		shadowController.tick();
+		standController.tick();
+		
+		if (profiling) {
+			profileFrame(delta, startTime);
+		}
+	}
+	
+	/**
+	 * Completes the profiler's measurement of a frame. With an application, the scene graph is updated here so that
+	 * the time it takes can be measured; the application's own update afterwards then has nothing left to do.
+	 *
+	 * @param delta     the amount of time since the last frame, expressed in seconds
+	 * @param startTime the {@link System#nanoTime()} at which the scene began to update, after the instruments ticked
+	 */
+	private void profileFrame(float delta, long startTime) {
+		if (this.app != null) {
+			rootNode.updateGeometricState();
+			readRenderStatistics();
+		}
+		profiler.sceneUpdated(System.nanoTime() - startTime);
+		profiler.endFrame(timeSinceStart, delta);
+		
+		if (debugText != null && debugText.getCullHint() != Always
+				&& profiler.getFrameCount() % PROFILER_DISPLAY_INTERVAL == 1) {
+			debugText.setText(profiler.summary());
+			debugText.setLocalTranslation(10, this.app.getCamera().getHeight() - 10F, 0);
+		}
 	}
 	
 	@Override
@@ -786,6 +1147,47 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 		if ("exit".equals(name)) {
 			exit();
 		}
+		if (isPressed && "profiler".equals(name)) {
+			toggleProfiler();
+		}
+		if (isPressed && "seekBack".equals(name)) {
+			seek(timeSinceStart - SEEK_STEP);
+		} else if (isPressed && "seekForward".equals(name)) {
+			seek(timeSinceStart + SEEK_STEP);
+		}
+	}
+	
+	/**
+	 * Jumps to a time in the MIDI file. Each instrument rebuilds its state at that time by binary searching its
+	 * timelines, so this takes time proportional to the logarithm of the number of events, not to the length of the
+	 * file. Must be called on the render thread.
+	 *
+	 * @param time the time to seek to, in seconds since the beginning of the file
+	 */
+	public void seek(double time) {
+		timeSinceStart = time;
+		afterEnd = false;
+		for (Instrument instrument : instruments) {
+			instrument.seek(time);
+		}
+	}
+	
+	public MaterialCache getMaterialCache() {
+		return materialCache;
+	}
+	
+	/**
+	 * Determines whether meshes can be drawn with hardware instancing. This is false when there is no renderer, like
+	 * in a headless simulation.
+	 *
+	 * @return true if the renderer supports instancing, false otherwise
+	 */
+	public boolean isInstancingSupported() {
+		return app != null && app.getRenderer().getCaps().contains(Caps.MeshInstancing);
+	}
+	
+	public InstrumentRegistry getInstrumentRegistry() {
+		return instrumentRegistry;
 	}
 	
 	public Node getRootNode() {
@@ -794,6 +1196,10 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	
 	public abstract void exit();
 	
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+	
 	public BitmapText getDebugText() {
 		return debugText;
 	}
@@ -803,7 +1209,8 @@ public abstract class Midis2jam2 extends AbstractAppState implements ActionListe
 	}
 	
 	/**
-	 * Be very careful calling this; only call if if you know what you are doing!!
+	 * Be very careful calling this; only call if if you know what you are doing!! Instruments are not rebuilt; to jump
+	 * to a time, use {@link #seek(double)}.
 	 *
 	 * @param timeSinceStart
 	 */
@@ -23,10 +23,17 @@ import com.google.gson.GsonBuilder;
 import com.install4j.api.launcher.SplashScreen;
 import org.apache.commons.cli.*;
 import org.jetbrains.annotations.NotNull;
+import org.wysko.midis2jam2.HeadlessMidis2jam2;
+import org.wysko.midis2jam2.LiveMidis2jam2;
 import org.wysko.midis2jam2.Midis2jam2;
+import org.wysko.midis2jam2.midi.LiveMidiReceiver;
+import org.wysko.midis2jam2.midi.LoadedMidi;
 import org.wysko.midis2jam2.midi.MidiFile;
+import org.wysko.midis2jam2.midi.OscMidiListener;
 import org.wysko.midis2jam2.starter.LegacyLiaison;
+import org.wysko.midis2jam2.starter.LiveLiaison;
 import org.wysko.midis2jam2.starter.Liaison;
+import org.wysko.midis2jam2.util.AssetPack;
 import org.wysko.midis2jam2.util.InstrumentTransition;
 import org.wysko.midis2jam2.util.M2J2Settings;
 import org.wysko.midis2jam2.util.Utils;
@@ -45,8 +52,10 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.net.SocketException;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -93,22 +102,22 @@ public class GuiLauncher extends JFrame {
 		// Register CLI arguments
 		Options options = new Options();
 		options.addOption("a", "headless", false, "Run in headless mode.");
+		options.addOption("b", "memory-budget", true, "Sets the memory budget for instruments, in megabytes.");
 		options.addOption("d", "device", true, "The device to use for MIDI playback.");
 		options.addOption("e", "legacy-engine", false, "Use the legacy window engine.");
 		options.addOption("f", "fullscreen", false, "Starts the application in fullscreen mode.");
 		options.addOption("h", "help", false, "Prints a help message and exits.");
+		options.addOption("i", "live", true, "Visualizes a live MIDI input device instead of a file.");
 		options.addOption("l", "list-devices", false, "Lists the available MIDI devices and exits.");
+		options.addOption("m", "simulate", false, "Simulates the file without a window or sound and prints timings.");
+		options.addOption("p", "profile", true, "Profiles every frame and writes it to a file.");
 		options.addOption("s", "soundfont", true, "Specifies the SoundFont to use for MIDI playback by a path to a " +
 				"SoundFont file.");
 		options.addOption("t", "transition-speed", true, "Specifies the transition speed.");
+		options.addOption("u", "udp", true, "Visualizes MIDI sent as OSC messages to a UDP port instead of a file.");
 		options.addOption("v", "version", false, "Prints the version of this program and exits.");
 		options.addOption("y", "latency", true, "Adjusts the audio for A/V sync.");
 		
-		// Initialize GUI
-		SplashScreen.writeMessage("Loading...");
-		IntelliJTheme.setup(GuiLauncher.class.getResourceAsStream("/Material Darker Contrast.theme.json"));
-		
-		
 		// Parse CLI arguments
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd = parser.parse(options, args);
@@ -136,6 +145,22 @@ public class GuiLauncher extends JFrame {
 			return;
 		}
 		
+		/* Simulate the file and exit if the user requested it. This must not touch the display. */
+		if (cmd.hasOption("simulate")) {
+			simulate(cmd);
+			return;
+		}
+		
+		/* Visualize a live MIDI input device or network stream if the user requested it. */
+		if (cmd.hasOption("live") || cmd.hasOption("udp")) {
+			live(cmd);
+			return;
+		}
+		
+		// Initialize GUI
+		SplashScreen.writeMessage("Loading...");
+		IntelliJTheme.setup(GuiLauncher.class.getResourceAsStream("/Material Darker Contrast.theme.json"));
+		
 		if (cmd.hasOption("headless")) {
 			/* Ensure that the user has specified a MIDI file. */
 			if (cmd.getArgs().length == 0) {
@@ -151,9 +176,9 @@ public class GuiLauncher extends JFrame {
 			}
 			
 			/* Ensure that the file is a valid MIDI file. */
-			Sequence sequence;
+			LoadedMidi loadedMidi;
 			try {
-				sequence = MidiSystem.getSequence(midiFile);
+				loadedMidi = LoadedMidi.load(midiFile);
 			} catch (InvalidMidiDataException e) {
 				System.err.println("Invalid MIDI file.");
 				System.err.println(Utils.exceptionToLines(e));
@@ -217,7 +242,7 @@ public class GuiLauncher extends JFrame {
 					sequencer.getTransmitter().setReceiver(device.getReceiver());
 				}
 				sequencer.open();
-				sequencer.setSequence(sequence);
+				sequencer.setSequence(loadedMidi.getSequence());
 			} catch (MidiUnavailableException | InvalidMidiDataException e) {
 				System.err.println("Could not open MIDI device.");
 				System.err.println(Utils.exceptionToLines(e));
@@ -236,6 +261,21 @@ public class GuiLauncher extends JFrame {
 				}
 			}
 			
+			/* Set the memory budget, if specified */
+			int memoryBudget = M2J2Settings.DEFAULT_INSTRUMENT_MEMORY_BUDGET;
+			if (cmd.hasOption("memory-budget")) {
+				try {
+					memoryBudget = Integer.parseInt(cmd.getOptionValue("memory-budget"));
+				} catch (NumberFormatException e) {
+					System.err.println("Invalid memory budget.");
+					System.err.println(Utils.exceptionToLines(e));
+					return;
+				}
+			}
+			
+			/* Profile to a file, if specified */
+			File profileLog = cmd.hasOption("profile") ? new File(cmd.getOptionValue("profile")) : null;
+			
 			/* Set other options */
 			boolean fullscreen = cmd.hasOption("fullscreen");
 			boolean legacyEngine = cmd.hasOption("legacy-engine");
@@ -252,22 +292,16 @@ public class GuiLauncher extends JFrame {
 			}
 			
 			
-			try {
-				if (legacyEngine) {
-					LegacyLiaison liaison = new LegacyLiaison(null, sequencer, MidiFile.readMidiFile(midiFile), new M2J2Settings(latency,
-							InstrumentTransition.valueOf(transitionSpeed.toUpperCase())),
-							fullscreen);
-					liaison.start();
-				} else {
-					Liaison liaison = new Liaison(null, sequencer, MidiFile.readMidiFile(midiFile), new M2J2Settings(latency,
-							InstrumentTransition.valueOf(transitionSpeed.toUpperCase())),
-							fullscreen);
-					liaison.start(Midis2jam2Display.class);
-				}
-			} catch (IOException e) {
-				e.printStackTrace();
-			} catch (InvalidMidiDataException e) {
-				e.printStackTrace();
+			if (legacyEngine) {
+				LegacyLiaison liaison = new LegacyLiaison(null, sequencer, loadedMidi.getMidiFile(), new M2J2Settings(latency,
+						InstrumentTransition.valueOf(transitionSpeed.toUpperCase()), memoryBudget, profileLog),
+						fullscreen);
+				liaison.start();
+			} else {
+				Liaison liaison = new Liaison(null, sequencer, loadedMidi.getMidiFile(), new M2J2Settings(latency,
+						InstrumentTransition.valueOf(transitionSpeed.toUpperCase()), memoryBudget, profileLog),
+						fullscreen);
+				liaison.start(Midis2jam2Display.class);
 			}
 			
 			
@@ -343,6 +377,98 @@ public class GuiLauncher extends JFrame {
 		
 	}
 	
+	/**
+	 * Simulates the MIDI file given on the command line with {@link HeadlessMidis2jam2} at 60 frames per second, as
+	 * fast as possible, and prints the number of frames simulated per second and the allocation per frame.
+	 *
+	 * @param cmd the parsed command line
+	 */
+	@SuppressWarnings("java:S106")
+	private static void simulate(CommandLine cmd) {
+		if (cmd.getArgs().length == 0) {
+			System.err.println("No MIDI file specified.");
+			return;
+		}
+		
+		InstrumentTransition transition = InstrumentTransition.NORMAL;
+		if (cmd.hasOption("transition-speed")) {
+			try {
+				transition = InstrumentTransition.valueOf(cmd.getOptionValue("transition-speed").toUpperCase());
+			} catch (IllegalArgumentException e) {
+				System.err.println("Invalid transition speed.");
+				return;
+			}
+		}
+		
+		MidiFile midiFile;
+		try {
+			midiFile = MidiFile.readMidiFile(new File(cmd.getArgs()[0]));
+		} catch (IOException | InvalidMidiDataException e) {
+			System.err.println("Could not read MIDI file.");
+			System.err.println(Utils.exceptionToLines(e));
+			return;
+		}
+		
+		/* Simulations are measurements, so they should neither depend on nor fill the asset cache */
+		AssetPack.setDiskCache(null);
+		File profileLog = cmd.hasOption("profile") ? new File(cmd.getOptionValue("profile")) : null;
+		HeadlessMidis2jam2 midis2jam2 = new HeadlessMidis2jam2(midiFile, new M2J2Settings(0, transition,
+				M2J2Settings.DEFAULT_INSTRUMENT_MEMORY_BUDGET, profileLog));
+		long startTime = System.nanoTime();
+		midis2jam2.initializeHeadless();
+		System.out.printf("Built the scene in %.0f ms.%n", (System.nanoTime() - startTime) / 1E6);
+		System.out.println(midis2jam2.simulate(1 / 60F));
+		midis2jam2.close();
+	}
+	
+	/**
+	 * Opens the MIDI input device, or listens on the UDP port, given on the command line and visualizes what is played
+	 * on it with {@link LiveMidis2jam2}, until the window is closed.
+	 *
+	 * @param cmd the parsed command line
+	 */
+	@SuppressWarnings("java:S106")
+	private static void live(CommandLine cmd) {
+		InstrumentTransition transition = InstrumentTransition.NORMAL;
+		if (cmd.hasOption("transition-speed")) {
+			try {
+				transition = InstrumentTransition.valueOf(cmd.getOptionValue("transition-speed").toUpperCase());
+			} catch (IllegalArgumentException e) {
+				System.err.println("Invalid transition speed.");
+				return;
+			}
+		}
+		
+		LiveMidiReceiver receiver;
+		OscMidiListener listener = null;
+		if (cmd.hasOption("udp")) {
+			receiver = new LiveMidiReceiver();
+			try {
+				listener = new OscMidiListener(Integer.parseInt(cmd.getOptionValue("udp")), receiver);
+			} catch (NumberFormatException e) {
+				System.err.println("Invalid UDP port.");
+				return;
+			} catch (SocketException e) {
+				System.err.println("Could not listen on the UDP port.");
+				System.err.println(Utils.exceptionToLines(e));
+				return;
+			}
+			listener.start();
+		} else {
+			try {
+				receiver = LiveMidiReceiver.open(cmd.getOptionValue("live"));
+			} catch (MidiUnavailableException e) {
+				System.err.println("Could not open the MIDI input device.");
+				System.err.println(Utils.exceptionToLines(e));
+				return;
+			}
+		}
+		
+		File profileLog = cmd.hasOption("profile") ? new File(cmd.getOptionValue("profile")) : null;
+		new LiveLiaison(receiver, new M2J2Settings(0, transition, M2J2Settings.DEFAULT_INSTRUMENT_MEMORY_BUDGET,
+				profileLog), cmd.hasOption("fullscreen"), listener).start();
+	}
+	
 	/**
 	 * Returns the current version of the program.
 	 *
@@ -489,20 +615,44 @@ public class GuiLauncher extends JFrame {
 			showMessageDialog(this, "The specified MIDI file does not exist.", "MIDI file does not exist", ERROR_MESSAGE);
 			return;
 		}
-		Sequence sequence;
-		try {
-			sequence = MidiSystem.getSequence(midiFile);
-		} catch (IOException ioException) {
-			this.setCursor(getPredefinedCursor(Cursor.DEFAULT_CURSOR));
-			showMessageDialog(this, new ExceptionDisplay("There was an error reading the MIDI file.", ioException), "I/O error", ERROR_MESSAGE);
-			return;
-		} catch (InvalidMidiDataException invalidMidiDataException) {
-			this.setCursor(getPredefinedCursor(Cursor.DEFAULT_CURSOR));
-			showMessageDialog(this, new ExceptionDisplay("The MIDI file has invalid data, or is not a Standard MIDI " +
-					"file.", invalidMidiDataException), "Bad MIDI file", ERROR_MESSAGE);
-			return;
-		}
 		
+		/* Read and parse the MIDI file off the event dispatch thread, then continue on it */
+		startButton.setEnabled(false);
+		new SwingWorker<LoadedMidi, Void>() {
+			@Override
+			protected LoadedMidi doInBackground() throws IOException, InvalidMidiDataException {
+				return LoadedMidi.load(midiFile);
+			}
+			
+			@Override
+			protected void done() {
+				startButton.setEnabled(true);
+				try {
+					start(get());
+				} catch (InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException executionException) {
+					setCursor(getPredefinedCursor(Cursor.DEFAULT_CURSOR));
+					Exception cause = executionException.getCause() instanceof Exception ?
+							(Exception) executionException.getCause() : executionException;
+					if (cause instanceof InvalidMidiDataException) {
+						showMessageDialog(GuiLauncher.this, new ExceptionDisplay("The MIDI file has invalid data, or " +
+								"is not a Standard MIDI file.", cause), "Bad MIDI file", ERROR_MESSAGE);
+					} else {
+						showMessageDialog(GuiLauncher.this, new ExceptionDisplay("There was an error reading the MIDI " +
+								"file.", cause), "I/O error", ERROR_MESSAGE);
+					}
+				}
+			}
+		}.execute();
+	}
+	
+	/**
+	 * Opens the selected SoundFont and MIDI device and starts midis2jam2 with a MIDI file that has been loaded.
+	 *
+	 * @param loadedMidi the loaded MIDI file
+	 */
+	private void start(LoadedMidi loadedMidi) {
 		// Collect sf2
 		Soundbank soundfont = null;
 		final String selectedSf2Path = (String) soundFontPathDropDown.getSelectedItem();
@@ -556,7 +706,7 @@ public class GuiLauncher extends JFrame {
 				sequencer.getTransmitter().setReceiver(midiDevice.getReceiver());
 			}
 			sequencer.open();
-			sequencer.setSequence(sequence);
+			sequencer.setSequence(loadedMidi.getSequence());
 			
 			int value = (int) latencySpinner.getValue();
 			if (midiDevice.getDeviceInfo().getName().startsWith("VirtualMIDISynth")) {
@@ -574,14 +724,14 @@ public class GuiLauncher extends JFrame {
 				
 			}
 			if (legacyEngineCheckbox.isSelected()) {
-				LegacyLiaison liaison = new LegacyLiaison(this, sequencer, MidiFile.readMidiFile(midiFile),
+				LegacyLiaison liaison = new LegacyLiaison(this, sequencer, loadedMidi.getMidiFile(),
 						new M2J2Settings(value,
 								InstrumentTransition.valueOf(getSelectedTransitionRadioButton().getName())),
 						fullscreenCheckbox.isSelected());
 				this.setCursor(getPredefinedCursor(Cursor.DEFAULT_CURSOR));
 				SwingUtilities.invokeLater(() -> new Thread(liaison::start).start());
 			} else {
-				Liaison liaison = new Liaison(this, sequencer, MidiFile.readMidiFile(midiFile), new M2J2Settings(value,
+				Liaison liaison = new Liaison(this, sequencer, loadedMidi.getMidiFile(), new M2J2Settings(value,
 						InstrumentTransition.valueOf(getSelectedTransitionRadioButton().getName())),
 						fullscreenCheckbox.isSelected());
 				this.setCursor(getPredefinedCursor(Cursor.DEFAULT_CURSOR));
@@ -18,6 +18,7 @@ package org.wysko.midis2jam2.instrument
 
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.algorithmic.NoteQueue
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteOffEvent
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
@@ -26,25 +27,36 @@ import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 abstract class DecayedInstrument protected constructor(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
     Instrument(context) {
 
-    /** List of events this instrument should play. This is mutable by lower classes. */
-    protected open val hits: MutableList<MidiNoteOnEvent> =
-        eventList.filterIsInstance<MidiNoteOnEvent>().toMutableList()
+    /** List of events this instrument should play. This list is not modified as the MIDI file progresses. */
+    protected open val hits: List<MidiNoteOnEvent> = eventList.filterIsInstance<MidiNoteOnEvent>()
 
-    /** Initialized to the same vales of [hits], but used for visibility calculations. */
-    protected val hitsV: MutableList<MidiNoteOnEvent> =
-        eventList.filterIsInstance<MidiNoteOnEvent>().toMutableList()
+    /** The [hits] as a [Timeline], advanced by lower classes as they animate. */
+    protected val hitTimeline: Timeline<MidiNoteOnEvent> =
+        timelineOf(eventList.filterIsInstance<MidiNoteOnEvent>())
+
+    /** A separate [Timeline] of the [hits], used for visibility calculations. */
+    protected val hitsV: Timeline<MidiNoteOnEvent> = timelineOf(eventList.filterIsInstance<MidiNoteOnEvent>())
 
     /** The last note that this instrument has played, used for visibility calculations. */
     protected var lastHit: MidiNoteOnEvent? = null
 
+    /**
+     * Adds a hit from a live MIDI stream to the end of [hitTimeline] and [hitsV].
+     *
+     * @param event the note on, with its time in seconds assigned
+     */
+    protected fun appendHit(event: MidiNoteOnEvent) {
+        hitTimeline.append(event)
+        hitsV.append(event)
+    }
+
     override fun calcVisibility(time: Double): Boolean {
         /* Within one second of a hit? Visible. */
-        if (hitsV.isNotEmpty() && context.file.eventInSeconds(hitsV[0]) - time <= 1) return true
+        if (hitsV.peekTime() - time <= 1) return true
 
         /* If within a 7-second gap between the last hit and the next? Visible. */
         if (lastHit != null
-            && hitsV.isNotEmpty()
-            && context.file.eventInSeconds(hitsV[0]) - context.file.eventInSeconds(lastHit) <= 7
+            && hitsV.peekTime() - context.file.eventInSeconds(lastHit) <= 7
         ) return true
 
         /* If after 2 seconds of the last hit? Visible. */
@@ -54,10 +66,15 @@ abstract class DecayedInstrument protected constructor(context: Midis2jam2, even
         return false
     }
 
+    override fun seek(time: Double) {
+        super.seek(time)
+        lastHit = hitsV.lastElapsed()
+    }
+
     override fun tick(time: Double, delta: Float) {
         setVisibility(time)
         /* Simulate hit truncation */
-        NoteQueue.collectOne(hitsV, context, time)?.let {
+        NoteQueue.collectOne(hitsV, time)?.let {
             lastHit = it
         }
         moveForMultiChannel(delta)
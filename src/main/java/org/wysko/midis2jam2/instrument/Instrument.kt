@@ -19,9 +19,11 @@ package org.wysko.midis2jam2.instrument
 import com.jme3.scene.Node
 import org.jetbrains.annotations.Contract
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
+import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
+import org.wysko.midis2jam2.midi.MidiEvent
 import org.wysko.midis2jam2.util.InstrumentTransition
 import org.wysko.midis2jam2.util.Utils
-import kotlin.math.max
 
 /**
  * Any visual representation of a MIDI instrument. midis2jam2 displays separate instruments for
@@ -56,6 +58,9 @@ abstract class Instrument protected constructor(
      */
     private var index = 0.0
 
+    /** The timelines of this instrument, which are moved together when [seeking][seek]. */
+    private val timelines: MutableList<Timeline<*>> = ArrayList()
+
     /**
      * Updates note collection, animation, visibility, and any other calculations that need to run on each frame.
      *
@@ -64,6 +69,37 @@ abstract class Instrument protected constructor(
      */
     abstract fun tick(time: Double, delta: Float)
 
+    /**
+     * Jumps to [time], rebuilding the state of this instrument as if it had played up to that point. The base
+     * implementation moves every timeline created with [timelineOf] or passed to [register]; implementations that keep
+     * other state derived from their events should override this and rebuild it. The next call to [tick] is expected
+     * to be at [time].
+     *
+     * @param time the time to seek to, expressed in seconds
+     */
+    open fun seek(time: Double) {
+        timelines.forEach { it.seek(time) }
+    }
+
+    /**
+     * Adds an [event] to the end of this instrument's events, while a live MIDI stream is played. The time of the event
+     * is expected to be equal to or later than every event this instrument already has, and no earlier than the last
+     * call to [tick].
+     *
+     * Instruments precompute their animation from all of their events by default, so they cannot be played live. The
+     * base implementation ignores the event and returns false.
+     *
+     * @param event the event, timed by [MidiEvent.timeInSeconds]
+     * @return true if this instrument can be played live, false otherwise
+     */
+    open fun append(event: MidiChannelSpecificEvent): Boolean = false
+
+    /** Creates a [Timeline] of MIDI [events] that is moved with this instrument when [seeking][seek]. */
+    protected fun <T : MidiEvent> timelineOf(events: List<T>): Timeline<T> = register(Timeline.of(events, context))
+
+    /** Registers a [timeline] to be moved with this instrument when [seeking][seek], and returns it. */
+    protected fun <T> register(timeline: Timeline<T>): Timeline<T> = timeline.also { timelines.add(it) }
+
     /**
      * Calculates if this instrument is visible at a given time. Implementations of this method should follow this
      * general guideline:
@@ -80,18 +116,20 @@ abstract class Instrument protected constructor(
     abstract fun calcVisibility(time: Double): Boolean
 
     /**
-     * Returns the index of this instrument in the list of other instruments of this type that are visible.
+     * Returns the index of this instrument in the list of other instruments of this type that are visible. The
+     * visibility of other instruments is read from the [InstrumentRegistry], as of the last frame.
      *
      * @param delta the amount of time that has passed since the last frame
      */
     @Contract(pure = false)
     protected fun updateInstrumentIndex(delta: Float): Float {
+        val registry = context.instrumentRegistry
         val targetIndex = if (isVisible) {
-            /* Index in the list of instruments from context */
-            max(0, context.instruments.filter { this.javaClass.isInstance(it) && it.isVisible }.indexOf(this))
+            /* Index in the list of visible instruments of this type */
+            registry.visibleIndexOf(this)
         } else {
             /* The number of visible instruments of this type, minus one */
-            context.instruments.filter { this.javaClass.isInstance(it) && it.isVisible }.size - 1
+            registry.visibleCount(javaClass) - 1
         }
 
         return if (context.settings.transitionSpeed == InstrumentTransition.NONE) {
@@ -102,7 +140,7 @@ abstract class Instrument protected constructor(
             index += delta * BASE_TRANSITION_SPEED * (targetIndex - index) / context.settings.transitionSpeed.speed
 
             /* Never set the instrument index to anything larger than the number of instruments of this type */
-            index = index.coerceAtMost(context.instruments.filter { this.javaClass.isInstance(it) }.size.toDouble())
+            index = index.coerceAtMost(registry.count(javaClass).toDouble())
 
             index.toFloat()
         }
@@ -130,9 +168,9 @@ abstract class Instrument protected constructor(
     }
 
     init {
-        /* Connect node tree */
+        /* Connect node tree. The offset node is attached to the scene by whoever constructs this instrument, since
+         * instruments may be constructed off the render thread. */
         highestLevel.attachChild(instrumentNode)
         offsetNode.attachChild(highestLevel)
-        context.rootNode.attachChild(offsetNode)
     }
 }
\ No newline at end of file
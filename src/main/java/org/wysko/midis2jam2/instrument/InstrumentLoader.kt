@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.instrument
+
+import com.jme3.material.Material
+import com.jme3.scene.Geometry
+import com.jme3.scene.Mesh
+import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.util.MaterialCache
+import org.wysko.midis2jam2.util.Utils.exceptionToLines
+import java.util.*
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Consumer
+import java.util.function.Supplier
+
+/**
+ * Constructs the instruments of a song in the background, shortly before they play, and evicts them again when they
+ * are idle for a long time and memory is tight. Constructing an instrument loads its models and textures, which is
+ * what makes starting a song slow, so doing it off the render thread keeps the window responsive.
+ *
+ * The loader is given a manifest: the instrument factories that [Midis2jam2] finds in the MIDI file, each with the
+ * times of its notes. On each [update], every instrument that has a note within [BUILD_AHEAD] seconds is built, in
+ * order of its first note, and [isReadyFor] tells whether every instrument that plays before some time has been
+ * built. Instruments that play much later are built during playback.
+ *
+ * Live instruments are charged the estimated size of their meshes. Instruments share meshes with each other through the
+ * asset caches, so each mesh is charged once, however many live instruments use it. While the total is over the
+ * memory budget, instruments that are not visible and have no note within [EVICT_GAP] seconds are evicted, the ones
+ * that play again last first. Evicting an instrument releases the materials it took from the [MaterialCache], and
+ * frees the GPU buffers of the meshes that no other live instrument uses; those are exactly the bytes that are
+ * uncharged. The asset caches keep the meshes themselves, so that an evicted instrument, which is built again by its
+ * factory once it is about to play, is quick to rebuild. The budget therefore bounds the meshes on the GPU.
+ *
+ * Live instruments are kept in the order of the manifest, so that instruments are stacked the same way no matter
+ * which finishes first. Apart from the construction itself, everything happens on the render thread.
+ */
+class InstrumentLoader @JvmOverloads constructor(
+    /** The manifest, in the order that instruments should appear in. */
+    private val manifest: List<Entry>,
+
+    /** The estimated number of bytes of meshes that live instruments can hold before idle ones are evicted. */
+    private val memoryBudget: Long = Long.MAX_VALUE,
+
+    /** The cache that instruments take their materials from, so they can be released on eviction, if any. */
+    private val materialCache: MaterialCache? = null,
+
+    /** The number of instruments to construct at once. */
+    threads: Int = Runtime.getRuntime().availableProcessors(),
+) {
+
+    /**
+     * An instrument that has finished building, with its position in the manifest and the references to materials
+     * that it took while it was built.
+     */
+    private class Built(val position: Int, val instrument: Instrument?, val materials: List<Material>)
+
+    /** A mesh of one or more live instruments, with the number of live instruments that use it. */
+    private class MeshCharge(val bytes: Long) {
+        var instruments = 0
+    }
+
+    /** The states of each entry of the manifest. */
+    private enum class State {
+        /** The instrument has not been built, or has been evicted. */
+        UNBUILT,
+
+        /** The instrument is being built. */
+        BUILDING,
+
+        /** The instrument has been built, or is not implemented. */
+        BUILT
+    }
+
+    /** The state of each entry of the manifest. */
+    private val states = Array(manifest.size) { State.UNBUILT }
+
+    /** The live instrument of each entry of the manifest, or null if there is none. */
+    private val live = arrayOfNulls<Instrument>(manifest.size)
+
+    /** The distinct meshes of each live instrument. */
+    private val meshes = arrayOfNulls<Array<Mesh>>(manifest.size)
+
+    /** The references to materials that each live instrument holds. */
+    private val materials = arrayOfNulls<List<Material>>(manifest.size)
+
+    /** The meshes of the live instruments. Only used on the render thread. */
+    private val charges = IdentityHashMap<Mesh, MeshCharge>()
+
+    /** The estimated size of the meshes of every live instrument, each mesh counted once, in bytes. */
+    private var liveBytes = 0L
+
+    /** The positions of the entries of the manifest, in order of their first note. */
+    private val byFirstNote: IntArray = manifest.indices.sortedBy { manifest[it].firstNote }.toIntArray()
+
+    /* The idle instruments and the times of their next notes, preallocated so that evicting does not allocate */
+    private val idle = IntArray(manifest.size)
+    private val idleNextNotes = DoubleArray(manifest.size)
+
+    /** Instruments that have finished building but have not been attached. */
+    private val finished = ConcurrentLinkedQueue<Built>()
+
+    /** Constructs the instruments. */
+    private val executor = Executors.newFixedThreadPool(threads.coerceAtLeast(1)) { runnable ->
+        Thread(runnable, "InstrumentLoader").apply { isDaemon = true }
+    }
+
+    /** The number of instruments that have been submitted for building, including ones that are built again. */
+    var scheduledCount: Int = 0
+        private set
+
+    /** The number of instruments that have finished building, including ones that are built again. */
+    private val finishedCount = AtomicInteger()
+
+    /** The number of instruments that have finished building, including ones that are built again. */
+    val builtCount: Int
+        get() = finishedCount.get()
+
+    /**
+     * Attaches instruments that have finished building, builds instruments that are about to play, and evicts idle
+     * instruments while over the memory budget. Call once per frame.
+     *
+     * @param time   the current time, in seconds
+     * @param attach called with each instrument that is built
+     * @param detach called with each instrument that is evicted
+     * @param free   called with each mesh that no live instrument uses after an eviction, to free its GPU buffers
+     * @return true if any instrument was attached or evicted, false otherwise
+     */
+    fun update(
+        time: Double,
+        attach: Consumer<Instrument>,
+        detach: Consumer<Instrument>,
+        free: Consumer<Mesh>
+    ): Boolean {
+        var changed = false
+
+        /* Attach instruments that have finished */
+        while (true) {
+            val built = finished.poll() ?: break
+            states[built.position] = State.BUILT
+            val instrument = built.instrument
+            if (instrument == null) {
+                built.materials.forEach { materialCache?.release(it) }
+                continue
+            }
+            live[built.position] = instrument
+            materials[built.position] = built.materials
+            meshes[built.position] = charge(instrument)
+            attach.accept(instrument)
+            changed = true
+        }
+
+        /* Build instruments that are about to play, or that may still be visible from a recent note */
+        for (position in byFirstNote) {
+            if (states[position] != State.UNBUILT) continue
+            if (manifest[position].nextNote(time - LOOK_BEHIND) <= time + BUILD_AHEAD) {
+                submit(position)
+            }
+        }
+
+        if (liveBytes > memoryBudget) {
+            changed = evict(time, detach, free) || changed
+        }
+        return changed
+    }
+
+    /** Charges the meshes of an [instrument] that no other live instrument uses, and returns its distinct meshes. */
+    private fun charge(instrument: Instrument): Array<Mesh> {
+        val distinct = Collections.newSetFromMap(IdentityHashMap<Mesh, Boolean>())
+        instrument.offsetNode.depthFirstTraversal { if (it is Geometry) distinct.add(it.mesh) }
+        for (mesh in distinct) {
+            charges.getOrPut(mesh) { MeshCharge(estimateSize(mesh)).also { liveBytes += it.bytes } }.instruments++
+        }
+        return distinct.toTypedArray()
+    }
+
+    /** Evicts idle instruments, the ones that play again last first, until the live instruments fit the budget. */
+    private fun evict(time: Double, detach: Consumer<Instrument>, free: Consumer<Mesh>): Boolean {
+        /* Insertion sort, latest next note first: this runs on each frame while over budget, so it must not allocate */
+        var count = 0
+        for (position in manifest.indices) {
+            if (live[position]?.isVisible != false) continue
+            val nextNote = manifest[position].nextNote(time)
+            if (nextNote - time <= EVICT_GAP) continue
+            var index = count++
+            while (index > 0 && idleNextNotes[index - 1] < nextNote) {
+                idle[index] = idle[index - 1]
+                idleNextNotes[index] = idleNextNotes[index - 1]
+                index--
+            }
+            idle[index] = position
+            idleNextNotes[index] = nextNote
+        }
+
+        var evicted = false
+        for (i in 0 until count) {
+            if (liveBytes <= memoryBudget) break
+            val position = idle[i]
+            detach.accept(live[position]!!)
+            meshes[position]?.forEach { mesh ->
+                val charge = charges.getValue(mesh)
+                if (--charge.instruments == 0) {
+                    charges.remove(mesh)
+                    liveBytes -= charge.bytes
+                    free.accept(mesh)
+                }
+            }
+            materials[position]?.forEach { materialCache?.release(it) }
+            meshes[position] = null
+            materials[position] = null
+            live[position] = null
+            states[position] = State.UNBUILT
+            evicted = true
+        }
+        if (evicted) {
+            Midis2jam2.getLOGGER().fine { "Evicted idle instruments, ${liveBytes / 1024} KiB of meshes remain." }
+        }
+        return evicted
+    }
+
+    private fun submit(position: Int): Future<*> {
+        states[position] = State.BUILDING
+        scheduledCount++
+        return executor.submit {
+            val references = ArrayList<Material>()
+            val instrument = try {
+                val factory = manifest[position].factory
+                if (materialCache == null) factory.get() else materialCache.record(references) { factory.get() }
+            } catch (e: Exception) {
+                Midis2jam2.getLOGGER().severe("There was an error constructing an instrument.\n${exceptionToLines(e)}")
+                null
+            }
+            finished.add(Built(position, instrument, references))
+            finishedCount.incrementAndGet()
+        }
+    }
+
+    /**
+     * Returns true if every instrument whose first note is at or before [time], in seconds, has been built and
+     * attached.
+     */
+    fun isReadyFor(time: Double): Boolean =
+        manifest.indices.none { manifest[it].firstNote <= time && states[it] != State.BUILT }
+
+    /** Builds every instrument that has not been built, and blocks until they have finished. */
+    fun buildAll() {
+        val start = System.nanoTime()
+        byFirstNote.filter { states[it] == State.UNBUILT }.map { submit(it) }.forEach { it.get() }
+        Midis2jam2.getLOGGER().info(
+            "Constructed ${manifest.size} instruments in ${(System.nanoTime() - start) / 1_000_000} ms."
+        )
+    }
+
+    /** Returns every live instrument, in the order of the manifest. */
+    fun instruments(): List<Instrument> = live.filterNotNull()
+
+    /** Stops building. Instruments that are being built are interrupted, and no more are built. */
+    fun cancel() {
+        executor.shutdownNow()
+    }
+
+    /** An instrument that the song needs. */
+    class Entry(
+        /** The times of the notes of the instrument, in seconds. */
+        noteTimes: DoubleArray,
+
+        /** Constructs the instrument. Returns null if the instrument is not implemented. */
+        val factory: Supplier<Instrument?>,
+    ) {
+        /** The times of the notes of the instrument, in seconds, sorted. */
+        private val noteTimes: DoubleArray = noteTimes.sortedArray()
+
+        /** The time of the first note of the instrument, in seconds, or infinity if there is none. */
+        val firstNote: Double
+            get() = noteTimes.firstOrNull() ?: Double.POSITIVE_INFINITY
+
+        /** Returns the time of the first note at or after [time], or infinity if there is none. */
+        fun nextNote(time: Double): Double {
+            var low = 0
+            var high = noteTimes.size
+            while (low < high) {
+                val mid = (low + high) ushr 1
+                if (noteTimes[mid] < time) low = mid + 1 else high = mid
+            }
+            return if (low < noteTimes.size) noteTimes[low] else Double.POSITIVE_INFINITY
+        }
+    }
+
+    companion object {
+        /** Instruments are built once they have a note within this many seconds. */
+        const val BUILD_AHEAD: Double = 30.0
+
+        /** Instruments that played within this many seconds are built, since they may still be visible. */
+        private const val LOOK_BEHIND: Double = 10.0
+
+        /** Instruments are only evicted if they have no note within this many seconds. */
+        const val EVICT_GAP: Double = 90.0
+
+        /** Estimates the size of the buffers of a [mesh]. */
+        private fun estimateSize(mesh: Mesh): Long = mesh.bufferList.sumOf { buffer ->
+            (buffer.data?.limit() ?: 0).toLong() * buffer.format.componentSize
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.instrument
+
+import java.util.*
+
+/**
+ * Groups the instruments of midis2jam2 by class and keeps track of which of them are visible, so that stacking and
+ * shadow calculations do not need to scan every instrument, for every instrument, on every frame.
+ *
+ * A group is created for each class that is queried, and holds every instrument that is an instance of that class,
+ * in the order they appear in the list of instruments. [update] should be called once per frame, after every
+ * instrument has ticked; queries answer with the visibility as of the last update.
+ */
+class InstrumentRegistry(
+    /** The instruments to index. */
+    instruments: List<Instrument?>,
+) {
+
+    /** The instruments to index, without any that are not implemented. */
+    private val instruments: List<Instrument> = instruments.filterNotNull()
+
+    /** The group of instruments for each class that has been queried. */
+    private val groups: MutableMap<Class<out Instrument>, Group> = HashMap()
+
+    /** The same groups as [groups], as a list that can be updated without allocating an iterator. */
+    private val groupList: MutableList<Group> = ArrayList()
+
+    /** Recounts the visible instruments of every group. Call once per frame, after every instrument has ticked. */
+    fun update() {
+        for (i in groupList.indices) {
+            groupList[i].update()
+        }
+    }
+
+    /**
+     * Returns the number of visible instruments of the same class as [instrument] that come before it in the list
+     * of instruments. If [instrument] is visible, this is its index among the visible instruments of its class.
+     */
+    fun visibleIndexOf(instrument: Instrument): Int = groupOf(instrument.javaClass).let {
+        it.visibleBefore[it.positions.getValue(instrument)]
+    }
+
+    /** Returns the number of visible instruments that are instances of [clazz]. */
+    fun visibleCount(clazz: Class<out Instrument>): Int = groupOf(clazz).visibleCount
+
+    /** Returns the number of instruments that are instances of [clazz], visible or not. */
+    fun count(clazz: Class<out Instrument>): Int = groupOf(clazz).members.size
+
+    /** Returns true if at least one instrument that is an instance of [clazz] is visible, false otherwise. */
+    fun anyVisible(clazz: Class<out Instrument>): Boolean = visibleCount(clazz) > 0
+
+    private fun groupOf(clazz: Class<out Instrument>): Group = groups.getOrPut(clazz) {
+        Group(instruments.filter { clazz.isInstance(it) }).also {
+            it.update()
+            groupList.add(it)
+        }
+    }
+
+    /** The instruments that are instances of a class, with their visible ordinals as of the last [update]. */
+    private class Group(
+        /** The instruments of this group, in the order they appear in the list of instruments. */
+        val members: List<Instrument>,
+    ) {
+        /** The index of each instrument in [members]. */
+        val positions: Map<Instrument, Int> = IdentityHashMap<Instrument, Int>().apply {
+            members.forEachIndexed { index, instrument -> put(instrument, index) }
+        }
+
+        /** For each instrument in [members], the number of visible instruments before it. */
+        val visibleBefore: IntArray = IntArray(members.size)
+
+        /** The number of visible instruments in this group. */
+        var visibleCount: Int = 0
+            private set
+
+        fun update() {
+            var count = 0
+            for (index in members.indices) {
+                visibleBefore[index] = count
+                if (members[index].isVisible) count++
+            }
+            visibleCount = count
+        }
+    }
+}
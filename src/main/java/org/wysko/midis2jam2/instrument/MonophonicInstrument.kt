@@ -72,8 +72,7 @@ abstract class MonophonicInstrument protected constructor(
         val calcClones: MutableList<Clone> = ArrayList()
         val constructor: Constructor<*> = cloneClass.getDeclaredConstructor(instrument.javaClass)
         val listsOfNotes: MutableList<MutableList<NotePeriod>> = ArrayList()
-        notePeriods.sortWith(compareBy({ it.startTick() }, { it.midiNote }))
-        notePeriods.forEach { np: NotePeriod ->
+        notePeriods.sortedWith(compareBy({ it.startTick() }, { it.midiNote })).forEach { np: NotePeriod ->
             if (listsOfNotes.isEmpty()) {
                 /* If there are no clones initialized, create the first one and assign this NotePeriod to it. */
                 listsOfNotes.add(ArrayList<NotePeriod>().also { it.add(np) })
@@ -106,8 +105,18 @@ abstract class MonophonicInstrument protected constructor(
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
 
-        /* Tick clones */
-        clones.forEach { it.tick(time, delta) }
+        /* Tick clones, counting the visible clones as we go so each clone knows its index among them */
+        var visibleClones = 0
+        clones.forEach {
+            it.visibleClonesBefore = visibleClones
+            it.tick(time, delta)
+            if (it.isVisible) visibleClones++
+        }
+    }
+
+    override fun seek(time: Double) {
+        super.seek(time)
+        clones.forEach { it.seek(time) }
     }
 
     init {
@@ -17,9 +17,11 @@
 package org.wysko.midis2jam2.instrument
 
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteEvent
 import org.wysko.midis2jam2.midi.MidiNoteOffEvent
+import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.midi.NotePeriod
 import org.wysko.midis2jam2.midi.NotePeriod.Companion.calculateNotePeriods
 
@@ -32,26 +34,38 @@ abstract class SustainedInstrument protected constructor(
     eventList: List<MidiChannelSpecificEvent>
 ) : Instrument(context) {
 
-    /** This list shall not be updated and shall be used for visibility calculations. */
-    private val unmodifiableNotePeriods: List<NotePeriod>
-
     /** The list of current note periods. Will always be updating as the MIDI file progresses. */
     protected val currentNotePeriods: MutableList<NotePeriod> = ArrayList()
 
     /**
-     * The list of note periods. This class expects that this variable will be truncated as the MIDI file progresses.
+     * The list of note periods, sorted by start time. This list is not modified as the MIDI file progresses; see
+     * [notePeriodTimeline].
      *
      * @see NotePeriod
      */
-    protected var notePeriods: MutableList<NotePeriod>
+    protected var notePeriods: List<NotePeriod>
+
+    /**
+     * The [notePeriods] as a [Timeline], advanced as the MIDI file progresses. This is built on first use, so
+     * subclasses may still replace [notePeriods] while they are initialized.
+     */
+    protected val notePeriodTimeline: Timeline<NotePeriod> by lazy {
+        register(Timeline(notePeriods, context.profiler) { it.startTime })
+    }
 
     /** The last elapsed [NotePeriod]. Used for visibility calculation. */
     protected var lastPlayedNotePeriod: NotePeriod? = null
 
+    /** The note periods that have not yet ended, by MIDI note, while events are [appended][appendNoteEvent]. */
+    private val openNotePeriods: Array<NotePeriod?> = arrayOfNulls(MidiNoteEvent.MIDI_MAX_NOTE + 1)
+
+    /** The duration of the longest note period. No note period that started earlier than this can still be playing. */
+    private val longestNotePeriod: Double by lazy { notePeriods.maxOfOrNull { it.duration() } ?: 0.0 }
+
     /**
-     * Determines which note periods should have starting animations at the specified time. Removes the returned
-     * elements from [.notePeriods]. The method also removes elapsed note periods. All results are stored in
-     * [.currentNotePeriods].
+     * Determines which note periods should have starting animations at the specified time by advancing
+     * [notePeriodTimeline]. The method also removes elapsed note periods. All results are stored in
+     * [currentNotePeriods].
      *
      * @param time the current time
      * @see currentNotePeriods
@@ -59,17 +73,64 @@ abstract class SustainedInstrument protected constructor(
     protected open fun calculateCurrentNotePeriods(time: Double) {
         /* Look at the first note period in the list. If its starting time is less than or equal to the current time,
          * it's time to start animating it. */
-        while (notePeriods.isNotEmpty() && notePeriods[0].startTime <= time) {
-            currentNotePeriods.add(notePeriods.removeAt(0))
-        }
+        val started = notePeriodTimeline.advanceTo(time)
+        if (started.isNotEmpty()) currentNotePeriods.addAll(started)
 
         /* Remove all the note periods that have elapsed. */
-        val takeWhile = currentNotePeriods.takeWhile { it.endTime <= time }
-        currentNotePeriods.removeAll(takeWhile)
+        var elapsed = 0
+        while (elapsed < currentNotePeriods.size && currentNotePeriods[elapsed].endTime <= time) {
+            elapsed++
+        }
 
         /* Set the last played note period for visibility calculation. */
-        takeWhile.lastOrNull()?.let {
-            lastPlayedNotePeriod = it
+        if (elapsed > 0) {
+            lastPlayedNotePeriod = currentNotePeriods[elapsed - 1]
+            currentNotePeriods.subList(0, elapsed).forEach { it.animationStarted = false }
+            currentNotePeriods.subList(0, elapsed).clear()
+        }
+    }
+
+    /**
+     * Rebuilds [currentNotePeriods] and [lastPlayedNotePeriod] at [time]. Only the note periods that started within
+     * [longestNotePeriod] of [time] are examined, which are found with a binary search.
+     */
+    override fun seek(time: Double) {
+        val timeline = notePeriodTimeline
+        super.seek(time)
+
+        currentNotePeriods.forEach { it.animationStarted = false }
+        currentNotePeriods.clear()
+
+        val items = timeline.items
+        var i = timeline.firstIndexAfter(time - longestNotePeriod)
+        var lastPlayed = if (i > 0) items[i - 1] else null
+        while (i < timeline.cursor) {
+            val notePeriod = items[i++]
+            if (notePeriod.endTime > time) {
+                currentNotePeriods.add(notePeriod)
+            } else if (lastPlayed == null || notePeriod.endTime >= lastPlayed.endTime) {
+                lastPlayed = notePeriod
+            }
+        }
+        lastPlayedNotePeriod = lastPlayed
+    }
+
+    /**
+     * Builds note periods incrementally from a live MIDI stream. A note on opens a note period that is added to the end
+     * of [notePeriodTimeline], and the matching note off closes it. Like [calculateNotePeriods], a second note on of
+     * the same note ends the first.
+     *
+     * @param event the note on or note off, with its time in seconds assigned
+     */
+    protected fun appendNoteEvent(event: MidiNoteEvent) {
+        val time = context.file.eventInSeconds(event)
+        val open = openNotePeriods[event.note]
+        if (event is MidiNoteOnEvent) {
+            open?.close(MidiNoteOffEvent(event.time, event.channel, event.note), time)
+            openNotePeriods[event.note] = NotePeriod.open(event, time).also { notePeriodTimeline.append(it) }
+        } else if (event is MidiNoteOffEvent && open != null) {
+            open.close(event, time)
+            openNotePeriods[event.note] = null
         }
     }
 
@@ -85,12 +146,13 @@ abstract class SustainedInstrument protected constructor(
         if (currentNotePeriods.isNotEmpty()) return true
 
         /* Within one second of playing? Visible. */
-        if (notePeriods.isNotEmpty() && notePeriods[0].startTime - time <= 1) return true
+        val nextNotePeriod = notePeriodTimeline.peek()
+        if (nextNotePeriod != null && nextNotePeriod.startTime - time <= 1) return true
 
         /* If within a 7-second gap between the last note and the next? Visible. */
         if (lastPlayedNotePeriod != null
-            && notePeriods.isNotEmpty()
-            && notePeriods[0].startTime - lastPlayedNotePeriod!!.endTime <= 7
+            && nextNotePeriod != null
+            && nextNotePeriod.startTime - lastPlayedNotePeriod!!.endTime <= 7
         ) return true
 
         /* If after 2 seconds of the last note period? Visible. */
@@ -102,12 +164,9 @@ abstract class SustainedInstrument protected constructor(
 
     init {
         val midiNoteEvents = eventList.filterIsInstance<MidiNoteEvent>()
-        notePeriods = calculateNotePeriods(this, midiNoteEvents as MutableList<MidiNoteEvent>)
 
         /* In theory, the note periods should already be sorted due to the nature of how MIDI data is structured, but in
          * case during the conversion process they become unsorted, we sort as a safe measure. */
-        notePeriods.sortBy { it.startTime }
-
-        unmodifiableNotePeriods = ArrayList(notePeriods)
+        notePeriods = calculateNotePeriods(this, midiNoteEvents as MutableList<MidiNoteEvent>).sortedBy { it.startTime }
     }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.instrument.algorithmic
+
+import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.midi.MidiEvent
+import org.wysko.midis2jam2.util.FrameProfiler
+
+/**
+ * A time-sorted list of items that is played through with a cursor. Everything before the cursor has elapsed,
+ * everything at or after the cursor is still to come.
+ *
+ * Instruments used to keep their events in mutable lists that were drained from the front as the song progressed,
+ * which costs O(n) per removal. Advancing a timeline only moves the cursor, and the elapsed items are returned as a
+ * view of the underlying list, so nothing is copied or removed.
+ *
+ * The time of each item is computed once, when the timeline is created, and kept in a primitive array. This also
+ * makes it possible to [seek] to any time with a binary search.
+ *
+ * Items can only be added to the end of a timeline, with [append]. This is how a live MIDI stream is played, where the
+ * items are not known in advance. The views returned by [advanceTo] and [advanceWhile] are invalidated by an append,
+ * so they should not be kept past the frame they were returned on.
+ */
+class Timeline<T> @JvmOverloads constructor(
+    /** The items of this timeline, in any order. */
+    items: List<T>,
+
+    /** Counts the items that elapse by advancing this timeline, if any. Seeking is not counted. */
+    private val profiler: FrameProfiler? = null,
+
+    /** Returns the time of an item, in seconds. */
+    private val timeOf: (T) -> Double
+) {
+
+    /** The [items], which grow as items are [appended][append]. */
+    private val sortedItems: ArrayList<T> = ArrayList(items.sortedBy(timeOf))
+
+    /** The items of this timeline, sorted by time. Items with the same time keep their original order. */
+    val items: List<T>
+        get() = sortedItems
+
+    /** The time of each item, in seconds. Only the first [size] times are used; the rest is room to [append]. */
+    @PublishedApi
+    internal var times: DoubleArray = DoubleArray(sortedItems.size) { timeOf(sortedItems[it]) }
+        private set
+
+    /** The index of the next item that has not yet elapsed. */
+    var cursor: Int = 0
+        private set
+
+    /** The number of items in this timeline. */
+    val size: Int
+        get() = sortedItems.size
+
+    /** True if there are items that have not yet elapsed, false otherwise. */
+    fun hasNext(): Boolean = cursor < size
+
+    /** Returns the next item that has not yet elapsed, or null if every item has elapsed. */
+    fun peek(): T? = if (hasNext()) items[cursor] else null
+
+    /** Returns the time of the next item that has not yet elapsed, or [Double.POSITIVE_INFINITY] if there is none. */
+    fun peekTime(): Double = if (hasNext()) times[cursor] else Double.POSITIVE_INFINITY
+
+    /** Returns the last item that has elapsed, or null if no item has elapsed. */
+    fun lastElapsed(): T? = if (cursor > 0) items[cursor - 1] else null
+
+    /**
+     * Moves the cursor past every item whose time is equal to or less than [time].
+     *
+     * @param time the current time, in seconds
+     * @return the items that elapsed since the last advance, as a view of this timeline
+     */
+    fun advanceTo(time: Double): List<T> {
+        val start = cursor
+        while (cursor < size && times[cursor] <= time) {
+            cursor++
+        }
+        profiler?.eventsElapsed(cursor - start)
+        return elapsedSince(start)
+    }
+
+    /**
+     * Moves the cursor past items for as long as [predicate] holds for the next item, given the item and its time.
+     * This is inlined so that the predicate, which usually captures the current time, is not allocated on each frame.
+     *
+     * @return the items that elapsed since the last advance, as a view of this timeline
+     */
+    inline fun advanceWhile(predicate: (item: T, time: Double) -> Boolean): List<T> {
+        var end = cursor
+        while (end < size && predicate(items[end], times[end])) {
+            end++
+        }
+        return advanceToIndex(end)
+    }
+
+    /** Moves the cursor forward to [index], returning the items that elapsed as a view of this timeline. */
+    @PublishedApi
+    internal fun advanceToIndex(index: Int): List<T> {
+        val start = cursor
+        cursor = index
+        profiler?.eventsElapsed(cursor - start)
+        return elapsedSince(start)
+    }
+
+    /**
+     * Moves the cursor so that exactly the items whose time is equal to or less than [time] have elapsed, whether
+     * [time] is before or after the current cursor.
+     *
+     * @param time the time to seek to, in seconds
+     */
+    fun seek(time: Double) {
+        cursor = firstIndexAfter(time)
+    }
+
+    /** Returns the index of the first item whose time is greater than [time], or [size] if there is none. */
+    fun firstIndexAfter(time: Double): Int {
+        var low = 0
+        var high = size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (times[mid] <= time) low = mid + 1 else high = mid
+        }
+        return low
+    }
+
+    /**
+     * Adds [item] to the end of this timeline. An item cannot be timed before the items that are already in the
+     * timeline, so an earlier time is moved up to the time of the last item.
+     *
+     * @param item the item to add
+     */
+    fun append(item: T) {
+        val index = sortedItems.size
+        if (index == times.size) {
+            times = times.copyOf(maxOf(MIN_CAPACITY, index * 2))
+        }
+        val time = timeOf(item)
+        times[index] = if (index > 0 && time < times[index - 1]) times[index - 1] else time
+        sortedItems.add(item)
+    }
+
+    private fun elapsedSince(start: Int): List<T> =
+        if (start == cursor) emptyList() else sortedItems.subList(start, cursor)
+
+    companion object {
+        /** The capacity of the [times] of a timeline that was created empty, once an item is appended. */
+        private const val MIN_CAPACITY = 16
+
+        /** Creates a timeline of MIDI [events], timed by the MIDI file of the [context] and counted by its profiler. */
+        @JvmStatic
+        fun <T : MidiEvent> of(events: List<T>, context: Midis2jam2): Timeline<T> =
+            Timeline(events, context.profiler) { context.file.eventInSeconds(it) }
+    }
+}
@@ -23,8 +23,10 @@ import com.jme3.scene.Spatial.CullHint.Dynamic
 import org.jetbrains.annotations.Contract
 import org.wysko.midis2jam2.instrument.MonophonicInstrument
 import org.wysko.midis2jam2.instrument.algorithmic.NoteQueue
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.midi.NotePeriod
 import org.wysko.midis2jam2.util.Utils
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -55,6 +57,11 @@ abstract class Clone protected constructor(
     /** The note periods for which this clone should be responsible for animating. */
     val notePeriods: MutableList<NotePeriod> = ArrayList()
 
+    /** The [notePeriods] as a [Timeline], advanced as the MIDI file progresses. Built once the clone is assigned. */
+    val notePeriodTimeline: Timeline<NotePeriod> by lazy {
+        Timeline(notePeriods, parent.context.profiler) { it.startTime }
+    }
+
     /** Used for moving with [indexForMoving]. */
     val offsetNode: Node = Node()
 
@@ -74,7 +81,17 @@ abstract class Clone protected constructor(
      * Keeps track of whether this clone is currently visible. The 0-clone (the clone at index 0) is always
      * visible, that is if the instrument itself is visible.
      */
-    private var isVisible = false
+    var isVisible = false
+        private set
+
+    /**
+     * The number of visible clones that come before this clone in [MonophonicInstrument.clones]. The parent sets
+     * this just before ticking this clone, after every clone before it has ticked.
+     */
+    internal var visibleClonesBefore = 0
+
+    /** The index of this clone in [MonophonicInstrument.clones]. */
+    private val polyphonyIndex by lazy { parent.clones.indexOf(this) }
 
     /** Determines if this clone is playing. */
     @get:Contract(pure = true)
@@ -90,9 +107,8 @@ abstract class Clone protected constructor(
         if (currentNotePeriod != null) return true
 
         lastNotePeriod?.let {
-            if (notePeriods.isNotEmpty()
-                && notePeriods.first().startTick() - it.endTick() <= parent.context.file.division * 2
-            ) {
+            val next = notePeriodTimeline.peek()
+            if (next != null && next.startTick() - it.endTick() <= parent.context.file.division * 2) {
                 return true
             }
         }
@@ -130,7 +146,7 @@ abstract class Clone protected constructor(
      */
     open fun tick(time: Double, delta: Float) {
         /* Grab the newest note period */
-        NoteQueue.collectOne(notePeriods, time)?.let { currentNotePeriod = it }
+        NoteQueue.collectOne(notePeriodTimeline, time)?.let { currentNotePeriod = it }
 
         /* Clear the note period if it is elapsed */
         currentNotePeriod?.let {
@@ -143,25 +159,41 @@ abstract class Clone protected constructor(
         /* Rotate clone on note play */
         currentNotePeriod?.let {
             val rotate = -((it.endTime - time) / it.duration()).toFloat() * rotationFactor
-            animNode.localRotation = Quaternion().fromAngles(
+            setLocalAngles(
+                animNode,
                 if (rotationAxis === Axis.X) rotate else 0f,
                 if (rotationAxis === Axis.Y) rotate else 0f,
                 if (rotationAxis === Axis.Z) rotate else 0f
             )
         } ?: run {
-            animNode.localRotation = Quaternion()
+            animNode.localRotation = Quaternion.IDENTITY
         }
-        hideOrShowOnPolyphony(parent.clones.indexOf(this))
+        hideOrShowOnPolyphony(polyphonyIndex)
         moveForPolyphony()
     }
 
+    /**
+     * Jumps to [time], rebuilding [currentNotePeriod] and [lastNotePeriod]. The note periods of a clone never overlap,
+     * so the last note period that started is the only one that can be playing.
+     */
+    open fun seek(time: Double) {
+        notePeriodTimeline.seek(time)
+        val last = notePeriodTimeline.lastElapsed()
+        if (last != null && last.endTime > time) {
+            currentNotePeriod = last
+        } else {
+            currentNotePeriod = null
+            lastNotePeriod = last
+        }
+    }
+
     /**
      * Returns the index for moving so that clones do not overlap.
      *
      * This returns the index of this clone in the list of currently visible clones, where the index is never less
      * than 0.
      */
-    protected fun indexForMoving(): Int = 0.coerceAtLeast(parent.clones.filter { it.isVisible }.indexOf(this))
+    protected fun indexForMoving(): Int = if (isVisible) visibleClonesBefore else 0
 
     /** Move as to not overlap with other clones. */
     protected abstract fun moveForPolyphony()
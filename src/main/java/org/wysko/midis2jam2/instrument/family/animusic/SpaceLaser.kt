@@ -16,12 +16,12 @@
  */
 package org.wysko.midis2jam2.instrument.family.animusic
 
-import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.MonophonicInstrument
 import org.wysko.midis2jam2.instrument.algorithmic.NoteQueue
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.clone.Clone
 import org.wysko.midis2jam2.instrument.family.animusic.SpaceLaser.Companion.SIGMOID_CALCULATOR
 import org.wysko.midis2jam2.instrument.family.animusic.SpaceLaser.SpaceLaserClone
@@ -30,6 +30,7 @@ import org.wysko.midis2jam2.midi.MidiControlEvent
 import org.wysko.midis2jam2.midi.MidiPitchBendEvent
 import org.wysko.midis2jam2.util.Utils.cullHint
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 import kotlin.math.exp
 import kotlin.math.sin
@@ -66,11 +67,11 @@ import kotlin.math.sin
 class SpaceLaser(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, type: SpaceLaserType) :
     MonophonicInstrument(context, eventList, SpaceLaserClone::class.java, null) {
 
-    /** A temporally-truncated list of pitch bend events. */
-    private val pitchBends: MutableList<MidiPitchBendEvent>
+    /** The timeline of pitch bend events. */
+    private val pitchBends: Timeline<MidiPitchBendEvent>
 
-    /** A temporally-truncated list of modulation events. */
-    private val modulationEvents: MutableList<MidiControlEvent>
+    /** The timeline of modulation events. */
+    private val modulationEvents: Timeline<MidiControlEvent>
 
     /** The current pitch bend amount. */
     private var pitchBendAmount = 0.0
@@ -95,12 +96,18 @@ class SpaceLaser(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>,
     }
 
     override fun tick(time: Double, delta: Float) {
-        NoteQueue.collect(pitchBends, context, time).forEach { pitchBendAmount = it.value.toDouble() - 8192 }
-        NoteQueue.collect(this.modulationEvents, context, time).forEach { modulationAmount = it.value.toDouble() / 127 }
+        NoteQueue.collect(pitchBends, time).forEach { pitchBendAmount = it.value.toDouble() - 8192 }
+        NoteQueue.collect(this.modulationEvents, time).forEach { modulationAmount = it.value.toDouble() / 127 }
 
         super.tick(time, delta)
     }
 
+    override fun seek(time: Double) {
+        super.seek(time)
+        pitchBendAmount = pitchBends.lastElapsed()?.let { it.value.toDouble() - 8192 } ?: 0.0
+        modulationAmount = modulationEvents.lastElapsed()?.let { it.value.toDouble() / 127 } ?: 0.0
+    }
+
     /** An individual space laser. */
     inner class SpaceLaserClone : Clone(this@SpaceLaser, 0f, Axis.X) {
 
@@ -135,7 +142,7 @@ class SpaceLaser(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>,
                     0.0, modulationAmount.coerceAtLeast(0.05)
                 )
             } else {
-                notePeriods.firstOrNull()?.let {
+                notePeriodTimeline.peek()?.let {
                     val startTime = it.startTime
                     if (startTime - time <= 1) {
                         val targetPos = angleCalculator.angleFromNote(it.midiNote, pitchBendAmount)
@@ -146,7 +153,8 @@ class SpaceLaser(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>,
                 }
             }
 
-            laserNode.localRotation = Quaternion().fromAngles(
+            setLocalAngles(
+                laserNode,
                 0f, 0f,
                 rad(rotation + sin(wobbleTime * 50) * wobbleIntensity)
             )
@@ -197,8 +205,9 @@ class SpaceLaser(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>,
             if (it.duration() > 0.1) it.endTime -= 0.05 else if (it.duration() > 0.05) it.endTime -= 0.02 else it.endTime -= 0.01
         }
 
-        pitchBends = eventList.filterIsInstance<MidiPitchBendEvent>().toMutableList()
-        modulationEvents = eventList.filterIsInstance<MidiControlEvent>().filter { it.controlNum == 1 }.toMutableList()
+        pitchBends = timelineOf(eventList.filterIsInstance<MidiPitchBendEvent>())
+        modulationEvents =
+            timelineOf(eventList.filterIsInstance<MidiControlEvent>().filter { it.controlNum == 1 })
 
         clones.forEach {
             it as SpaceLaserClone
@@ -25,6 +25,7 @@ import org.wysko.midis2jam2.instrument.clone.AnimatedKeyCloneByIntegers
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.MatType.REFLECTIVE
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -44,7 +45,7 @@ class FrenchHorn(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>)
     inner class FrenchHornClone : AnimatedKeyCloneByIntegers(this@FrenchHorn, 0.1f, 0.9f, Axis.Y, Axis.X) {
 
         override fun moveForPolyphony() {
-            offsetNode.localRotation = Quaternion().fromAngles(0f, rad((47 * indexForMoving()).toDouble()), 0f)
+            setLocalAngles(offsetNode, 0f, rad((47 * indexForMoving()).toDouble()), 0f)
         }
 
         override fun animateKeys(pressed: Array<Int>) {
@@ -52,12 +53,12 @@ class FrenchHorn(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>)
             for (i in 0..3) {
                 if (pressed.any { it == i }) { // If this key is pressed
                     if (i == 0) { // If trigger key
-                        keys[i].localRotation = Quaternion().fromAngles(rad(-25.0), 0f, 0f)
+                        setLocalAngles(keys[i], rad(-25.0), 0f, 0f)
                     } else {
-                        keys[i].localRotation = Quaternion().fromAngles(0f, 0f, rad(-30.0))
+                        setLocalAngles(keys[i], 0f, 0f, rad(-30.0))
                     }
                 } else {
-                    keys[i].localRotation = Quaternion().fromAngles(0f, 0f, 0f)
+                    setLocalAngles(keys[i], 0f, 0f, 0f)
                 }
             }
         }
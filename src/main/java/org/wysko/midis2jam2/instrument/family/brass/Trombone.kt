@@ -17,7 +17,6 @@
 package org.wysko.midis2jam2.instrument.family.brass
 
 import com.jme3.math.Quaternion
-import com.jme3.math.Vector3f
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
@@ -29,6 +28,7 @@ import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.NotePeriod
 import org.wysko.midis2jam2.util.MatType
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 import java.util.*
 import kotlin.math.abs
@@ -61,15 +61,7 @@ class Trombone(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
 
         /** Moves the slide of the trombone to a given position, from 1st to 7th position. */
         private fun moveToPosition(position: Double) {
-            slide.localTranslation = slidePosition(position)
-        }
-
-        /**
-         * Returns the 3D vector for a given slide position.
-         * TODO put equation here
-         */
-        private fun slidePosition(position: Double): Vector3f {
-            return Vector3f(0f, 0f, (3.333333 * position - 1).toFloat())
+            slide.setLocalTranslation(0f, 0f, (3.333333 * position - 1).toFloat())
         }
 
         /**
@@ -88,8 +80,8 @@ class Trombone(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
             }
 
             /* If not currently playing */
-            if (notePeriods.isNotEmpty() && !isPlaying) {
-                val nextNote = notePeriods[0]
+            val nextNote = notePeriodTimeline.peek()
+            if (nextNote != null && !isPlaying) {
 
                 /* If within Trombone range */
                 if (nextNote.midiNote in 21..80) {
@@ -127,7 +119,7 @@ class Trombone(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
         }
 
         override fun moveForPolyphony() {
-            offsetNode.localRotation = Quaternion().fromAngles(0f, rad((30 + indexForMoving() * -3f).toDouble()), 0f)
+            setLocalAngles(offsetNode, 0f, rad((30 + indexForMoving() * -3f).toDouble()), 0f)
             offsetNode.setLocalTranslation(0f, indexForMoving().toFloat(), 0f)
         }
 
@@ -25,6 +25,7 @@ import org.wysko.midis2jam2.instrument.clone.AnimatedKeyCloneByIntegers
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.MatType.REFLECTIVE
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -70,7 +71,7 @@ class Trumpet(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, ty
         }
 
         override fun moveForPolyphony() {
-            offsetNode.localRotation = Quaternion().fromAngles(0f, rad((-10f * indexForMoving()).toDouble()), 0f)
+            setLocalAngles(offsetNode, 0f, rad((-10f * indexForMoving()).toDouble()), 0f)
             offsetNode.setLocalTranslation(0f, indexForMoving() * -1f, 0f)
         }
 
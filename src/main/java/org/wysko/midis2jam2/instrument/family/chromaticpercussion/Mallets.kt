@@ -21,23 +21,31 @@ import com.jme3.scene.Node
 import com.jme3.scene.Spatial
 import com.jme3.scene.Spatial.CullHint.Always
 import com.jme3.scene.Spatial.CullHint.Dynamic
+import com.jme3.scene.Spatial.CullHint.Inherit
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.DecayedInstrument
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.instrument.family.piano.KeyedInstrument
 import org.wysko.midis2jam2.instrument.family.piano.KeyedInstrument.KeyColor.WHITE
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
+import org.wysko.midis2jam2.world.InstancedParts
+import org.wysko.midis2jam2.world.RestingBatch
 import org.wysko.midis2jam2.world.ShadowController.Companion.shadow
 
 /** Any one of vibraphone, glockenspiel, marimba, or xylophone. */
 class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, private val type: MalletType) :
     DecayedInstrument(context, eventList) {
 
-    /** List of lists, where each list contains the strikes corresponding to that bar's MIDI note. */
-    private val barStrikes: Array<MutableList<MidiNoteOnEvent>> = Array(MALLET_BAR_COUNT) { ArrayList() }
+    /** Timelines, where each timeline contains the strikes corresponding to that bar's MIDI note. */
+    private val barStrikes: Array<Timeline<MidiNoteOnEvent>> =
+        eventList.filterIsInstance<MidiNoteOnEvent>().filter { it.note in RANGE_LOW..RANGE_HIGH }
+            .groupBy { it.note - RANGE_LOW }
+            .let { byBar -> Array(MALLET_BAR_COUNT) { timelineOf(byBar[it] ?: emptyList()) } }
 
     /** Each bar of the instrument. There are [MALLET_BAR_COUNT] bars. */
     private var bars: Array<MalletBar>
@@ -77,7 +85,7 @@ class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, pr
     override fun moveForMultiChannel(delta: Float) {
         val i1 = updateInstrumentIndex(delta) - 2
         instrumentNode.setLocalTranslation(-50f, 26.5f + (2 * i1), 0f)
-        highestLevel.localRotation = Quaternion().fromAngles(0f, rad(-18.0) * i1, 0f)
+        setLocalAngles(highestLevel, 0f, rad(-18.0) * i1, 0f)
     }
 
     /** The type of mallets. */
@@ -108,6 +116,18 @@ class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, pr
         /** Contains the entire note geometry. */
         val noteNode: Node = Node()
 
+        /** Contains the up and down bars. */
+        val barNode: Node = Node()
+
+        /** If the bars are batched, the part of the batch that draws this bar while resting. */
+        var batchPart: RestingBatch.Part? = null
+
+        /** True if this bar is drawn with [InstancedParts], which shows and hides the up and down bars by scale. */
+        private var isInstanced = false
+
+        /** True if the up bar is showing, false if the down bar is showing. */
+        private var isUp = true
+
         /** Contains the mallet. */
         val malletNode: Node = Node()
 
@@ -120,6 +140,29 @@ class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, pr
         /** True if the bar should begin recoiling. */
         private var recoilNow = false
 
+        /**
+         * Draws this bar with [parts] instead of by itself. This must be called before [parts] is built.
+         */
+        fun instanceWith(parts: InstancedParts) {
+            isInstanced = true
+            downBar.cullHint = Inherit
+            InstancedParts.setShown(downBar, false)
+            parts.add(barNode)
+        }
+
+        /** Shows the up bar and hides the down bar, or the other way around. Does nothing if nothing changes. */
+        private fun showUpBar(up: Boolean) {
+            if (isUp == up) return
+            isUp = up
+            if (isInstanced) {
+                InstancedParts.setShown(upBar, up)
+                InstancedParts.setShown(downBar, !up)
+            } else {
+                upBar.cullHint = if (up) Dynamic else Always
+                downBar.cullHint = if (up) Always else Dynamic
+            }
+        }
+
         /** Begins recoiling the bar. */
         fun recoilBar() {
             barIsRecoiling = true
@@ -135,8 +178,7 @@ class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, pr
             /* If the bar is recoiling */
             if (barIsRecoiling) {
                 /* Hide the up bar, show the down bar */
-                upBar.cullHint = Always
-                downBar.cullHint = Dynamic
+                showUpBar(false)
 
                 if (recoilNow) {
                     /* Move the bar all the way down */
@@ -153,17 +195,18 @@ class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, pr
                         }
                     } else {
                         /* We've reached the top, show up bar, hide bottom bar, move down bar to 0 */
-                        upBar.cullHint = Dynamic
-                        downBar.cullHint = Always
+                        showUpBar(true)
                         downBar.setLocalTranslation(0f, 0f, 0f)
                     }
                 }
                 recoilNow = false
             } else {
                 /* Bar is not recoiling, show up bar, hide down bar */
-                upBar.cullHint = Dynamic
-                downBar.cullHint = Always
+                showUpBar(true)
             }
+
+            /* The bar is at rest whenever the up bar is showing */
+            batchPart?.setResting(isUp)
         }
 
         init {
@@ -181,7 +224,6 @@ class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, pr
             /* Load mallet shadow */
             shadow = context.loadModel("MalletHitShadow.obj", "Black.bmp")
 
-            val barNode = Node()
             if (KeyedInstrument.midiValueToColor(midiNote) == WHITE) {
                 val scaleFactor = (RANGE_HIGH - midiNote + 20) / 50f
                 upBar = context.loadModel("XylophoneWhiteBar.obj", type.textureFile).also { barNode.attachChild(it) }
@@ -227,10 +269,13 @@ class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, pr
     }
 
     init {
+        val batch = RestingBatch(instrumentNode)
+
         /* Load case */
         context.loadModel("XylophoneCase.obj", "Black.bmp").apply {
             this.setLocalScale(MALLET_CASE_SCALE)
             instrumentNode.attachChild(this)
+            batch.addStatic(this)
         }
 
         /* Initialize all bars */
@@ -248,12 +293,16 @@ class Mallets(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>, pr
         /* Attach all bars to the instrument */
         bars.forEach { instrumentNode.attachChild(it.noteNode) }
 
-        /* Add all applicable events */
-        eventList.forEach {
-            if (it is MidiNoteOnEvent && it.note in RANGE_LOW..RANGE_HIGH) {
-                barStrikes[it.note - RANGE_LOW].add(it)
-            }
+        if (context.isInstancingSupported) {
+            /* Each kind of bar is drawn with one instanced draw call, whether it is moving or not */
+            val instanced = InstancedParts(context, instrumentNode)
+            bars.forEach { it.instanceWith(instanced) }
+            instanced.build()
+        } else {
+            /* The case and resting bars are drawn as one mesh per material; bars are swapped out while they move */
+            bars.forEach { it.batchPart = batch.addPart(it.barNode) }
         }
+        batch.build()
 
         /* Position */
         highestLevel.setLocalTranslation(18f, 0f, -5f)
@@ -23,10 +23,12 @@ import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.DecayedInstrument
 import org.wysko.midis2jam2.instrument.algorithmic.NoteQueue
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussive.TwelveDrumOctave.TwelfthOfOctaveDecayed
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.MatType.REFLECTIVE
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** Texture file for shiny silver. */
 const val SHINY_SILVER: String = "ShinySilver.bmp"
@@ -48,9 +50,9 @@ class MusicBox(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
     /** Contains the spindle. */
     private val cylinder = Node()
 
-    /** List of hits for hanging key recoils. */
-    private val hitsForRecoil: MutableList<MidiNoteOnEvent> =
-        eventList.filterIsInstance<MidiNoteOnEvent>() as MutableList<MidiNoteOnEvent>
+    /** Timeline of hits for spawning points, timed one quarter note before each hit. */
+    private val hitsForPoints: Timeline<MidiNoteOnEvent> =
+        register(Timeline(hits, context.profiler) { context.file.eventInSeconds(it.time - context.file.division) })
 
     /** List of points that are currently active. */
     private val points: MutableList<Spatial> = ArrayList()
@@ -71,33 +73,22 @@ class MusicBox(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
         super.tick(time, delta)
         rotateCylinder(delta)
 
-        val hitsItr = hits.iterator()
-
-        /* For each hit */
-        while (hitsItr.hasNext()) {
-            val (noteTime, _, noteValue, _) = hitsItr.next()
-
-            /* If the note is within one quarter note */
-            if (context.file.eventInSeconds(noteTime - context.file.division) <= time) {
-
-                /* Attempt to grab a point from the pool. If there is none, create a new one. */
-                val aPoint: Spatial = if (pool.size > 1) {
-                    pool.removeAt(0)
-                } else {
-                    pointModel.clone()
-                }
-
-                /* Initialize point */
-                aPoint.run {
-                    instrumentNode.attachChild(this)
-                    this.localRotation = Quaternion().fromAngles((-Math.PI / 2).toFloat(), 0f, 0f)
-                    points.add(this)
-                    pointRotations[this] = 0f
-                    setLocalTranslation((noteValue + 3) % 12 - 5.5f, 0f, 0f)
-                }
+        /* For each hit that is within one quarter note */
+        for ((_, _, noteValue, _) in hitsForPoints.advanceTo(time)) {
+            /* Attempt to grab a point from the pool. If there is none, create a new one. */
+            val aPoint: Spatial = if (pool.size > 1) {
+                pool.removeAt(pool.lastIndex)
+            } else {
+                pointModel.clone()
+            }
 
-                /* Remove hit */
-                hitsItr.remove()
+            /* Initialize point */
+            aPoint.run {
+                instrumentNode.attachChild(this)
+                this.localRotation = Quaternion().fromAngles((-Math.PI / 2).toFloat(), 0f, 0f)
+                points.add(this)
+                pointRotations[this] = 0f
+                setLocalTranslation((noteValue + 3) % 12 - 5.5f, 0f, 0f)
             }
         }
 
@@ -116,12 +107,23 @@ class MusicBox(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
         }
 
         /* Play each note */
-        NoteQueue.collect(hitsForRecoil, context, time).forEach { notes[(it.note + 3) % 12].play() }
+        NoteQueue.collect(hitTimeline, time).forEach { notes[(it.note + 3) % 12].play() }
 
         /* Tick the hanging notes */
         notes.forEach { it.tick(delta) }
     }
 
+    /** Returns every active point to the pool, since their rotations belong to the old time. */
+    override fun seek(time: Double) {
+        super.seek(time)
+        points.forEach {
+            instrumentNode.detachChild(it)
+            pool.add(it)
+        }
+        points.clear()
+        pointRotations.clear()
+    }
+
     /**
      * Rotates the cylinder. The cylinder rotates PI/2 radians for every quarter note.
      *
@@ -182,7 +184,7 @@ class MusicBox(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
             }
 
             /* Update animation */
-            key.localRotation = Quaternion().fromAngles(rotationFactorFromProgress(), 0f, 0f)
+            setLocalAngles(key, rotationFactorFromProgress(), 0f, 0f)
         }
 
         /** Calculates the rotation factor from the current animation progress. */
@@ -22,6 +22,7 @@ import com.jme3.scene.Node
 import com.jme3.scene.Spatial.CullHint.Always
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.DecayedInstrument
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.PercussionInstrument
 import org.wysko.midis2jam2.instrument.family.percussive.Stick.STRIKE_SPEED
 import org.wysko.midis2jam2.instrument.family.percussive.Stick.handleStick
@@ -30,6 +31,7 @@ import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.MatType
 import org.wysko.midis2jam2.util.Utils.cullHint
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis.X
 import kotlin.math.pow
 import kotlin.math.sin
@@ -46,8 +48,9 @@ class TubularBells(context: Midis2jam2, events: List<MidiChannelSpecificEvent>)
         }
     }
 
-    /** Contains the list of strikes for each of the 12 bells. */
-    private val bellStrikes: Array<MutableList<MidiNoteOnEvent>> = Array(12) { ArrayList() }
+    /** Contains the timeline of strikes for each of the 12 bells. */
+    private val bellStrikes: Array<Timeline<MidiNoteOnEvent>> = hits.groupBy { (it.note + 3) % 12 }
+        .let { byBell -> Array(12) { timelineOf(byBell[it] ?: emptyList()) } }
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
@@ -112,7 +115,7 @@ class TubularBells(context: Midis2jam2, events: List<MidiChannelSpecificEvent>)
                 getChild(1).cullHint = cullHint(!bellIsRecoiling)
             }
 
-            if (bellIsRecoiling) bellNode.localRotation = Quaternion().fromAngles(rotationAmount(), 0f, 0f)
+            if (bellIsRecoiling) setLocalAngles(bellNode, rotationAmount(), 0f, 0f)
         }
 
         /**
@@ -164,7 +167,6 @@ class TubularBells(context: Midis2jam2, events: List<MidiChannelSpecificEvent>)
     }
 
     init {
-        hits.forEach { bellStrikes[(it.note + 3) % 12].add(it) }
         instrumentNode.run {
             setLocalTranslation(-65f, 100f, -130f)
             localRotation = Quaternion().fromAngles(0f, rad(25.0), 0f)
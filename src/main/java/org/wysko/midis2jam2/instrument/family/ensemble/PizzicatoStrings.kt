@@ -16,7 +16,6 @@
  */
 package org.wysko.midis2jam2.instrument.family.ensemble
 
-import com.jme3.math.Quaternion
 import com.jme3.math.Vector3f
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
@@ -28,7 +27,9 @@ import org.wysko.midis2jam2.instrument.algorithmic.NoteQueue
 import org.wysko.midis2jam2.instrument.algorithmic.VibratingStringAnimator
 import org.wysko.midis2jam2.instrument.family.percussive.TwelveDrumOctave.TwelfthOfOctaveDecayed
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
+import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /**
  * Pizzicato strings have 12 separate strings that animate for each note. When a note is played, the string moves
@@ -44,7 +45,7 @@ class PizzicatoStrings(
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
-        val eventsToDoOn = NoteQueue.collect(hits, context, time)
+        val eventsToDoOn = NoteQueue.collect(hitTimeline, time)
 
         /* Play each note that needs to be animated */
         eventsToDoOn.forEach { strings[(it.note + 3) % 12]!!.play() }
@@ -52,9 +53,14 @@ class PizzicatoStrings(
         strings.forEach { it!!.tick(delta) }
     }
 
+    /** Strings are plucked as note ons are appended. Other events are ignored. */
+    override fun append(event: MidiChannelSpecificEvent): Boolean {
+        if (event is MidiNoteOnEvent) appendHit(event)
+        return true
+    }
+
     override fun moveForMultiChannel(delta: Float) {
-        offsetNode.localRotation =
-            Quaternion().fromAngles(0f, rad((45f + 12 * updateInstrumentIndex(delta)).toDouble()), 0f)
+        setLocalAngles(offsetNode, 0f, rad((45f + 12 * updateInstrumentIndex(delta)).toDouble()), 0f)
     }
 
     /** A single string. */
@@ -27,6 +27,7 @@ import org.wysko.midis2jam2.instrument.algorithmic.VibratingStringAnimator
 import org.wysko.midis2jam2.instrument.family.brass.WrappedOctaveSustained
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import kotlin.math.sin
 
 /** The stage strings. */
@@ -42,7 +43,7 @@ class StageStrings(
     private val stringNodes = Array(12) { Node() }
 
     override fun moveForMultiChannel(delta: Float) {
-        highestLevel.localRotation = Quaternion().fromAngles(0f, rad(35.6 + 11.6 * updateInstrumentIndex(delta)), 0f)
+        setLocalAngles(highestLevel, 0f, rad(35.6 + 11.6 * updateInstrumentIndex(delta)), 0f)
     }
 
     enum class StageStringsType(val textureFile: String) {
@@ -16,20 +16,19 @@
  */
 package org.wysko.midis2jam2.instrument.family.ensemble
 
-import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.family.percussive.OneDrumOctave
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.MatType
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The timpani. */
 class Timpani(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) : OneDrumOctave(context, eventList) {
 
     override fun moveForMultiChannel(delta: Float) {
-        highestLevel.localRotation =
-            Quaternion().fromAngles(0f, rad((-27 + updateInstrumentIndex(delta) * -18).toDouble()), 0f)
+        setLocalAngles(highestLevel, 0f, rad((-27 + updateInstrumentIndex(delta) * -18).toDouble()), 0f)
     }
 
     init {
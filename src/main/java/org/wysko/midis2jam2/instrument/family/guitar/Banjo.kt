@@ -50,7 +50,8 @@ class Banjo(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) : Frett
 ) {
 
     override fun moveForMultiChannel(delta: Float) {
-        offsetNode.localTranslation = Vector3f(7f, -2.43f, 0f).mult(updateInstrumentIndex(delta))
+        val index = updateInstrumentIndex(delta)
+        offsetNode.setLocalTranslation(7f * index, -2.43f * index, 0f)
     }
 
     companion object {
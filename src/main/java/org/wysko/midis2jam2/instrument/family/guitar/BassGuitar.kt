@@ -54,7 +54,8 @@ class BassGuitar(context: Midis2jam2, events: List<MidiChannelSpecificEvent>, ty
         context.loadModel(if (needsDropTuning(events)) type.modelDropDFile else type.modelFile, type.textureFile)
     ) {
     override fun moveForMultiChannel(delta: Float) {
-        offsetNode.localTranslation = Vector3f(7f, -2.43f, 0f).mult(updateInstrumentIndex(delta))
+        val index = updateInstrumentIndex(delta)
+        offsetNode.setLocalTranslation(7f * index, -2.43f * index, 0f)
     }
 
     /** Type of Bass Guitar */
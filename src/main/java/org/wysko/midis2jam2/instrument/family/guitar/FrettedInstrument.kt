@@ -16,7 +16,6 @@
  */
 package org.wysko.midis2jam2.instrument.family.guitar
 
-import com.jme3.math.Vector3f
 import com.jme3.scene.Spatial
 import com.jme3.scene.Spatial.CullHint.Always
 import org.jetbrains.annotations.Contract
@@ -108,51 +107,48 @@ abstract class FrettedInstrument protected constructor(
         val fretDistance = fretToDistance(fret)
 
         /* Scale the resting string's Y-axis by the fret distance */
-        val localScale = Vector3f(positioning.restingStrings[string])
-        localScale.setY(fretDistance)
-        upperStrings[string].localScale = localScale
+        val restingScale = positioning.restingStrings[string]
+        upperStrings[string].setLocalScale(restingScale.x, fretDistance, restingScale.z)
 
         animators[string].tick(delta)
         /* Scale each frame of animation to the inverse of the fret distance */
-        lowerStrings[string].forEach {
-            it.localScale = Vector3f(positioning.restingStrings[string]).setY(1 - fretDistance)
+        for (lowerString in lowerStrings[string]) {
+            lowerString.setLocalScale(restingScale.x, 1 - fretDistance, restingScale.z)
         }
 
         // Show the fret finger on the right spot (if not an open string)
         if (fret != 0) {
             noteFingers[string].cullHint = Spatial.CullHint.Dynamic
-            val fingerPosition: Vector3f = if (positioning is FrettedInstrumentPositioningWithZ) {
+            if (positioning is FrettedInstrumentPositioningWithZ) {
                 val positioningWithZ = positioning
                 val z = ((positioningWithZ.topZ[string] - positioningWithZ.bottomZ[string])
                         * fretDistance + positioningWithZ.topZ[string]) * -1.3f - 2
-                Vector3f(
+                noteFingers[string].setLocalTranslation(
                     (positioningWithZ.lowerX[string] - positioningWithZ.upperX[string])
                             * fretDistance + positioningWithZ.upperX[string],
                     positioningWithZ.fingerVerticalOffset.y - stringHeight() * fretDistance,
                     z
                 )
             } else {
-                Vector3f(
+                noteFingers[string].setLocalTranslation(
                     (positioning.lowerX[string] - positioning.upperX[string]) * fretDistance + positioning.upperX[string],
                     positioning.fingerVerticalOffset.y - stringHeight() * fretDistance,
                     0f
                 )
             }
-            noteFingers[string].localTranslation = fingerPosition
         } else {
             noteFingers[string].cullHint = Always
         }
     }
 
     override fun calculateCurrentNotePeriods(time: Double) {
-        while (notePeriods.isNotEmpty() && notePeriods[0].startTime <= time) {
-            currentNotePeriods.add(notePeriods.removeAt(0))
-        }
+        currentNotePeriods.addAll(notePeriodTimeline.advanceTo(time))
         val r = currentNotePeriods.iterator()
         while (r.hasNext()) {
             val next = r.next()
             if (abs(next.endTime - time) < 0.02 || time > next.endTime) {
                 r.remove()
+                next.animationStarted = false
                 lastPlayedNotePeriod = next
                 val next1 = next as NotePeriodWithFretboardPosition
                 val string = (next1.position ?: return).string
@@ -163,6 +159,15 @@ abstract class FrettedInstrument protected constructor(
         }
     }
 
+    /** Releases every string, so that the note periods playing at [time] are fretted again on the next frame. */
+    override fun seek(time: Double) {
+        super.seek(time)
+        for (i in 0 until numberOfStrings) {
+            frettingEngine.releaseString(i)
+        }
+        currentNotePeriods.forEach { (it as NotePeriodWithFretboardPosition).position = FretboardPosition(-1, -1) }
+    }
+
     /**
      * Performs the calculations and necessary algorithmic processes to correctly show fretted animation.
      *
@@ -211,6 +216,6 @@ abstract class FrettedInstrument protected constructor(
     init {
         instrumentNode.attachChild(instrumentBody)
         highestLevel.attachChild(instrumentNode)
-        notePeriods = notePeriods.map { NotePeriodWithFretboardPosition.fromNotePeriod(it) }.toMutableList()
+        notePeriods = notePeriods.map { NotePeriodWithFretboardPosition.fromNotePeriod(it) }
     }
 }
\ No newline at end of file
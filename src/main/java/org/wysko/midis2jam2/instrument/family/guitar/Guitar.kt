@@ -58,15 +58,8 @@ class Guitar(context: Midis2jam2, events: List<MidiChannelSpecificEvent>, type:
 
     override fun moveForMultiChannel(delta: Float) {
         val v = updateInstrumentIndex(delta) * 1.5f
-        offsetNode.localTranslation = Vector3f(5f, -4f, 0f).mult(v)
         /* After a certain threshold, stop moving guitars down—only along the XZ plane. */
-        if (v < GUITAR_VECTOR_THRESHOLD) {
-            offsetNode.localTranslation = Vector3f(5f, -4f, 0f).mult(v)
-        } else {
-            val vector = Vector3f(5f, -4f, 0f).mult(v)
-            vector.setY(-4f * GUITAR_VECTOR_THRESHOLD)
-            offsetNode.localTranslation = vector
-        }
+        offsetNode.setLocalTranslation(5f * v, -4f * v.coerceAtMost(GUITAR_VECTOR_THRESHOLD), 0f)
     }
 
     /** The type of guitar. */
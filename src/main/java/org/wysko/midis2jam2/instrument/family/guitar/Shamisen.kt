@@ -46,7 +46,8 @@ class Shamisen(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) : Fr
     context.loadModel("Shamisen.fbx", SHAMISEN_SKIN_TEXTURE)) {
 
     override fun moveForMultiChannel(delta: Float) {
-        offsetNode.localTranslation = Vector3f(5f, -4f, 0f).mult(updateInstrumentIndex(delta))
+        val index = updateInstrumentIndex(delta)
+        offsetNode.setLocalTranslation(5f * index, -4f * index, 0f)
     }
 
     init {
@@ -16,7 +16,6 @@
  */
 package org.wysko.midis2jam2.instrument.family.organ
 
-import com.jme3.material.Material
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial.CullHint.Always
@@ -28,7 +27,9 @@ import org.wysko.midis2jam2.instrument.family.piano.Key
 import org.wysko.midis2jam2.instrument.family.piano.KeyedInstrument
 import org.wysko.midis2jam2.instrument.family.piano.KeyedInstrument.KeyColor.WHITE
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
+import org.wysko.midis2jam2.util.Utils.localAngle
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 const val ACCORDION_KEY_BMP = "AccordionKey.bmp"
 const val ACCORDION_KEY_WHITE_FRONT_OBJ = "AccordionKeyWhiteFront.obj"
@@ -119,8 +120,8 @@ class Accordion(context: Midis2jam2, eventList: MutableList<MidiChannelSpecificE
         calculateAngle(delta)
 
         /* Set the rotation of each section */
-        accordionSections.indices.forEach { i ->
-            accordionSections[i].localRotation = Quaternion().fromAngles(0f, 0f, rad(angle * (i - 7.5)))
+        for (i in accordionSections.indices) {
+            setLocalAngles(accordionSections[i], 0f, 0f, rad(angle * (i - 7.5)))
         }
     }
 
@@ -136,17 +137,15 @@ class Accordion(context: Midis2jam2, eventList: MutableList<MidiChannelSpecificE
     private inner class AccordionKey(midiNote: Int, startPos: Int) : Key() {
         override fun tick(delta: Float) {
             if (isBeingPressed) {
-                keyNode.localRotation = Quaternion().fromAngles(0f, -0.1f, 0f)
+                setLocalAngles(keyNode, 0f, -0.1f, 0f)
                 downNode.cullHint = Dynamic
                 upNode.cullHint = Always
             } else {
-                val angles = FloatArray(3)
-                keyNode.localRotation.toAngles(angles)
-                if (angles[1] < -0.0001) {
-                    keyNode.localRotation =
-                        Quaternion(floatArrayOf(0f, (angles[1] + 0.02f * delta * 50).coerceAtMost(0f), 0f))
+                val angle = localAngle(keyNode, 1)
+                if (angle < -0.0001) {
+                    setLocalAngles(keyNode, 0f, (angle + 0.02f * delta * 50).coerceAtMost(0f), 0f)
                 } else {
-                    keyNode.localRotation = Quaternion(floatArrayOf(0f, 0f, 0f))
+                    keyNode.localRotation = Quaternion.IDENTITY
                     downNode.cullHint = Always
                     upNode.cullHint = Dynamic
                 }
@@ -210,14 +209,10 @@ class Accordion(context: Midis2jam2, eventList: MutableList<MidiChannelSpecificE
         }
 
         /* Load leather strap */
-        val leatherStrap = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md").apply {
-            setTexture("ColorMap", context.assetManager.loadTexture("Assets/LeatherStrap.bmp"))
-        }
+        val leatherStrap = context.unshadedMaterial("Assets/LeatherStrap.bmp")
 
         /* Load rubber foot */
-        val rubberFoot = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md").apply {
-            setTexture("ColorMap", context.assetManager.loadTexture("Assets/RubberFoot.bmp"))
-        }
+        val rubberFoot = context.unshadedMaterial("Assets/RubberFoot.bmp")
 
         /* Set materials */
         (leftHandCase as Node).apply {
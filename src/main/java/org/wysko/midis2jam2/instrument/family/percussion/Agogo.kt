@@ -18,6 +18,7 @@ package org.wysko.midis2jam2.instrument.family.percussion
 
 import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercussion
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.Midi.HIGH_AGOGO
@@ -36,12 +37,12 @@ class Agogo(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumSe
     private val rightStick: Spatial
 
     /** The hits for the high agogo. */
-    private val highHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == HIGH_AGOGO } as MutableList<MidiNoteOnEvent>
+    private val highHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == HIGH_AGOGO })
 
     /** The hits for the low agogo. */
-    private val lowHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == LOW_AGOGO } as MutableList<MidiNoteOnEvent>
+    private val lowHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == LOW_AGOGO })
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
@@ -19,6 +19,7 @@ package org.wysko.midis2jam2.instrument.family.percussion
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercussion
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.Midi.HIGH_BONGO
@@ -33,11 +34,11 @@ class Bongos(
     hits: MutableList<MidiNoteOnEvent>
 ) : NonDrumSetPercussion(context, hits) {
 
-    private val lowBongoHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == LOW_BONGO } as MutableList<MidiNoteOnEvent>
+    private val lowBongoHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == LOW_BONGO })
 
-    private val highBongoHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == HIGH_BONGO } as MutableList<MidiNoteOnEvent>
+    private val highBongoHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == HIGH_BONGO })
 
     /** The Right hand node. */
     private val highHandNode = Node()
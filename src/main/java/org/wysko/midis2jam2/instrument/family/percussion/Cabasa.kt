@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercu
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -41,10 +42,12 @@ class Cabasa(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumS
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
         val stickStatus =
-            Stick.handleStick(context, cabasaNode, time, delta, hits, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X)
+            Stick.handleStick(
+                context, cabasaNode, time, delta, hitTimeline, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X
+            )
 
         /* Spin the cabasa loosely based on the rotation angle of the stickStatus */
-        cabasaModel.localRotation = Quaternion().fromAngles(0f, stickStatus.rotationAngle, 0f)
+        setLocalAngles(cabasaModel, 0f, stickStatus.rotationAngle, 0f)
     }
 
     init {
@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercu
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -46,13 +47,13 @@ class Castanets(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDr
             topCastanetNode,
             time,
             delta,
-            hits,
+            hitTimeline,
             Stick.STRIKE_SPEED / 2,
             Stick.MAX_ANGLE / 2,
             Axis.X
         )
         topCastanetNode.cullHint = CullHint.Dynamic
-        bottomCastanetNode.localRotation = Quaternion().fromAngles(-stickStatus.rotationAngle, 0f, 0f)
+        setLocalAngles(bottomCastanetNode, -stickStatus.rotationAngle, 0f, 0f)
     }
 
     init {
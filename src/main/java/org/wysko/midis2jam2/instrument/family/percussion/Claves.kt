@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercu
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -43,7 +44,7 @@ class Claves(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumS
 
         /* Animate the right clave like you normally would for a stick */
         val status = Stick.handleStick(
-            context, rightClaveNode, time, delta, hits, Stick.STRIKE_SPEED,
+            context, rightClaveNode, time, delta, hitTimeline, Stick.STRIKE_SPEED,
             Stick.MAX_ANGLE, Axis.X
         )
 
@@ -51,7 +52,7 @@ class Claves(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumS
         rightClaveNode.cullHint = CullHint.Dynamic
 
         /* Copy the rotation and mirror it to the left clave */
-        leftClaveNode.localRotation = Quaternion().fromAngles(-status.rotationAngle, 0f, 0f)
+        setLocalAngles(leftClaveNode, -status.rotationAngle, 0f, 0f)
     }
 
     init {
@@ -19,6 +19,7 @@ package org.wysko.midis2jam2.instrument.family.percussion
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercussion
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.Midi.LOW_CONGA
@@ -60,16 +61,16 @@ class Congas(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumS
     private val mutedHandNode = Node()
 
     /** The Low conga hits. */
-    private val lowCongaHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == LOW_CONGA } as MutableList<MidiNoteOnEvent>
+    private val lowCongaHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == LOW_CONGA })
 
     /** The High conga hits. */
-    private val highCongaHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == OPEN_HIGH_CONGA } as MutableList<MidiNoteOnEvent>
+    private val highCongaHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == OPEN_HIGH_CONGA })
 
     /** The Muted conga hits. */
-    private val mutedCongaHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == MUTE_HIGH_CONGA } as MutableList<MidiNoteOnEvent>
+    private val mutedCongaHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == MUTE_HIGH_CONGA })
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
@@ -37,7 +37,7 @@ class Cowbell(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrum
 
         /* Animate stick */
         val stickStatus =
-            Stick.handleStick(context, stickNode, time, delta, hits, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X)
+            Stick.handleStick(context, stickNode, time, delta, hitTimeline, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X)
 
         /* Animate cowbell */
         recoilDrum(
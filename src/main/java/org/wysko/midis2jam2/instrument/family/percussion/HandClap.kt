@@ -25,6 +25,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercu
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -43,14 +44,14 @@ class HandClap(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDru
 
         /* Animate the left hand like you normally would for a stick */
         val status = Stick.handleStick(
-            context, leftHandNode, time, delta, hits, Stick.STRIKE_SPEED * 0.8, 40.0, Axis.X
+            context, leftHandNode, time, delta, hitTimeline, Stick.STRIKE_SPEED * 0.8, 40.0, Axis.X
         )
 
         /* Override handleStick making the leftHandNode cull */
         leftHandNode.cullHint = CullHint.Dynamic
 
         /* Copy the rotation and mirror it to the right hand */
-        rightHandNode.localRotation = Quaternion().fromAngles(-status.rotationAngle, 0f, 0f)
+        setLocalAngles(rightHandNode, -status.rotationAngle, 0f, 0f)
     }
 
     init {
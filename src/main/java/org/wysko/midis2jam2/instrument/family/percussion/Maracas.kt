@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercu
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -42,14 +43,14 @@ class Maracas(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrum
 
         /* Animate left maraca */
         val status = Stick.handleStick(
-            context, leftMaraca, time, delta, hits, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X
+            context, leftMaraca, time, delta, hitTimeline, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X
         )
 
         /* Override handleStick culling the left maraca */
         leftMaraca.cullHint = Spatial.CullHint.Dynamic
 
         /* Copy rotation to right maraca */
-        rightMaraca.localRotation = Quaternion().fromAngles(status.rotationAngle, 0f, 0f)
+        setLocalAngles(rightMaraca, status.rotationAngle, 0f, 0f)
     }
 
     init {
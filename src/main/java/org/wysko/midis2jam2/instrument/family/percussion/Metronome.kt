@@ -20,12 +20,14 @@ import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercussion
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.Midi.METRONOME_BELL
 import org.wysko.midis2jam2.midi.Midi.METRONOME_CLICK
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /**
@@ -72,12 +74,12 @@ class Metronome(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDr
     private val bellPendulum: Spatial
 
     /** List of hits for [METRONOME_BELL]. */
-    private val bellHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == METRONOME_BELL } as MutableList<MidiNoteOnEvent>
+    private val bellHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == METRONOME_BELL })
 
     /** List of hits for [METRONOME_CLICK]. */
-    private val clickHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == METRONOME_CLICK } as MutableList<MidiNoteOnEvent>
+    private val clickHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == METRONOME_CLICK })
 
     /** Keeps track of which direction [clickPendulum] should swing. */
     private var flipClick = false
@@ -112,7 +114,8 @@ class Metronome(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDr
             flipClickLastStrikeFor = clickStatus.strikingFor
             flipClick = !flipClick
         }
-        clickPendulum.localRotation = Quaternion().fromAngles(
+        setLocalAngles(
+            clickPendulum,
             0f,
             0f,
             if (flipClick) clickStatus.rotationAngle * -1 + rad(60.0) else clickStatus.rotationAngle
@@ -127,7 +130,8 @@ class Metronome(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDr
             flipBellLastStrikeFor = bellStatus.strikingFor
             flipBell = !flipBell
         }
-        bellPendulum.localRotation = Quaternion().fromAngles(
+        setLocalAngles(
+            bellPendulum,
             0f,
             0f,
             if (flipBell) bellStatus.rotationAngle * -1 + rad(60.0) else bellStatus.rotationAngle
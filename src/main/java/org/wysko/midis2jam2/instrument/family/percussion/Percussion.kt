@@ -24,6 +24,7 @@ import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.DecayedInstrument
 import org.wysko.midis2jam2.instrument.algorithmic.NoteQueue
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.Triangle.TriangleType.MUTED
 import org.wysko.midis2jam2.instrument.family.percussion.Triangle.TriangleType.OPEN
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.*
@@ -33,6 +34,7 @@ import org.wysko.midis2jam2.midi.Midi
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.midi.MidiProgramEvent
+import org.wysko.midis2jam2.util.AssetPack
 
 class Percussion(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) : DecayedInstrument(context, events) {
 
@@ -40,12 +42,12 @@ class Percussion(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
     private val percussionNode: Node = Node()
 
     /** All note on events. */
-    private val noteOnEvents: MutableList<MidiNoteOnEvent> =
-        events.filterIsInstance<MidiNoteOnEvent>().filter { it.note in 27..87 } as MutableList<MidiNoteOnEvent>
+    private val noteOnEvents: List<MidiNoteOnEvent> =
+        events.filterIsInstance<MidiNoteOnEvent>().filter { it.note in 27..87 }
 
     /** All program change events. */
-    private val programEvents: MutableList<MidiProgramEvent> =
-        events.filterIsInstance<MidiProgramEvent>() as MutableList<MidiProgramEvent>
+    private val programEvents: Timeline<MidiProgramEvent> =
+        timelineOf(events.filterIsInstance<MidiProgramEvent>())
 
     /** Each percussion instrument. */
     val instruments: MutableList<PercussionInstrument> = ArrayList()
@@ -56,23 +58,32 @@ class Percussion(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
         super.tick(time, delta)
         instruments.forEach { it.tick(time, delta) }
 
-        NoteQueue.collectOne(programEvents, context, time)?.let { event ->
-            when (event.programNum) {
-                PercussionKit.ROOM.midiNumber -> {
-                    retexture("DrumShell_Snare_Room.png", "DrumShell_Room.png")
-                }
-                PercussionKit.BRUSH.midiNumber -> {
-                    retexture("DrumShell_Snare_Brush.png", "DrumShell_Brush.png")
-                }
-                PercussionKit.JAZZ.midiNumber -> {
-                    retexture("DrumShell_Snare_Jazz.png", "DrumShell_Jazz.png")
-                }
-                PercussionKit.POWER.midiNumber -> {
-                    retexture("DrumShell_Snare_Power.png", "DrumShell_Power.png")
-                }
-                else -> {
-                    retexture("DrumShell_Snare.bmp", "DrumShell.bmp")
-                }
+        NoteQueue.collectOne(programEvents, time)?.let { applyKit(it.programNum) }
+    }
+
+    override fun seek(time: Double) {
+        super.seek(time)
+        instruments.forEach { it.seek(time) }
+        applyKit(programEvents.lastElapsed()?.programNum ?: PercussionKit.STANDARD.midiNumber)
+    }
+
+    /** Retextures the drum set for the [PercussionKit] with the given [programNum]. */
+    private fun applyKit(programNum: Int) {
+        when (programNum) {
+            PercussionKit.ROOM.midiNumber -> {
+                retexture("DrumShell_Snare_Room.png", "DrumShell_Room.png")
+            }
+            PercussionKit.BRUSH.midiNumber -> {
+                retexture("DrumShell_Snare_Brush.png", "DrumShell_Brush.png")
+            }
+            PercussionKit.JAZZ.midiNumber -> {
+                retexture("DrumShell_Snare_Jazz.png", "DrumShell_Jazz.png")
+            }
+            PercussionKit.POWER.midiNumber -> {
+                retexture("DrumShell_Snare_Power.png", "DrumShell_Power.png")
+            }
+            else -> {
+                retexture("DrumShell_Snare.bmp", "DrumShell.bmp")
             }
         }
     }
@@ -186,12 +197,13 @@ class Percussion(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
                 is SnareDrum, is BassDrum, is Tom, is Cymbal, is HiHat -> drumSetNode.attachChild(it.highLevelNode)
                 else -> percussionNode.attachChild(it.highLevelNode)
             }
+            offsetNode.attachChild(it.offsetNode)
         }
 
         /* Add shadow */
-        val shadow = context.assetManager.loadModel("Assets/DrumShadow.obj")
+        val shadow = AssetPack.loadModel(context.assetManager, "Assets/DrumShadow.obj")
         val material = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md")
-        material.setTexture("ColorMap", context.assetManager.loadTexture("Assets/DrumShadow.png"))
+        material.setTexture("ColorMap", AssetPack.loadTexture(context.assetManager, "Assets/DrumShadow.png"))
         material.additionalRenderState.blendMode = RenderState.BlendMode.Alpha
         shadow.queueBucket = RenderQueue.Bucket.Transparent
         shadow.setMaterial(material)
@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercussion
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /**
  * The Slap.
@@ -45,12 +46,12 @@ class Slap(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumSet
             leftSlapNode,
             time,
             delta,
-            hits,
+            hitTimeline,
             strikeSpeed = Stick.STRIKE_SPEED * 0.6,
             maxAngle = 30.0
         )
         leftSlapNode.cullHint = Spatial.CullHint.Dynamic
-        rightSlapNode.localRotation = Quaternion().fromAngles(-handleStick.rotationAngle, 0f, 0f)
+        setLocalAngles(rightSlapNode, -handleStick.rotationAngle, 0f, 0f)
     }
 
     init {
@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercu
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 class SquareClick(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumSetPercussion(context, hits) {
@@ -37,9 +38,9 @@ class SquareClick(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : Non
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
         val stickStatus =
-            Stick.handleStick(context, stickNode, time, delta, hits, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X)
+            Stick.handleStick(context, stickNode, time, delta, hitTimeline, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X)
         stickNode.cullHint = Spatial.CullHint.Dynamic
-        scNode.localRotation = Quaternion().fromAngles(-stickStatus.rotationAngle, 0f, 0f)
+        setLocalAngles(scNode, -stickStatus.rotationAngle, 0f, 0f)
     }
 
     init {
@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercu
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /** The sticks. */
@@ -37,9 +38,9 @@ class Sticks(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumS
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
-        val status = Stick.handleStick(context, leftStickNode, time, delta, hits, 2.0, 30.0, Axis.X)
+        val status = Stick.handleStick(context, leftStickNode, time, delta, hitTimeline, 2.0, 30.0, Axis.X)
         leftStickNode.cullHint = CullHint.Dynamic
-        rightStickNode.localRotation = Quaternion().fromAngles(-status.rotationAngle, 0f, 0f)
+        setLocalAngles(rightStickNode, -status.rotationAngle, 0f, 0f)
     }
 
     init {
@@ -25,6 +25,7 @@ import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.Midi
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /** The surdo. */
@@ -40,17 +41,17 @@ class Surdo(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumSe
     private fun moveHand(position: HandPosition) {
         if (position == HandPosition.DOWN) {
             hand.setLocalTranslation(0f, 0f, 0f)
-            hand.localRotation = Quaternion().fromAngles(0f, 0f, 0f)
+            setLocalAngles(hand, 0f, 0f, 0f)
         } else {
             hand.setLocalTranslation(0f, 2f, 0f)
-            hand.localRotation = Quaternion().fromAngles(rad(30.0), 0f, 0f)
+            setLocalAngles(hand, rad(30.0), 0f, 0f)
         }
     }
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
         val stickStatus =
-            Stick.handleStick(context, stickNode, time, delta, hits, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X)
+            Stick.handleStick(context, stickNode, time, delta, hitTimeline, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X)
         recoilDrum(
             recoilNode,
             stickStatus.justStruck(),
@@ -16,7 +16,6 @@
  */
 package org.wysko.midis2jam2.instrument.family.percussion
 
-import com.jme3.material.Material
 import com.jme3.math.FastMath
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
@@ -26,6 +25,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercu
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 /** The tambourine. */
@@ -39,20 +39,16 @@ class Tambourine(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonD
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
-        val status = Stick.handleStick(context, tambourineHandNode, time, delta, hits, 2.0, 30.0, Axis.X)
+        val status = Stick.handleStick(context, tambourineHandNode, time, delta, hitTimeline, 2.0, 30.0, Axis.X)
         tambourineHandNode.cullHint = CullHint.Dynamic
-        emptyHandNode.localRotation = Quaternion().fromAngles(-status.rotationAngle, 0f, 0f)
+        setLocalAngles(emptyHandNode, -status.rotationAngle, 0f, 0f)
     }
 
     init {
         val tambourineHand = context.loadModel("hand_tambourine.fbx", "hands.bmp")
         /* Set tambourine materials */
-        val tambourineWoodMat = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md")
-        tambourineWoodMat.setTexture("ColorMap", context.assetManager.loadTexture("Assets/TambourineWood.bmp"))
-        (tambourineHand as Node).getChild(2).setMaterial(tambourineWoodMat)
-        val metalTexture = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md")
-        metalTexture.setTexture("ColorMap", context.assetManager.loadTexture("Assets/MetalTexture.bmp"))
-        tambourineHand.getChild(1).setMaterial(metalTexture)
+        (tambourineHand as Node).getChild(2).setMaterial(context.unshadedMaterial("Assets/TambourineWood.bmp"))
+        tambourineHand.getChild(1).setMaterial(context.unshadedMaterial("Assets/MetalTexture.bmp"))
         tambourineHand.setLocalTranslation(0f, 0f, -2f)
         tambourineHandNode.attachChild(tambourineHand)
         val hand = context.loadModel("hand_right.obj", "hands.bmp")
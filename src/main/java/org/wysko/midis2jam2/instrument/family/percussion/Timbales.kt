@@ -19,6 +19,7 @@ package org.wysko.midis2jam2.instrument.family.percussion
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercussion
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.Midi.HIGH_TIMBALE
@@ -31,12 +32,12 @@ import org.wysko.midis2jam2.world.Axis
 class Timbales(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrumSetPercussion(context, hits) {
 
     /** List of hits for the low timbale. */
-    private val lowTimbaleHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == LOW_TIMBALE } as MutableList<MidiNoteOnEvent>
+    private val lowTimbaleHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == LOW_TIMBALE })
 
     /** List of hits for the high timbale. */
-    private val highTimbaleHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == HIGH_TIMBALE } as MutableList<MidiNoteOnEvent>
+    private val highTimbaleHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == HIGH_TIMBALE })
 
     /** The Right hand node. */
     private val highStickNode = Node()
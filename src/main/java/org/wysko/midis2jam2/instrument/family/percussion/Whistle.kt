@@ -40,7 +40,7 @@ class Whistle(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDrum
     private val longWhistle: PercussionWhistle
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
-        val nextHits = collect(hits, context, time)
+        val nextHits = collect(hitTimeline, time)
         nextHits.forEach {
             if (it.note == SHORT_WHISTLE) {
                 shortWhistle.play(0.2)
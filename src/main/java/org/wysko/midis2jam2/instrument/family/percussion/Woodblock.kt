@@ -19,6 +19,7 @@ package org.wysko.midis2jam2.instrument.family.percussion
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.NonDrumSetPercussion
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.Midi.HIGH_WOODBLOCK
@@ -43,12 +44,12 @@ class Woodblock(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : NonDr
     private val rightWoodblockAnimNode = Node()
 
     /** The Low woodblock hits. */
-    private val leftHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == LOW_WOODBLOCK } as MutableList<MidiNoteOnEvent>
+    private val leftHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == LOW_WOODBLOCK })
 
     /** The High woodblock hits. */
-    private val rightHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == HIGH_WOODBLOCK } as MutableList<MidiNoteOnEvent>
+    private val rightHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == HIGH_WOODBLOCK })
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
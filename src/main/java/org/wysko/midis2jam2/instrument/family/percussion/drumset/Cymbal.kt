@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.CymbalAnimator
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.util.MatType.REFLECTIVE
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** Cymbals are represented with this class, excluding the [HiHat]. */
 open class Cymbal(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>, type: CymbalType) :
@@ -36,7 +37,7 @@ open class Cymbal(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>, type:
     protected var animator: CymbalAnimator
 
     override fun tick(time: Double, delta: Float) {
-        val stickStatus = handleStick(time, delta, hits)
+        val stickStatus = handleStick(time, delta, hitTimeline)
         handleCymbalStrikes(delta, stickStatus.justStruck())
     }
 
@@ -46,7 +47,7 @@ open class Cymbal(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>, type:
         if (struck) animator.strike()
 
         /* Update wobble */
-        cymbalNode.localRotation = Quaternion().fromAngles(animator.rotationAmount(), 0f, 0f)
+        setLocalAngles(cymbalNode, animator.rotationAmount(), 0f, 0f)
 
         /* Tick animator */
         animator.tick(delta)
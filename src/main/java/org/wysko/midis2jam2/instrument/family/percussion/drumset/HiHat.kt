@@ -21,6 +21,7 @@ import com.jme3.math.Vector3f
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.algorithmic.NoteQueue
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.CymbalAnimator
 import org.wysko.midis2jam2.midi.Midi
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
@@ -30,8 +31,8 @@ import org.wysko.midis2jam2.util.Utils.rad
 /** The hi-hat. */
 class HiHat(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : SingleStickInstrument(context, hits) {
 
-    /** The list of NoteOn events that the stick needs to worry about (closed and open). */
-    private val hitsToStrike: List<MidiNoteOnEvent>
+    /** The timeline of NoteOn events that the stick needs to worry about (closed and open). */
+    private val hitsToStrike: Timeline<MidiNoteOnEvent>
 
     /** The top cymbal. */
     private val topCymbal = Node()
@@ -55,7 +56,7 @@ class HiHat(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : SingleSti
     override fun tick(time: Double, delta: Float) {
         animator.tick(delta)
 
-        val recoil = NoteQueue.collectOne(hits, context, time)
+        val recoil = NoteQueue.collectOne(hitTimeline, time)
 
         /* If a note is to be played */
         if (recoil != null) {
@@ -85,7 +86,7 @@ class HiHat(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : SingleSti
         if (animTime != -1.0) animTime += delta.toDouble()
 
         /* Animate stick */
-        handleStick(time, delta, hitsToStrike as MutableList<MidiNoteOnEvent>)
+        handleStick(time, delta, hitsToStrike)
 
         /* Move the hat up for recoil */
         wholeHat.move(0f, 5 * delta, 0f)
@@ -122,7 +123,8 @@ class HiHat(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : SingleSti
         val bottomCymbal = Node()
 
         /* Filter out hits that the stick needs to worry about */
-        hitsToStrike = hits.filter { it.note == Midi.OPEN_HI_HAT || it.note == Midi.CLOSED_HI_HAT }
+        hitsToStrike =
+            timelineOf(hits.filter { it.note == Midi.OPEN_HI_HAT || it.note == Midi.CLOSED_HI_HAT })
 
         /* Load the cymbals */
         topCymbal.attachChild(
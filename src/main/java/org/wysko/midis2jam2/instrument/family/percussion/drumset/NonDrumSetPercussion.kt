@@ -27,15 +27,11 @@ open class NonDrumSetPercussion protected constructor(
 
     override fun calcVisibility(time: Double): Boolean {
         /* Within 0.5 seconds of a hit? Visible. */
-        if (hitsV.isNotEmpty() &&
-            context.file.eventInSeconds(hitsV[0]) - time <= 0.5
-        )
-            return true
+        if (hitsV.peekTime() - time <= 0.5) return true
 
         /* If within a 4-second gap between the last hit and the next? Visible. */
         if (lastHit != null
-            && hitsV.isNotEmpty()
-            && context.file.eventInSeconds(hitsV[0]) - context.file.eventInSeconds(lastHit) <= 4
+            && hitsV.peekTime() - context.file.eventInSeconds(lastHit) <= 4
         ) return true
 
         /* If after 0.5 seconds of the last hit? Visible. */
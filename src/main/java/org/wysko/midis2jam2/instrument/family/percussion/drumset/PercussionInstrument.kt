@@ -28,7 +28,7 @@ import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 abstract class PercussionInstrument protected constructor(
     context: Midis2jam2,
     /** The hits of this instrument. */
-    override val hits: MutableList<MidiNoteOnEvent>
+    override val hits: List<MidiNoteOnEvent>
 ) : DecayedInstrument(context, hits) {
 
     /** The High level node. */
@@ -17,6 +17,7 @@
 package org.wysko.midis2jam2.instrument.family.percussion.drumset
 
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.CymbalAnimator
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.instrument.family.percussive.Stick.StickStatus
@@ -29,11 +30,11 @@ class RideCymbal(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>, type:
     Cymbal(context, hits, type) {
 
     override fun tick(time: Double, delta: Float) {
-        val stickStatus = handleStick(time, delta, hits)
+        val stickStatus = handleStick(time, delta, hitTimeline)
         handleCymbalStrikes(delta, stickStatus.justStruck())
     }
 
-    override fun handleStick(time: Double, delta: Float, hits: MutableList<MidiNoteOnEvent>): StickStatus {
+    override fun handleStick(time: Double, delta: Float, hits: Timeline<MidiNoteOnEvent>): StickStatus {
         val stickStatus = Stick.handleStick(
             context, stick, time, delta,
             hits, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X
@@ -20,6 +20,7 @@ import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.instrument.family.percussive.Stick.StickStatus
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
@@ -43,7 +44,7 @@ abstract class SingleStickInstrument protected constructor(context: Midis2jam2,
      * @param delta the amount of time since the last frame update
      * @param hits  the running list of hits
      */
-    open fun handleStick(time: Double, delta: Float, hits: MutableList<MidiNoteOnEvent>): StickStatus =
+    open fun handleStick(time: Double, delta: Float, hits: Timeline<MidiNoteOnEvent>): StickStatus =
         Stick.handleStick(context, stick, time, delta, hits, Stick.STRIKE_SPEED, Stick.MAX_ANGLE, Axis.X)
 
 
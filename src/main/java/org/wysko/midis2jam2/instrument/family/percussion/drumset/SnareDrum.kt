@@ -20,6 +20,7 @@ import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.Retexturable
 import org.wysko.midis2jam2.instrument.family.percussion.RetextureType
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
@@ -33,12 +34,12 @@ class SnareDrum(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>) : Percu
     Retexturable {
 
     /** The list of hits for regular notes. */
-    private val regularHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == Midi.ACOUSTIC_SNARE || it.note == Midi.ELECTRIC_SNARE } as MutableList<MidiNoteOnEvent>
+    private val regularHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == Midi.ACOUSTIC_SNARE || it.note == Midi.ELECTRIC_SNARE })
 
     /** The list of hits for side sticks. */
-    private val sideHits: MutableList<MidiNoteOnEvent> =
-        hits.filter { it.note == Midi.SIDE_STICK } as MutableList<MidiNoteOnEvent>
+    private val sideHits: Timeline<MidiNoteOnEvent> =
+        timelineOf(hits.filter { it.note == Midi.SIDE_STICK })
 
     /** Contains the side stick. */
     private val sideStickNode = Node()
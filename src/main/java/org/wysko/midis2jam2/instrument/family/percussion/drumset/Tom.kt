@@ -33,7 +33,7 @@ class Tom(context: Midis2jam2, hits: MutableList<MidiNoteOnEvent>, pitch: TomPit
     var drum: Spatial
 
     override fun tick(time: Double, delta: Float) {
-        val handleStick = handleStick(time, delta, hits)
+        val handleStick = handleStick(time, delta, hitTimeline)
         recoilDrum(
             drum,
             handleStick.justStruck(),
@@ -24,6 +24,7 @@ import org.wysko.midis2jam2.instrument.family.percussion.drumset.PercussionInstr
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.MatType
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The melodic agogos. */
 class Agogos(
@@ -38,8 +39,7 @@ class Agogos(
 
     override fun moveForMultiChannel(delta: Float) {
         offsetNode.setLocalTranslation(0f, 18 + 3.6f * updateInstrumentIndex(delta), 0f)
-        instrumentNode.localRotation =
-            Quaternion().fromAngles(0f, -FastMath.HALF_PI + FastMath.HALF_PI * updateInstrumentIndex(delta), 0f)
+        setLocalAngles(instrumentNode, 0f, -FastMath.HALF_PI + FastMath.HALF_PI * updateInstrumentIndex(delta), 0f)
     }
 
     /** A single agogo. */
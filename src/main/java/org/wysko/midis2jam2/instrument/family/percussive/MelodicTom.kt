@@ -21,6 +21,7 @@ import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The Melodic tom. */
 class MelodicTom(
@@ -29,7 +30,7 @@ class MelodicTom(
 ) : OneDrumOctave(context, eventList) {
 
     override fun moveForMultiChannel(delta: Float) {
-        highestLevel.localRotation = Quaternion().fromAngles(0f, rad(-26.3 + updateInstrumentIndex(delta) * -15), 0f)
+        setLocalAngles(highestLevel, 0f, rad(-26.3 + updateInstrumentIndex(delta) * -15), 0f)
     }
 
     init {
@@ -19,6 +19,7 @@ package org.wysko.midis2jam2.instrument.family.percussive
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.DecayedInstrument
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.PercussionInstrument
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
@@ -35,7 +36,9 @@ abstract class OneDrumOctave protected constructor(context: Midis2jam2, eventLis
     protected var malletNodes: Array<Node> = Array(12) { Node() }
 
     /** The Mallet strikes. */
-    private val malletStrikes: Array<ArrayList<MidiNoteOnEvent>> = Array(12) { ArrayList() }
+    private val malletStrikes: Array<Timeline<MidiNoteOnEvent>> =
+        eventList.filterIsInstance<MidiNoteOnEvent>().groupBy { (it.note + 3) % 12 }
+            .let { byMallet -> Array(12) { timelineOf(byMallet[it] ?: emptyList()) } }
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
@@ -58,10 +61,5 @@ abstract class OneDrumOctave protected constructor(context: Midis2jam2, eventLis
     init {
         /* Attach mallet nodes to anim node */
         malletNodes.forEach { animNode.attachChild(it) }
-
-        /* Filter out note on events and assign them to correct mallets */
-        eventList.filterIsInstance<MidiNoteOnEvent>().forEach {
-            malletStrikes[(it.note + 3) % 12].add(it)
-        }
     }
 }
\ No newline at end of file
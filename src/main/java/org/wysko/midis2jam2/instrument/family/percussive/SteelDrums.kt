@@ -22,6 +22,7 @@ import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.MatType
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The Steel drums. */
 class SteelDrums(
@@ -29,8 +30,7 @@ class SteelDrums(
     eventList: List<MidiChannelSpecificEvent>
 ) : OneDrumOctave(context, eventList) {
     override fun moveForMultiChannel(delta: Float) {
-        highestLevel.localRotation =
-            Quaternion().fromAngles(0f, rad((-37f - 15 * updateInstrumentIndex(delta)).toDouble()), 0f)
+        setLocalAngles(highestLevel, 0f, rad((-37f - 15 * updateInstrumentIndex(delta)).toDouble()), 0f)
     }
 
     init {
@@ -17,14 +17,17 @@
 
 package org.wysko.midis2jam2.instrument.family.percussive
 
-import com.jme3.math.Quaternion
 import com.jme3.scene.Spatial
 import com.jme3.scene.Spatial.CullHint
 import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.midi.MidiEvent
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
+import org.wysko.midis2jam2.util.Utils.localAngle
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
+import java.util.*
 
 /** Contains logic for animating sticks and other things that have a strike motion. */
 object Stick {
@@ -49,10 +52,10 @@ object Stick {
     }
 
     /**
-     * Keeps track of last time a stick was struck. The key is the stick's spatial, the value is the time of the last
-     * strike expressed in MIDI ticks.
+     * The status of each stick, which is updated in place on each call to [handleStick] so that no status is allocated
+     * on each frame. The key is the stick's spatial. Weak keys let the statuses of evicted instruments be collected.
      */
-    private val stickTimeMap: MutableMap<Spatial, Long> = HashMap()
+    private val stickStatuses: MutableMap<Spatial, StickStatus> = WeakHashMap()
 
     /**
      * Calculates the desired rotation and visibility of a stick at any given point.
@@ -61,32 +64,25 @@ object Stick {
      * @param stickNode   the node that will rotate and cull to move the stick
      * @param time        the current time, in seconds
      * @param delta       the amount of time since the last frame
-     * @param strikes     the list of strikes this stick is responsible for
+     * @param strikes     the timeline of strikes this stick is responsible for
      * @param strikeSpeed the speed at which to strike
      * @param maxAngle    the maximum angle to hold the stick at
      * @param axis        the axis on which to rotate the stick
-     * @return a [StickStatus] describing the current status of the stick
+     * @return a [StickStatus] describing the current status of the stick, which is reused by the next call for the
+     * same stick
      */
     fun handleStick(
         context: Midis2jam2,
         stickNode: Spatial,
         time: Double,
         delta: Float,
-        strikes: MutableList<MidiNoteOnEvent>,
+        strikes: Timeline<MidiNoteOnEvent>,
         strikeSpeed: Double = STRIKE_SPEED,
         maxAngle: Double = MAX_ANGLE,
         axis: Axis = Axis.X,
         sticky: Boolean = true
     ): StickStatus {
-        var nextHit: MidiNoteOnEvent? = null
-
-        if (strikes.isNotEmpty()) {
-            nextHit = strikes[0]
-        }
-
-        while (strikes.isNotEmpty() && context.file.eventInSeconds(strikes[0]) <= time) {
-            nextHit = strikes.removeAt(0)
-        }
+        val nextHit: MidiNoteOnEvent? = strikes.advanceTo(time).lastOrNull() ?: strikes.peek()
 
         val strike = nextHit != null && context.file.eventInSeconds(nextHit) <= time
 
@@ -94,13 +90,13 @@ object Stick {
         val proposedRotation = proposedRotation(context, time, nextHit, maxAngle, strikeSpeed)
 
 
-        val floats = stickNode.localRotation.toAngles(FloatArray(3))
+        val currentAngle = localAngle(stickNode, axis.componentIndex)
 
         if (proposedRotation > maxAngle) {
             // Not yet ready to strike
-            if (floats[axis.componentIndex] <= maxAngle) {
+            if (currentAngle <= maxAngle) {
                 // We have come down, need to recoil
-                var angle = floats[axis.componentIndex] + 5f * delta
+                var angle = currentAngle + 5f * delta
                 angle = rad(maxAngle).coerceAtMost(angle)
                 setRotation(axis, stickNode, angle)
             }
@@ -108,8 +104,8 @@ object Stick {
             setRotation(axis, stickNode, rad(0.0.coerceAtLeast(maxAngle.coerceAtMost(proposedRotation))))
         }
 
-        val finalAngles = stickNode.localRotation.toAngles(FloatArray(3))
-        if (finalAngles[axis.componentIndex] >= rad(maxAngle)) {
+        val finalAngle = localAngle(stickNode, axis.componentIndex)
+        if (finalAngle >= rad(maxAngle)) {
             // Not yet ready to strike
             stickNode.cullHint = CullHint.Always
         } else {
@@ -117,52 +113,58 @@ object Stick {
             stickNode.cullHint = CullHint.Dynamic
         }
 
+        val status = stickStatuses.getOrPut(stickNode) { StickStatus() }
+
         if (sticky) {
             if (strike) {
-                stickTimeMap[stickNode] = nextHit!!.time
+                status.lastStrikeTime = nextHit!!.time
             }
 
-            if (strikes.isNotEmpty()
-                && stickTimeMap[stickNode] != null
-                && strikes.first().time - stickTimeMap[stickNode]!! <= context.file.division * 2.1
+            val upcoming = strikes.peek()
+            if (upcoming != null
+                && status.lastStrikeTime != NEVER_STRUCK
+                && upcoming.time - status.lastStrikeTime <= context.file.division * 2.1
             ) {
                 stickNode.cullHint = CullHint.Dynamic
             }
 
         }
 
-        return StickStatus(
-            if (strike) nextHit else null,
-            finalAngles[axis.componentIndex], if (proposedRotation > maxAngle) null else nextHit
-        )
+        status.strike = if (strike) nextHit else null
+        status.rotationAngle = finalAngle
+        status.strikingFor = if (proposedRotation > maxAngle) null else nextHit
+        return status
     }
 
     /** Given a [stickNode], sets the rotation of the stick to [angle] on the [axis]. */
     private fun setRotation(axis: Axis, stickNode: Spatial, angle: Float) {
         when (axis) {
-            Axis.X -> {
-                stickNode.localRotation = Quaternion().fromAngles(angle, 0f, 0f)
-            }
-            Axis.Y -> {
-                stickNode.localRotation = Quaternion().fromAngles(0f, angle, 0f)
-            }
-            Axis.Z -> {
-                stickNode.localRotation = Quaternion().fromAngles(0f, 0f, angle)
-            }
+            Axis.X -> setLocalAngles(stickNode, angle, 0f, 0f)
+            Axis.Y -> setLocalAngles(stickNode, 0f, angle, 0f)
+            Axis.Z -> setLocalAngles(stickNode, 0f, 0f, angle)
         }
     }
 
-    /** Returns data describing what the status of the stick is. */
-    class StickStatus(
+    /** The value of [StickStatus.lastStrikeTime] for a stick that has not struck. */
+    private const val NEVER_STRUCK = Long.MIN_VALUE
+
+    /** Returns data describing what the status of the stick is. Each stick has one status, updated in place. */
+    class StickStatus internal constructor() {
         /** If the stick just struck, this is the strike it struck for. Null otherwise. */
-        val strike: MidiNoteOnEvent?,
+        var strike: MidiNoteOnEvent? = null
+            internal set
 
         /** The current rotation angle of the stick. */
-        val rotationAngle: Float,
+        var rotationAngle: Float = 0f
+            internal set
 
         /** If the stick is rotating to strike a note, this is the note it's striking for. Null otherwise. */
-        val strikingFor: MidiNoteOnEvent?,
-    ) {
+        var strikingFor: MidiNoteOnEvent? = null
+            internal set
+
+        /** The time of the last strike of the stick, expressed in MIDI ticks, or [NEVER_STRUCK]. */
+        internal var lastStrikeTime: Long = NEVER_STRUCK
+
         /** True if the stick just struck, false otherwise. */
         fun justStruck(): Boolean {
             return strike != null
@@ -20,13 +20,13 @@ import com.jme3.math.Quaternion
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The Synth drum. */
 class SynthDrum(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) : OneDrumOctave(context, eventList) {
 
     override fun moveForMultiChannel(delta: Float) {
-        highestLevel.localRotation =
-            Quaternion().fromAngles(0f, rad((-25f + updateInstrumentIndex(delta) * -16).toDouble()), 0f)
+        setLocalAngles(highestLevel, 0f, rad((-25f + updateInstrumentIndex(delta) * -16).toDouble()), 0f)
     }
 
     init {
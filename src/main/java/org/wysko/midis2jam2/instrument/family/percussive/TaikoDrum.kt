@@ -16,26 +16,23 @@
  */
 package org.wysko.midis2jam2.instrument.family.percussive
 
-import com.jme3.material.Material
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The Taiko drum. */
 class TaikoDrum(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) : OneDrumOctave(context, eventList) {
 
     override fun moveForMultiChannel(delta: Float) {
-        highestLevel.localRotation = Quaternion().fromAngles(0f, rad(-27.9 + updateInstrumentIndex(delta) * -11), 0f)
+        setLocalAngles(highestLevel, 0f, rad(-27.9 + updateInstrumentIndex(delta) * -11), 0f)
     }
 
     init {
         val drum = context.loadModel("Taiko.fbx", "TaikoHead.bmp")
-        val woodTexture = context.assetManager.loadTexture("Assets/Wood.bmp")
-        val material = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md")
-        material.setTexture("ColorMap", woodTexture)
-        (drum as Node).getChild(0).setMaterial(material)
+        (drum as Node).getChild(0).setMaterial(context.unshadedMaterial("Assets/Wood.bmp"))
         for (i in 0..11) {
             malletNodes[i] = Node()
             val mallet = context.loadModel("TaikoStick.obj", "Wood.bmp")
@@ -19,6 +19,7 @@ package org.wysko.midis2jam2.instrument.family.percussive
 import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.DecayedInstrument
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.drumset.PercussionInstrument
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
@@ -32,7 +33,9 @@ abstract class TwelveDrumOctave protected constructor(context: Midis2jam2, event
     protected val malletNodes = Array(12) { Node() }
 
     /** The Mallet strikes. */
-    private val malletStrikes: Array<MutableList<MidiNoteOnEvent>> = Array(12) { ArrayList() }
+    private val malletStrikes: Array<Timeline<MidiNoteOnEvent>> =
+        eventList.filterIsInstance<MidiNoteOnEvent>().groupBy { (it.note + 3) % 12 }
+            .let { byMallet -> Array(12) { timelineOf(byMallet[it] ?: emptyList()) } }
 
     /** Each twelfth of the octave. */
     protected val twelfths = arrayOfNulls<TwelfthOfOctaveDecayed>(12)
@@ -79,8 +82,4 @@ abstract class TwelveDrumOctave protected constructor(context: Midis2jam2, event
             highestLevel.attachChild(animNode)
         }
     }
-
-    init {
-        eventList.filterIsInstance<MidiNoteOnEvent>().forEach { malletStrikes[(it.note + 3) % 12].add(it) }
-    }
 }
\ No newline at end of file
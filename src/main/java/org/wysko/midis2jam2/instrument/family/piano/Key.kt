@@ -19,6 +19,11 @@ package org.wysko.midis2jam2.instrument.family.piano
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
+import org.wysko.midis2jam2.util.Utils
+import org.wysko.midis2jam2.util.Utils.localAngle
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
+import org.wysko.midis2jam2.world.InstancedParts
+import org.wysko.midis2jam2.world.RestingBatch
 
 /**
  * Any key on a keyed instrument.
@@ -40,6 +45,41 @@ protected constructor() {
     /** Is this key being pressed? */
     var isBeingPressed: Boolean = false
 
+    /** True if this key is neither pressed nor returning to its resting position, false otherwise. */
+    var isResting: Boolean = true
+        private set
+
+    /** If the instrument batches its resting keys, the part of the batch that draws this key while resting. */
+    var batchPart: RestingBatch.Part? = null
+
+    /** True if this key is drawn with [InstancedParts], which shows and hides the up and down keys by scale. */
+    private var isInstanced = false
+
+    /** True if the "down" key is showing, false if the "up" key is showing. */
+    private var isDown = false
+
+    /** Draws this key with [parts] instead of by itself. This must be called before [parts] is built. */
+    fun instanceWith(parts: InstancedParts) {
+        isInstanced = true
+        upNode.cullHint = Spatial.CullHint.Inherit
+        downNode.cullHint = Spatial.CullHint.Inherit
+        InstancedParts.setShown(downNode, false)
+        parts.add(keyNode)
+    }
+
+    /** Shows the "down" key and hides the "up" key, or the other way around. Does nothing if nothing changes. */
+    private fun showDownKey(down: Boolean) {
+        if (isDown == down) return
+        isDown = down
+        if (isInstanced) {
+            InstancedParts.setShown(downNode, down)
+            InstancedParts.setShown(upNode, !down)
+        } else {
+            downNode.cullHint = Utils.cullHint(down)
+            upNode.cullHint = Utils.cullHint(!down)
+        }
+    }
+
     /**
      * Animates the motion of the key.
      *
@@ -47,23 +87,19 @@ protected constructor() {
      */
     open fun tick(delta: Float) {
         if (isBeingPressed) {
-            keyNode.localRotation = Quaternion().fromAngles(0.1f, 0f, 0f)
-            downNode.cullHint = Spatial.CullHint.Dynamic
-            upNode.cullHint = Spatial.CullHint.Always
+            isResting = false
+            setLocalAngles(keyNode, 0.1f, 0f, 0f)
+            showDownKey(true)
         } else {
-            val angles = FloatArray(3)
-            keyNode.localRotation.toAngles(angles)
-            if (angles[0] > 0.0001) {
-                keyNode.localRotation = Quaternion(
-                    floatArrayOf(
-                        (angles[0] - 0.02f * delta * 50).coerceAtLeast(0f), 0f, 0f
-                    )
-                )
+            val angle = localAngle(keyNode, 0)
+            if (angle > 0.0001) {
+                setLocalAngles(keyNode, (angle - 0.02f * delta * 50).coerceAtLeast(0f), 0f, 0f)
             } else {
-                keyNode.localRotation = Quaternion(floatArrayOf(0f, 0f, 0f))
-                downNode.cullHint = Spatial.CullHint.Always
-                upNode.cullHint = Spatial.CullHint.Dynamic
+                keyNode.localRotation = Quaternion.IDENTITY
+                showDownKey(false)
+                isResting = true
             }
         }
+        batchPart?.setResting(isResting)
     }
 }
\ No newline at end of file
@@ -22,6 +22,8 @@ import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.MatType
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.world.InstancedParts
+import org.wysko.midis2jam2.world.RestingBatch
 
 /** The full, 88-key keyboard. */
 class Keyboard(context: Midis2jam2, events: MutableList<MidiChannelSpecificEvent>, private val skin: KeyboardSkin) :
@@ -134,8 +136,10 @@ class Keyboard(context: Midis2jam2, events: MutableList<MidiChannelSpecificEvent
     }
 
     init {
+        val batch = RestingBatch(instrumentNode)
         val pianoCase = context.loadModel("PianoCase.obj", skin.textureFile)
         instrumentNode.attachChild(pianoCase)
+        batch.addStatic(pianoCase)
         var whiteCount = 0
         for (i in 0 until keyCount()) {
             if (midiValueToColor(i + rangeLow) == KeyColor.WHITE) { // White key
@@ -145,6 +149,17 @@ class Keyboard(context: Midis2jam2, events: MutableList<MidiChannelSpecificEvent
                 keys[i] = KeyboardKey(i + rangeLow, i)
             }
         }
+
+        if (context.isInstancingSupported) {
+            /* Each kind of key is drawn with one instanced draw call, whether it is moving or not */
+            val instanced = InstancedParts(context, instrumentNode)
+            keys.forEach { it!!.instanceWith(instanced) }
+            instanced.build()
+        } else {
+            /* The case and resting keys are drawn as one mesh; keys are swapped out of it while they move */
+            keys.forEach { it!!.batchPart = batch.addPart(it.keyNode) }
+        }
+        batch.build()
         instrumentNode.move(-50f, 32f, -6f)
         instrumentNode.rotate(0f, rad(45.0), 0f)
     }
@@ -20,6 +20,7 @@ package org.wysko.midis2jam2.instrument.family.piano
 import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.SustainedInstrument
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteEvent
 import org.wysko.midis2jam2.midi.MidiNoteOffEvent
@@ -35,8 +36,10 @@ abstract class KeyedInstrument(
     /**
      * The events associated with this instrument.
      */
-    protected val events: MutableList<MidiNoteEvent> =
-        eventList.filterIsInstance<MidiNoteEvent>() as MutableList<MidiNoteEvent>
+    protected val events: Timeline<MidiNoteEvent> = timelineOf(eventList.filterIsInstance<MidiNoteEvent>())
+
+    /** Note off events that were held back to be performed on the next frame. */
+    private val deferredEvents: MutableList<MidiNoteEvent> = ArrayList()
 
     /** The keys of this instrument. */
     protected val keys: Array<Key?> = arrayOfNulls(keyCount())
@@ -75,7 +78,7 @@ abstract class KeyedInstrument(
                         .anyMatch { e: MidiNoteEvent -> e.note == event.note && e is MidiNoteOnEvent }
                 ) {
                     // bonk. you get to go to the next frame
-                    events.add(0, event)
+                    deferredEvents.add(event)
                 } else {
                     key?.isBeingPressed = false
                 }
@@ -84,25 +87,38 @@ abstract class KeyedInstrument(
         keys.forEach { it!!.tick(delta) }
     }
 
+    /** Keys are pressed and released as note events are appended. Other events are ignored. */
+    override fun append(event: MidiChannelSpecificEvent): Boolean {
+        if (event is MidiNoteEvent) {
+            appendNoteEvent(event)
+            events.append(event)
+        }
+        return true
+    }
+
+    override fun seek(time: Double) {
+        super.seek(time)
+        deferredEvents.clear()
+        keys.forEach { it?.isBeingPressed = false }
+        currentNotePeriods.forEach { keyByMidiNote(it.midiNote)?.isBeingPressed = true }
+    }
+
     /**
-     * Searches [events] for those that should be animated now, taking special keyboard considerations into
-     * place.
+     * Advances [events] past those that should be animated now, taking special keyboard considerations into
+     * place. Events that were held back on the last frame are performed first.
      *
      * @param time the current time, in seconds
      * @return the list of events that need animation
      */
     private fun getElapsedEvents(time: Double): List<MidiNoteEvent> {
-        val eventsToPerform: MutableList<MidiNoteEvent> = ArrayList()
-        if (events.isNotEmpty()) {
-            if (events[0] !is MidiNoteOnEvent && events[0] !is MidiNoteOffEvent) {
-                events.removeAt(0)
-            }
-            while (events.isNotEmpty() && (events[0] is MidiNoteOnEvent && context.file.eventInSeconds(events[0]) <= time ||
-                        events[0] is MidiNoteOffEvent && context.file.eventInSeconds(events[0]) - time <= 0.05)
-            ) {
-                eventsToPerform.add(events.removeAt(0))
-            }
+        val elapsed = events.advanceWhile { event, eventTime ->
+            event is MidiNoteOnEvent && eventTime <= time || event is MidiNoteOffEvent && eventTime - time <= 0.05
         }
+        if (deferredEvents.isEmpty()) return elapsed
+
+        val eventsToPerform: MutableList<MidiNoteEvent> = ArrayList(deferredEvents)
+        deferredEvents.clear()
+        eventsToPerform.addAll(elapsed)
         return eventsToPerform
     }
 
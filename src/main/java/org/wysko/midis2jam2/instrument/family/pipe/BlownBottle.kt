@@ -27,6 +27,7 @@ import org.wysko.midis2jam2.particle.SteamPuffer.PuffBehavior.OUTWARDS
 import org.wysko.midis2jam2.particle.SteamPuffer.SteamPuffType.POP
 import org.wysko.midis2jam2.util.MatType
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The Blown bottle. */
 class BlownBottle(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
@@ -38,7 +39,7 @@ class BlownBottle(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
     override fun moveForMultiChannel(delta: Float) {
         val index = updateInstrumentIndex(delta)
         offsetNode.setLocalTranslation(0f, 20 + index * 3.6f, 0f)
-        instrumentNode.localRotation = Quaternion().fromAngles(0f, FastMath.HALF_PI * index, 0f)
+        setLocalAngles(instrumentNode, 0f, FastMath.HALF_PI * index, 0f)
     }
 
     /** A single Bottle. */
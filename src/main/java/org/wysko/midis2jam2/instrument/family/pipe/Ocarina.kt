@@ -22,6 +22,7 @@ import org.wysko.midis2jam2.instrument.algorithmic.HandPositionFingeringManager
 import org.wysko.midis2jam2.instrument.clone.HandedClone
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The Ocarina. */
 class Ocarina(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
@@ -60,7 +61,7 @@ class Ocarina(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
         }
 
         override fun moveForPolyphony() {
-            offsetNode.localRotation = Quaternion().fromAngles(0f, rad((17f * indexForMoving()).toDouble()), 0f)
+            setLocalAngles(offsetNode, 0f, rad((17f * indexForMoving()).toDouble()), 0f)
         }
 
         init {
@@ -22,6 +22,7 @@ import org.wysko.midis2jam2.instrument.algorithmic.HandPositionFingeringManager
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.particle.SteamPuffer
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The recorder. */
 class Recorder(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
@@ -33,7 +34,7 @@ class Recorder(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
 
     inner class RecorderClone : PuffingClone(this@Recorder, SteamPuffer.SteamPuffType.POP, 1f) {
         override fun moveForPolyphony() {
-            offsetNode.localRotation = Quaternion().fromAngles(0f, rad((15f + indexForMoving() * 15).toDouble()), 0f)
+            setLocalAngles(offsetNode, 0f, rad((15f + indexForMoving() * 15).toDouble()), 0f)
         }
 
         override fun loadHands() {
@@ -26,6 +26,7 @@ import org.wysko.midis2jam2.instrument.family.pipe.HandedInstrument
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.midi.MidiNoteEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.Axis
 
 class Oboe(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
@@ -48,7 +49,7 @@ class Oboe(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>) :
         private val bellStretcher: BellStretcher
 
         override fun moveForPolyphony() {
-            offsetNode.localRotation = Quaternion().fromAngles(0f, rad((25 * indexForMoving()).toDouble()), 0f)
+            setLocalAngles(offsetNode, 0f, rad((25 * indexForMoving()).toDouble()), 0f)
         }
 
         override fun loadHands() {
@@ -23,6 +23,7 @@ import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.algorithmic.PressedKeysFingeringManager
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
+import org.wysko.midis2jam2.util.AssetPack
 import org.wysko.midis2jam2.util.Utils.rad
 
 /** The alto saxophone. */
@@ -35,8 +36,8 @@ class AltoSax(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
             val black = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md").apply {
                 setColor("Color", Black)
             }
-            body = context.assetManager.loadModel("Assets/AltoSaxBody.fbx")
-            bell.attachChild(context.assetManager.loadModel("Assets/AltoSaxHorn.obj"))
+            body = AssetPack.loadModel(context.assetManager, "Assets/AltoSaxBody.fbx")
+            bell.attachChild(AssetPack.loadModel(context.assetManager, "Assets/AltoSaxHorn.obj"))
             val bodyNode = body as Node
             bodyNode.getChild(0).setMaterial(shinyHornSkin)
             bodyNode.getChild(1).setMaterial(black)
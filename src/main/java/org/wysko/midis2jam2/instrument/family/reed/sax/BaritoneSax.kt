@@ -23,6 +23,7 @@ import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.algorithmic.PressedKeysFingeringManager
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
+import org.wysko.midis2jam2.util.AssetPack
 import org.wysko.midis2jam2.util.Utils.rad
 
 /** The baritone sax. */
@@ -34,8 +35,8 @@ class BaritoneSax(context: Midis2jam2, events: List<MidiChannelSpecificEvent>) :
             val black = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md")
             black.setColor("Color", ColorRGBA.Black)
             val shinyHornSkin2 = context.reflectiveMaterial("Assets/HornSkinGrey.bmp")
-            body = context.assetManager.loadModel("Assets/BaritoneSaxBody.fbx")
-            bell.attachChild(context.assetManager.loadModel("Assets/BaritoneSaxHorn.obj"))
+            body = AssetPack.loadModel(context.assetManager, "Assets/BaritoneSaxBody.fbx")
+            bell.attachChild(AssetPack.loadModel(context.assetManager, "Assets/BaritoneSaxHorn.obj"))
             val bodyNode = body as Node
             bodyNode.getChild(0).setMaterial(shinyHornSkin)
             bodyNode.getChild(1).setMaterial(shinyHornSkin2)
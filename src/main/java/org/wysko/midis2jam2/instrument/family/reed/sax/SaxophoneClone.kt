@@ -16,17 +16,17 @@
  */
 package org.wysko.midis2jam2.instrument.family.reed.sax
 
-import com.jme3.math.Quaternion
 import org.wysko.midis2jam2.instrument.clone.UpAndDownKeyClone
 import org.wysko.midis2jam2.util.MatType
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** Shared code for sax clones. */
 abstract class SaxophoneClone protected constructor(parent: Saxophone, stretchFactor: Float) :
     UpAndDownKeyClone(NUMBER_OF_KEYS, parent, ROTATION_FACTOR, stretchFactor) {
 
     override fun moveForPolyphony() {
-        offsetNode.localRotation = Quaternion().fromAngles(0f, rad((25f * indexForMoving()).toDouble()), 0f)
+        setLocalAngles(offsetNode, 0f, rad((25f * indexForMoving()).toDouble()), 0f)
     }
 
     companion object {
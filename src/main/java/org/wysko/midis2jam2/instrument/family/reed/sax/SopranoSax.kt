@@ -23,7 +23,9 @@ import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.algorithmic.PressedKeysFingeringManager
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
+import org.wysko.midis2jam2.util.AssetPack
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 
 /** The Soprano saxophone. */
 class SopranoSax(
@@ -33,15 +35,15 @@ class SopranoSax(
 
     inner class SopranoSaxClone : SaxophoneClone(this@SopranoSax, STRETCH_FACTOR) {
         override fun moveForPolyphony() {
-            offsetNode.localRotation = Quaternion().fromAngles(0f, rad((20f * indexForMoving()).toDouble()), 0f)
+            setLocalAngles(offsetNode, 0f, rad((20f * indexForMoving()).toDouble()), 0f)
         }
 
         init {
             val shinyHornSkin = context.reflectiveMaterial("Assets/HornSkinGrey.bmp")
             val black = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md")
             black.setColor("Color", ColorRGBA.Black)
-            body = context.assetManager.loadModel("Assets/SopranoSaxBody.fbx")
-            bell.attachChild(context.assetManager.loadModel("Assets/SopranoSaxHorn.obj"))
+            body = AssetPack.loadModel(context.assetManager, "Assets/SopranoSaxBody.fbx")
+            bell.attachChild(AssetPack.loadModel(context.assetManager, "Assets/SopranoSaxHorn.obj"))
             val bodyNode = body as Node
             bodyNode.getChild(0).setMaterial(shinyHornSkin)
             bodyNode.getChild(1).setMaterial(black)
@@ -23,6 +23,7 @@ import com.jme3.scene.Node
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.algorithmic.PressedKeysFingeringManager
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
+import org.wysko.midis2jam2.util.AssetPack
 import org.wysko.midis2jam2.util.Utils.rad
 
 /** The Tenor sax. */
@@ -36,8 +37,8 @@ class TenorSax(
             val shinyHornSkin = context.reflectiveMaterial("Assets/HornSkinGrey.bmp")
             val black = Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md")
             black.setColor("Color", ColorRGBA.Black)
-            body = context.assetManager.loadModel("Assets/TenorSaxBody.fbx")
-            bell.attachChild(context.assetManager.loadModel("Assets/TenorSaxHorn.obj"))
+            body = AssetPack.loadModel(context.assetManager, "Assets/TenorSaxBody.fbx")
+            bell.attachChild(AssetPack.loadModel(context.assetManager, "Assets/TenorSaxHorn.obj"))
             val bodyNode = body as Node
             bodyNode.getChild(0).setMaterial(shinyHornSkin)
             bodyNode.getChild(1).setMaterial(black)
@@ -16,7 +16,6 @@
  */
 package org.wysko.midis2jam2.instrument.family.soundeffects
 
-import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
 import com.jme3.scene.Spatial.CullHint.Always
@@ -27,6 +26,7 @@ import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.SustainedInstrument
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import org.wysko.midis2jam2.world.ShadowController.Companion.shadow
 import java.util.*
 import kotlin.math.cos
@@ -86,10 +86,11 @@ class Helicopter(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>)
         }
 
         /* Vroom */
-        rotor.rotate(Quaternion().fromAngles(0f, rad((3141 * delta).toDouble()), 0f))
+        rotor.rotate(0f, rad((3141 * delta).toDouble()), 0f)
 
         /* Slight wobble */
-        animNode.localRotation = Quaternion().fromAngles(
+        setLocalAngles(
+            animNode,
             force * 0.5f * rad(
                 (Noise.gradientCoherentNoise3D(
                     0.0,
@@ -118,7 +119,7 @@ class Helicopter(context: Midis2jam2, eventList: List<MidiChannelSpecificEvent>)
                 ) - 0.4) * 10
             )
         )
-        highestLevel.localRotation = Quaternion().fromAngles(rad(5.0), rad(120.0), rad(11.0))
+        setLocalAngles(highestLevel, rad(5.0), rad(120.0), rad(11.0))
         animNode.setLocalTranslation(
             0f,
             (force * (Noise.gradientCoherentNoise3D(
@@ -23,6 +23,7 @@ import com.jme3.scene.Node
 import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.SustainedInstrument
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.family.percussion.CymbalAnimator
 import org.wysko.midis2jam2.instrument.family.percussive.Stick
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
@@ -30,6 +31,7 @@ import org.wysko.midis2jam2.midi.MidiNoteOffEvent
 import org.wysko.midis2jam2.midi.MidiNoteOnEvent
 import org.wysko.midis2jam2.midi.NotePeriod
 import org.wysko.midis2jam2.util.MatType
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import kotlin.math.cos
 import kotlin.math.pow
 
@@ -62,10 +64,10 @@ class ReverseCymbal(context: Midis2jam2, eventList: List<MidiChannelSpecificEven
             it.setLocalScale(2f)
         }
 
-    /** A list of fake "pseudo" hits that correlate to the end times. */
-    private val pseudoHits: MutableList<MidiNoteOnEvent> = notePeriods.map {
+    /** A timeline of fake "pseudo" hits that correlate to the end times. */
+    private val pseudoHits: Timeline<MidiNoteOnEvent> = timelineOf(notePeriods.map {
         MidiNoteOnEvent(it.endTick(), it.noteOn.channel, it.midiNote, 127)
-    }.toMutableList()
+    })
 
     /** Holds the stick and is rotated to the correct position. */
     private val stickNode: Node = Node().also { instrumentNode.attachChild(it) }
@@ -83,19 +85,19 @@ class ReverseCymbal(context: Midis2jam2, eventList: List<MidiChannelSpecificEven
         val handleStick = Stick.handleStick(context, stick, time, delta, pseudoHits)
 
         /* Find the time of the next note end. If there is none, assume it will happen infinitely in the future. */
-        val nextHitTime = pseudoHits.firstOrNull()?.let {
+        val nextHitTime = pseudoHits.peek()?.let {
             context.file.eventInSeconds(it.time)
         } ?: Double.MAX_VALUE
 
         /* Move the stick around the cymbal according to the note */
         if (handleStick.strikingFor != null && !handleStick.justStruck()) {
-            pseudoHits.firstOrNull()?.let {
+            pseudoHits.peek()?.let {
                 stickNode.localRotation = Quaternion().fromAngles(0f, ((it.note % 12) * 30).toFloat(), 0f)
             }
         }
 
         /* Animate the cymbal */
-        cymbal.localRotation = Quaternion().fromAngles(ReverseCymbalAnimator.rotationAmount(nextHitTime - time), 0f, 0f)
+        setLocalAngles(cymbal, ReverseCymbalAnimator.rotationAmount(nextHitTime - time), 0f, 0f)
     }
 
     override fun moveForMultiChannel(delta: Float) {
@@ -16,7 +16,6 @@
  */
 package org.wysko.midis2jam2.instrument.family.soundeffects
 
-import com.jme3.material.Material
 import com.jme3.math.Quaternion
 import com.jme3.scene.Node
 import com.jme3.scene.Spatial
@@ -26,6 +25,7 @@ import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.SustainedInstrument
 import org.wysko.midis2jam2.midi.MidiChannelSpecificEvent
 import org.wysko.midis2jam2.util.Utils.rad
+import org.wysko.midis2jam2.util.Utils.setLocalAngles
 import java.util.*
 
 /** *You used to call me on my cellphone...* */
@@ -75,7 +75,8 @@ class TelephoneRing(context: Midis2jam2, eventList: List<MidiChannelSpecificEven
         /* Animate phone handle */
         val isPlaying = playing.any { it }
         handle.setLocalTranslation(0f, (2 + random.nextGaussian() * 0.3).toFloat() * force, 0f)
-        handle.localRotation = Quaternion().fromAngles(
+        setLocalAngles(
+            handle,
             rad(random.nextGaussian() * 3) * force,
             rad(random.nextGaussian() * 3) * force, 0f
         )
@@ -97,9 +98,7 @@ class TelephoneRing(context: Midis2jam2, eventList: List<MidiChannelSpecificEven
 
         /* Set rubber texture */
         (base as Node).getChild(0)
-            .setMaterial(Material(context.assetManager, "Common/MatDefs/Misc/Unshaded.j3md").apply {
-                setTexture("ColorMap", context.assetManager.loadTexture("Assets/RubberFoot.bmp"))
-            })
+            .setMaterial(context.unshadedMaterial("Assets/RubberFoot.bmp"))
 
         handle = context.loadModel("TelePhoneHandle.obj", "TelephoneHandle.bmp")
 
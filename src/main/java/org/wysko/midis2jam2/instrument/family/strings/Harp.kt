@@ -23,6 +23,7 @@ import com.jme3.scene.Spatial
 import org.wysko.midis2jam2.Midis2jam2
 import org.wysko.midis2jam2.instrument.SustainedInstrument
 import org.wysko.midis2jam2.instrument.algorithmic.NoteQueue
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
 import org.wysko.midis2jam2.instrument.algorithmic.VibratingStringAnimator
 import org.wysko.midis2jam2.instrument.family.piano.KeyedInstrument
 import org.wysko.midis2jam2.instrument.family.piano.KeyedInstrument.KeyColor
@@ -37,7 +38,7 @@ class Harp(context: Midis2jam2, eventList: MutableList<MidiChannelSpecificEvent>
 
     val strings: Array<HarpString>
 
-    val notes: MutableList<MidiNoteEvent> = eventList.filterIsInstance<MidiNoteEvent>() as MutableList<MidiNoteEvent>
+    val notes: Timeline<MidiNoteEvent> = timelineOf(eventList.filterIsInstance<MidiNoteEvent>())
 
     companion object {
         /**
@@ -62,22 +63,9 @@ class Harp(context: Midis2jam2, eventList: MutableList<MidiChannelSpecificEvent>
 
     override fun tick(time: Double, delta: Float) {
         super.tick(time, delta)
-        val eventsToPerform = NoteQueue.collectWithOffGap(notes, context, time)
+        val eventsToPerform = NoteQueue.collectWithOffGap(notes, time)
         for (event in eventsToPerform) {
-            var midiNote = event.note
-
-            /* If the note falls on a black key (if it were played on a piano) we need to "round it down" to the
-             * nearest white key. */
-            if (KeyedInstrument.midiValueToColor(midiNote) == KeyColor.BLACK) {
-                midiNote--
-            }
-            var harpString = -1
-
-            /* Only consider notes within the range of the instrument */
-            if (midiNote in 24..103) {
-                harpString = getHarpString(midiNote % 12)
-                harpString += (midiNote - 24) / 12 * 7
-            }
+            val harpString = harpStringForNote(event.note)
             if (event is MidiNoteOnEvent) {
                 if (harpString != -1) {
                     strings[harpString].beginPlaying()
@@ -91,6 +79,36 @@ class Harp(context: Midis2jam2, eventList: MutableList<MidiChannelSpecificEvent>
         strings.forEach { it.tick(delta) }
     }
 
+    override fun seek(time: Double) {
+        super.seek(time)
+        strings.forEach { it.endPlaying() }
+        currentNotePeriods.forEach {
+            val harpString = harpStringForNote(it.midiNote)
+            if (harpString != -1) {
+                strings[harpString].beginPlaying()
+            }
+        }
+    }
+
+    /** Returns the index of the harp string that plays [note], or -1 if the note is out of range. */
+    private fun harpStringForNote(note: Int): Int {
+        var midiNote = note
+
+        /* If the note falls on a black key (if it were played on a piano) we need to "round it down" to the
+         * nearest white key. */
+        if (KeyedInstrument.midiValueToColor(midiNote) == KeyColor.BLACK) {
+            midiNote--
+        }
+        var harpString = -1
+
+        /* Only consider notes within the range of the instrument */
+        if (midiNote in 24..103) {
+            harpString = getHarpString(midiNote % 12)
+            harpString += (midiNote - 24) / 12 * 7
+        }
+        return harpString
+    }
+
     override fun moveForMultiChannel(delta: Float) {
         if (checkInstrumentIndex() < 0) {
             offsetNode.setLocalTranslation(0f, -60 * updateInstrumentIndex(delta), 0f)
@@ -18,30 +18,43 @@
 package org.wysko.midis2jam2.midi
 
 import org.wysko.midis2jam2.starter.SequencerHandler
-import java.util.*
+import javax.sound.midi.MidiDeviceReceiver
 import javax.sound.midi.Sequencer
+import javax.sound.midi.Synthesizer
 
 class JavaXSequencer(val sequencer: Sequencer) : SequencerHandler {
 
+    /** Applies tempo changes while the sequencer is playing, or null if playback has not started. */
+    private var tempoScheduler: TempoScheduler? = null
+
+    /** The latency of the devices the sequencer plays to, in seconds, or NaN if it has not been measured. */
+    private var deviceLatency = Double.NaN
+
     override fun isOpen() = sequencer.isOpen
 
+    override fun isRunning() = sequencer.isRunning
+
     override fun start(midiFile: MidiFile) {
-        sequencer.tempoInBPM = midiFile.firstTempoInBpm().toFloat()
+        /* The sequencer does not apply the first tempo of the file, or the tempo at a position seeked to */
+        val tick = sequencer.tickPosition
+        sequencer.tempoInBPM = if (tick == 0L) {
+            midiFile.firstTempoInBpm().toFloat()
+        } else {
+            60_000_000F / midiFile.tempoAt(tick).number
+        }
         sequencer.start()
-        Timer(true).scheduleAtFixedRate(object : TimerTask() {
-            override fun run() {
-                /* Find the first tempo we haven't hit and need to execute */
-                val currentMidiTick = sequencer.tickPosition
-                for (tempo in midiFile.tempos) {
-                    if (tempo.time == currentMidiTick) {
-                        sequencer.tempoInBPM = 60000000f / tempo.number
-                    }
-                }
-            }
-        }, 0, 1)
+
+        /* The sequencer may have been connected to another device since the latency was measured */
+        deviceLatency = measureLatency()
+
+        tempoScheduler?.cancel()
+        tempoScheduler = TempoScheduler(sequencer, midiFile).also { it.start() }
     }
 
     override fun stop() {
+        tempoScheduler?.cancel()
+        tempoScheduler = null
+
         if (sequencer.isRunning)
             sequencer.stop()
 
@@ -52,4 +65,27 @@ class JavaXSequencer(val sequencer: Sequencer) : SequencerHandler {
     override fun position() = sequencer.microsecondPosition
 
     override fun duration() = sequencer.microsecondLength
-}
\ No newline at end of file
+
+    override fun positionInSeconds() = sequencer.microsecondPosition / 1E6
+
+    override fun latency(): Double {
+        if (deviceLatency.isNaN()) deviceLatency = measureLatency()
+        return deviceLatency
+    }
+
+    /**
+     * Returns the largest latency of the devices the sequencer plays to. Only synthesizers report their latency, so
+     * the latency of external devices is taken to be 0.
+     */
+    private fun measureLatency(): Double = sequencer.transmitters
+        .map { (it.receiver as? MidiDeviceReceiver)?.midiDevice }
+        .filterIsInstance<Synthesizer>()
+        .maxOfOrNull { it.latency / 1E6 } ?: 0.0
+
+    override fun seek(midiFile: MidiFile, seconds: Double) {
+        val tick = midiFile.secondsInMidiTicks(seconds.coerceAtLeast(0.0)).toLong()
+        sequencer.tickPosition = tick
+        sequencer.tempoInBPM = 60000000f / midiFile.tempoAt(tick).number
+        tempoScheduler?.wake()
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.midi
+
+/**
+ * Smooths out the jitter of MIDI messages that arrive over a network, and puts them back in the order they were
+ * sent.
+ *
+ * Each message carries a sequence number and the time it was sent, on the sender's clock. The sender's clock is
+ * mapped to the local clock by the smallest difference between the time a message was sent and the time it arrived,
+ * which is the fastest the network has delivered a message. Every message is then held until [delay] after it would
+ * have arrived over that fastest path, so a message that was slowed down by up to [delay] is released with the same
+ * spacing it was sent with. Messages are released in sequence order. The smallest difference is taken over the last
+ * two windows of [OFFSET_WINDOW], so the mapping follows a sender whose clock drifts from the local one.
+ *
+ * A message that cannot belong to the current stream starts a new one, as when the sender restarts or its sequence
+ * number wraps: its sequence number is far behind the newest of the stream, or is behind although it was sent after
+ * the newest. The clock mapping is measured again, and the messages of the new stream are released after those still
+ * held from the old one. A message that is behind in both, however long ago it was sent, is a straggler or duplicate
+ * of the current stream, and is dropped as [late] if a later message has been released.
+ *
+ * A gap in the sequence numbers of the released messages is counted as [lost]. A message that arrives after a later
+ * message has been released, or that has already arrived, is counted as [late] and dropped. The buffer is
+ * preallocated, so neither inserting nor releasing allocates. It must only be used from one thread, but its counters
+ * may be read from any thread.
+ */
+class JitterBuffer @JvmOverloads constructor(
+    /** How long to hold each message past its fastest arrival, in nanoseconds. */
+    private val delay: Long,
+
+    /** The number of messages the buffer can hold. */
+    private val capacity: Int = DEFAULT_CAPACITY,
+) {
+    /* The held messages, sorted by sequence number */
+    private val sequences = LongArray(capacity)
+    private val messages = IntArray(capacity)
+    private val dueTimes = LongArray(capacity)
+
+    /** The smallest recent difference between the local arrival time and the sender's time, in nanoseconds. */
+    private var offset = Long.MAX_VALUE
+
+    /* The smallest differences in the current and previous windows, and the local time the current window began */
+    private var windowOffset = Long.MAX_VALUE
+    private var previousWindowOffset = Long.MAX_VALUE
+    private var windowStart = 0L
+
+    /** Added to the sequence numbers of the current stream, so that they follow those of earlier streams. */
+    private var sequenceBase = 0L
+
+    /** The newest sequence number of the current stream, as sent, or -1 if no message has been inserted. */
+    private var newestSequence = -1L
+
+    /** The newest send time of the current stream, on the sender's clock, in nanoseconds. */
+    private var newestSentTime = 0L
+
+    /** The sequence number of the next message to release, or -1 if no message has been released. */
+    private var nextSequence = -1L
+
+    /** The number of messages that are being held. */
+    @Volatile
+    var depth: Int = 0
+        private set
+
+    /** The number of messages that have been inserted, including late ones. */
+    @Volatile
+    var received: Long = 0
+        private set
+
+    /** The number of messages that never arrived, by the gaps in the sequence numbers of the released messages. */
+    @Volatile
+    var lost: Long = 0
+        private set
+
+    /** The number of messages that arrived too late to be released in order, or arrived twice. */
+    @Volatile
+    var late: Long = 0
+        private set
+
+    /** The number of messages that were dropped because the buffer was full. */
+    @Volatile
+    var overflowed: Long = 0
+        private set
+
+    /**
+     * Holds a message until it is due.
+     *
+     * @param sequence the sequence number of the message
+     * @param sentTime the time the message was sent, on the sender's clock, in nanoseconds
+     * @param message  the message, packed with [MidiEventRing.pack]
+     * @param now      the local time the message arrived, in nanoseconds
+     * @return true if the message is held, false if it was dropped
+     */
+    fun insert(sequence: Long, sentTime: Long, message: Int, now: Long): Boolean {
+        received++
+        if (newestSequence < 0 || isNewStream(sequence, sentTime)) startStream(now - sentTime, now)
+        newestSequence = maxOf(newestSequence, sequence)
+        newestSentTime = maxOf(newestSentTime, sentTime)
+        measure(now - sentTime, now)
+
+        val key = sequence + sequenceBase
+        if (key < nextSequence) {
+            late++
+            return false
+        }
+        if (depth == capacity) {
+            overflowed++
+            return false
+        }
+
+        /* Insertion sort from the end, where messages that arrive in order belong */
+        var index = depth
+        while (index > 0 && sequences[index - 1] > key) index--
+        if (index > 0 && sequences[index - 1] == key) {
+            late++
+            return false
+        }
+        System.arraycopy(sequences, index, sequences, index + 1, depth - index)
+        System.arraycopy(messages, index, messages, index + 1, depth - index)
+        System.arraycopy(dueTimes, index, dueTimes, index + 1, depth - index)
+
+        sequences[index] = key
+        messages[index] = message
+        dueTimes[index] = sentTime + delay
+        depth++
+        return true
+    }
+
+    /** Returns true if a message cannot belong to the current stream. */
+    private fun isNewStream(sequence: Long, sentTime: Long): Boolean {
+        val behind = newestSequence - sequence
+        return behind > RESTART_SEQUENCES || behind > 0 && sentTime > newestSentTime
+    }
+
+    /** Begins a new stream whose first message arrived [offset] after it was sent, at the local time [now]. */
+    private fun startStream(offset: Long, now: Long) {
+        /* The held messages stay due at the same local time */
+        for (i in 0 until depth) dueTimes[i] += this.offset - offset
+        sequenceBase += newestSequence + 1
+        newestSequence = -1
+        newestSentTime = Long.MIN_VALUE
+        previousWindowOffset = Long.MAX_VALUE
+        windowOffset = offset
+        windowStart = now
+        this.offset = offset
+    }
+
+    /** Updates the clock mapping with a message that arrived [offset] after it was sent, at the local time [now]. */
+    private fun measure(offset: Long, now: Long) {
+        if (now - windowStart >= OFFSET_WINDOW) {
+            previousWindowOffset = windowOffset
+            windowOffset = offset
+            windowStart = now
+        } else {
+            windowOffset = minOf(windowOffset, offset)
+        }
+        this.offset = minOf(windowOffset, previousWindowOffset)
+    }
+
+    /**
+     * Releases, in sequence order, the messages that are due by [now].
+     *
+     * @param now  the local time, in nanoseconds
+     * @param sink receives each message, with [now] as its timestamp
+     * @return the number of messages released
+     */
+    fun release(now: Long, sink: MidiEventRing.Sink): Int {
+        var released = 0
+        while (released < depth && dueTimes[released] + offset <= now) {
+            val sequence = sequences[released]
+            if (nextSequence >= 0 && sequence > nextSequence) lost += sequence - nextSequence
+            nextSequence = sequence + 1
+            sink.accept(messages[released], now)
+            released++
+        }
+        if (released > 0) {
+            val remaining = depth - released
+            System.arraycopy(sequences, released, sequences, 0, remaining)
+            System.arraycopy(messages, released, messages, 0, remaining)
+            System.arraycopy(dueTimes, released, dueTimes, 0, remaining)
+            depth = remaining
+        }
+        return released
+    }
+
+    /** Returns the local time at which the next message is due, in nanoseconds, or [Long.MAX_VALUE] if none is held. */
+    fun nextDueTime(): Long = if (depth == 0) Long.MAX_VALUE else dueTimes[0] + offset
+
+    companion object {
+        /** Enough for a dense performance held for a typical delay. */
+        const val DEFAULT_CAPACITY: Int = 512
+
+        /** How long each window of the clock mapping lasts, in nanoseconds. */
+        const val OFFSET_WINDOW: Long = 2_000_000_000
+
+        /** How far behind the newest sequence number of the stream a message must be to start a new stream. */
+        private const val RESTART_SEQUENCES = 1024L
+    }
+}
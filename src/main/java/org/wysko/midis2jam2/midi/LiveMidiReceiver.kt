@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.midi
+
+import org.wysko.midis2jam2.Midis2jam2
+import java.util.function.Consumer
+import javax.sound.midi.MidiDevice
+import javax.sound.midi.MidiMessage
+import javax.sound.midi.MidiSystem
+import javax.sound.midi.MidiUnavailableException
+import javax.sound.midi.Receiver
+import javax.sound.midi.Sequencer
+import javax.sound.midi.ShortMessage
+import javax.sound.midi.Synthesizer
+
+/**
+ * Receives a live MIDI stream, like a keyboard player's, and hands it to the render thread.
+ *
+ * MIDI devices call [send] on their own thread, which packs each channel message into a [MidiEventRing] without
+ * locking or allocating. The render thread [drains][drain] the ring once per frame and turns each message into a
+ * [MidiEvent], so an event is shown on the first frame after it arrives. Events keep their spacing within the frame,
+ * by how long before the frame they were received, but are never timed before the previous frame. Messages can also
+ * be sent straight to this receiver, which acts as a virtual loopback device for testing, or already packed with
+ * [sendPacked], which is how an [OscMidiListener] hands over messages from the network.
+ *
+ * Only one thread may call [send] or [sendPacked] at a time, since the ring has a single producer.
+ */
+class LiveMidiReceiver @JvmOverloads constructor(
+    /** The number of messages that can wait for the render thread before new ones are dropped. */
+    capacity: Int = MidiEventRing.DEFAULT_CAPACITY,
+) : Receiver {
+
+    /** Messages that have been received but not yet drained. */
+    private val ring = MidiEventRing(capacity)
+
+    /** The device this receiver is connected to, if any. */
+    private var device: MidiDevice? = null
+
+    @Volatile
+    private var closed = false
+
+    /** The number of messages that were dropped because the render thread fell behind. */
+    val dropped: Long
+        get() = ring.dropped
+
+    /** The most messages that have waited for the render thread at once. */
+    val highWaterMark: Int
+        get() = ring.highWaterMark
+
+    /** The file that times the events of the current drain. Kept so that the [sink] is not allocated on each frame. */
+    private var drainFile: MidiFile? = null
+
+    /** The time of the current drain, in seconds. */
+    private var drainTime = 0.0
+
+    /** The [System.nanoTime] of the current drain. */
+    private var drainNanos = 0L
+
+    /** Receives the events of the current drain. */
+    private var drainAction: Consumer<MidiChannelSpecificEvent>? = null
+
+    /** The time of the previous drain, which no event is timed before. */
+    private var previousDrainTime = Double.NEGATIVE_INFINITY
+
+    /** The number of drops that have been logged. */
+    private var loggedDrops = 0L
+
+    private val sink = MidiEventRing.Sink { message, timestamp -> emit(message, timestamp) }
+
+    /**
+     * Packs channel messages into the ring. Other messages, like system exclusive and timing messages, are ignored.
+     * If the render thread has fallen so far behind that the ring is full, the message is dropped.
+     */
+    override fun send(message: MidiMessage, timeStamp: Long) {
+        if (closed || message !is ShortMessage || !isChannelCommand(message.command)) return
+        ring.offer(MidiEventRing.pack(message.status, message.data1, message.data2), System.nanoTime())
+    }
+
+    /**
+     * Packs a channel message, already [packed][MidiEventRing.pack], into the ring, like [send]. Messages that are not
+     * channel messages are ignored.
+     */
+    fun sendPacked(message: Int) {
+        if (closed || !isChannelCommand(MidiEventRing.status(message) and 0xF0)) return
+        ring.offer(message, System.nanoTime())
+    }
+
+    /**
+     * Converts every message that has been received since the last drain into an event, and passes them to [action]
+     * in the order they were received. Messages that midis2jam2 does not use are dropped. Call on the render thread.
+     *
+     * @param file   the file that times the events, see [MidiFile.live]
+     * @param time   the current time, in seconds
+     * @param action receives each event
+     * @return the number of messages that were drained
+     */
+    fun drain(file: MidiFile, time: Double, action: Consumer<MidiChannelSpecificEvent>): Int {
+        drainFile = file
+        drainTime = time
+        drainNanos = System.nanoTime()
+        drainAction = action
+        val count = ring.drain(sink)
+        drainAction = null
+        previousDrainTime = time
+
+        if (ring.dropped != loggedDrops) {
+            loggedDrops = ring.dropped
+            Midis2jam2.getLOGGER().warning { "The render thread fell behind the MIDI input; $loggedDrops dropped." }
+        }
+        return count
+    }
+
+    /** Converts a drained message into an event, timed by how long before the drain it was received. */
+    private fun emit(message: Int, timestamp: Long) {
+        val file = drainFile ?: return
+        val time = (drainTime - (drainNanos - timestamp) / 1E9).coerceAtMost(drainTime).coerceAtLeast(previousDrainTime)
+        toEvent(message, file.secondsInMidiTicks(time).toLong())?.let {
+            it.timeInSeconds = time
+            drainAction?.accept(it)
+        }
+    }
+
+    /** Stops receiving messages and closes the device this receiver is connected to, if any. */
+    override fun close() {
+        closed = true
+        device?.close()
+        ring.clear()
+    }
+
+    companion object {
+        /** True if messages with this command can become events, false otherwise. */
+        private fun isChannelCommand(command: Int): Boolean = when (command) {
+            ShortMessage.NOTE_OFF,
+            ShortMessage.NOTE_ON,
+            ShortMessage.CONTROL_CHANGE,
+            ShortMessage.PROGRAM_CHANGE,
+            ShortMessage.PITCH_BEND -> true
+            else -> false
+        }
+
+        /**
+         * Converts a [packed][MidiEventRing.pack] channel message to the event midis2jam2 uses for it, or returns null
+         * if it does not use it.
+         */
+        private fun toEvent(message: Int, tick: Long): MidiChannelSpecificEvent? {
+            val status = MidiEventRing.status(message)
+            val channel = status and 0x0F
+            val data1 = MidiEventRing.data1(message)
+            val data2 = MidiEventRing.data2(message)
+            return when (status and 0xF0) {
+                ShortMessage.NOTE_ON -> if (data2 == 0) {
+                    MidiNoteOffEvent(tick, channel, data1)
+                } else {
+                    MidiNoteOnEvent(tick, channel, data1, data2)
+                }
+                ShortMessage.NOTE_OFF -> MidiNoteOffEvent(tick, channel, data1)
+                ShortMessage.CONTROL_CHANGE -> MidiControlEvent(tick, channel, data1, data2)
+                ShortMessage.PROGRAM_CHANGE -> MidiProgramEvent(tick, channel, data1)
+                ShortMessage.PITCH_BEND -> MidiPitchBendEvent(tick, channel, data1 + data2 * 128)
+                else -> null
+            }
+        }
+
+        /** Returns the devices that can send MIDI to a receiver. Sequencers and synthesizers are excluded. */
+        @JvmStatic
+        fun inputDevices(): List<MidiDevice.Info> = MidiSystem.getMidiDeviceInfo().filter {
+            val device = MidiSystem.getMidiDevice(it)
+            device !is Sequencer && device !is Synthesizer && device.maxTransmitters != 0
+        }
+
+        /**
+         * Opens the input device named [name] and connects a new receiver to it.
+         *
+         * @param name the name of the device, see [inputDevices]
+         * @return the receiver, which closes the device when it is closed
+         * @throws MidiUnavailableException if there is no such device, or it cannot be opened
+         */
+        @JvmStatic
+        @Throws(MidiUnavailableException::class)
+        fun open(name: String): LiveMidiReceiver {
+            val info = inputDevices().firstOrNull { it.name == name }
+                ?: throw MidiUnavailableException("There is no MIDI input device named $name.")
+            val device = MidiSystem.getMidiDevice(info)
+            device.open()
+            return LiveMidiReceiver().also {
+                it.device = device
+                device.transmitter.receiver = it
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.midi
+
+import java.io.ByteArrayInputStream
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import javax.sound.midi.InvalidMidiDataException
+import javax.sound.midi.MidiSystem
+import javax.sound.midi.Sequence
+
+/**
+ * A MIDI file that has been loaded for playback. The [sequence] is handed to the sequencer for playback and the
+ * [midiFile] is handed to midis2jam2 for visualization. Both are built from a single read of the file.
+ */
+data class LoadedMidi(
+    /** The sequence, for the sequencer. */
+    val sequence: Sequence,
+
+    /** The MIDI file, for midis2jam2. */
+    val midiFile: MidiFile,
+) {
+    companion object {
+        /**
+         * Reads [file] from disk once and parses it into both a [Sequence] and a [MidiFile]. The two are parsed
+         * concurrently. This blocks, so it should not be called on the Swing event dispatch thread.
+         *
+         * @throws IOException              an i/o error occurred
+         * @throws InvalidMidiDataException if the MIDI file is bad
+         */
+        @JvmStatic
+        @Throws(IOException::class, InvalidMidiDataException::class)
+        fun load(file: File): LoadedMidi {
+            val bytes = file.readBytes()
+            val midiFile = CompletableFuture.supplyAsync {
+                MidiFile.readMidiFile(ByteBuffer.wrap(bytes))
+            }
+            val sequence = MidiSystem.getSequence(ByteArrayInputStream(bytes))
+            return try {
+                LoadedMidi(sequence, midiFile.join())
+            } catch (e: CompletionException) {
+                throw e.cause ?: e
+            }
+        }
+    }
+}
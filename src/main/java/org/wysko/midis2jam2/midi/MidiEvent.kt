@@ -24,6 +24,13 @@ protected constructor(
     open val time: Long,
 ) {
 
+    /**
+     * The time at which this MIDI event occurs, expressed in seconds. This is assigned by [MidiFile] once the tempo
+     * map is known, and is [Double.NaN] for events that were not read from a file. It is not considered for
+     * equality.
+     */
+    var timeInSeconds: Double = Double.NaN
+
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
         if (javaClass != other?.javaClass) return false
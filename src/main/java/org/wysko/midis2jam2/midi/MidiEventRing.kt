@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.midi
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A bounded ring buffer that hands MIDI messages from one producer thread, like the thread that calls
+ * [Receiver.send][javax.sound.midi.Receiver.send], to one consumer thread, the render thread.
+ *
+ * Messages are stored as primitives: the status and data bytes packed into an int the way [FastShortMessage] packs
+ * them, and a timestamp in a parallel long array. Neither side takes a lock or allocates. Each side only writes its
+ * own position and publishes it with an ordered store. Each side also caches the other side's position, and only
+ * reads it again when the cached value says the ring is full or empty.
+ *
+ * When the ring is full, the producer drops the new message rather than waiting for the render thread. [dropped]
+ * counts these drops and [highWaterMark] records the most messages the ring has held. Together they show whether the
+ * [capacity] keeps up with the stream.
+ */
+class MidiEventRing(
+    /** The number of messages the ring can hold. Rounded up to a power of two. */
+    capacity: Int = DEFAULT_CAPACITY,
+) {
+    /** The number of messages the ring can hold. */
+    val capacity: Int = Integer.highestOneBit((capacity - 1).coerceAtLeast(1)) shl 1
+
+    private val mask = this.capacity - 1
+
+    /** The status, data 1 and data 2 bytes of each message, packed like [FastShortMessage]. */
+    private val messages = IntArray(this.capacity)
+
+    /** The timestamp of each message, in nanoseconds. */
+    private val timestamps = LongArray(this.capacity)
+
+    /** The number of messages that have been written. Only the producer writes this. */
+    private val writePosition = AtomicLong()
+
+    /** The number of messages that have been read. Only the consumer writes this. */
+    private val readPosition = AtomicLong()
+
+    /** The producer's copy of [readPosition]. */
+    private var cachedReadPosition = 0L
+
+    /** The consumer's copy of [writePosition]. */
+    private var cachedWritePosition = 0L
+
+    /** The number of messages that were dropped because the ring was full. */
+    @Volatile
+    var dropped: Long = 0
+        private set
+
+    /** The most messages the ring has held at once, as seen by the producer. */
+    @Volatile
+    var highWaterMark: Int = 0
+        private set
+
+    /** The number of messages that have been accepted by [offer]. */
+    val offered: Long
+        get() = writePosition.get()
+
+    /** The number of messages that are waiting to be drained. */
+    val size: Int
+        get() = (writePosition.get() - readPosition.get()).toInt()
+
+    /**
+     * Adds a message to the ring. Call on the producer thread only.
+     *
+     * @param message   the status, data 1 and data 2 bytes, packed with [pack]
+     * @param timestamp the time the message was received, in nanoseconds
+     * @return true if the message was added, false if the ring was full and the message was dropped
+     */
+    fun offer(message: Int, timestamp: Long): Boolean {
+        val position = writePosition.get()
+        if (position - cachedReadPosition >= capacity) {
+            cachedReadPosition = readPosition.get()
+            if (position - cachedReadPosition >= capacity) {
+                dropped++
+                return false
+            }
+        }
+        val index = (position and mask.toLong()).toInt()
+        messages[index] = message
+        timestamps[index] = timestamp
+        writePosition.lazySet(position + 1)
+
+        val depth = (position + 1 - cachedReadPosition).toInt()
+        if (depth > highWaterMark) highWaterMark = depth
+        return true
+    }
+
+    /**
+     * Passes every message that has been added since the last drain to [sink], oldest first, and frees their space in
+     * the ring. Call on the consumer thread only, usually once per frame.
+     *
+     * @param sink receives each message
+     * @return the number of messages drained
+     */
+    fun drain(sink: Sink): Int {
+        val start = readPosition.get()
+        if (start == cachedWritePosition) {
+            cachedWritePosition = writePosition.get()
+            if (start == cachedWritePosition) return 0
+        }
+        val end = cachedWritePosition
+        var position = start
+        while (position < end) {
+            val index = (position and mask.toLong()).toInt()
+            sink.accept(messages[index], timestamps[index])
+            position++
+        }
+        readPosition.lazySet(end)
+        return (end - start).toInt()
+    }
+
+    /** Discards every message in the ring. Call on the consumer thread only. */
+    fun clear() {
+        cachedWritePosition = writePosition.get()
+        readPosition.lazySet(cachedWritePosition)
+    }
+
+    /** Receives the messages of a [drain]. */
+    fun interface Sink {
+        /**
+         * Receives a message.
+         *
+         * @param message   the status, data 1 and data 2 bytes, packed like [FastShortMessage]
+         * @param timestamp the time the message was received, in nanoseconds
+         */
+        fun accept(message: Int, timestamp: Long)
+    }
+
+    companion object {
+        /** Enough for several seconds of a dense live performance, drained at any frame rate. */
+        const val DEFAULT_CAPACITY: Int = 4096
+
+        /** Packs a status byte and two data bytes into an int, the way [FastShortMessage] does. */
+        @JvmStatic
+        fun pack(status: Int, data1: Int, data2: Int): Int =
+            (status and 0xFF) or ((data1 and 0xFF) shl 8) or ((data2 and 0xFF) shl 16)
+
+        /** Returns the status byte of a [packed][pack] message. */
+        @JvmStatic
+        fun status(message: Int): Int = message and 0xFF
+
+        /** Returns the first data byte of a [packed][pack] message. */
+        @JvmStatic
+        fun data1(message: Int): Int = (message ushr 8) and 0xFF
+
+        /** Returns the second data byte of a [packed][pack] message. */
+        @JvmStatic
+        fun data2(message: Int): Int = (message ushr 16) and 0xFF
+    }
+}
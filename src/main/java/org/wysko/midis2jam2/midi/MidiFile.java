@@ -17,12 +17,13 @@
 
 package org.wysko.midis2jam2.midi;
 
-import org.jetbrains.annotations.NotNull;
 import org.wysko.midis2jam2.Midis2jam2;
 
-import javax.sound.midi.*;
+import javax.sound.midi.InvalidMidiDataException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,6 +32,9 @@ public final class MidiFile {
 	
 	public static final MidiFile EMPTY;
 	
+	/** The division of a {@link #live()} file. */
+	private static final short LIVE_DIVISION = 480;
+	
 	static {
 		EMPTY = new MidiFile();
 		EMPTY.setTracks(new MidiTrack[0]);
@@ -45,125 +49,52 @@ public final class MidiFile {
 	/** A list of tempos that occur in this MIDI file. */
 	private List<MidiTempoEvent> tempos = new ArrayList<>();
 	
-	private HashMap<MidiEvent, Double> eventToTime = new HashMap<>();
+	/** The tempo map, used for converting between MIDI ticks and seconds. */
+	private TempoMap tempoMap;
 	
 	public MidiFile() {
 		// Populated in implementation
 	}
 	
 	/**
-	 * Reads a MIDI file and parses pertinent information.
+	 * Creates a file without any tracks that plays at 120 BPM. This times the events of a live MIDI stream, which are
+	 * not read from a file.
 	 *
-	 * @param midiFile the system file of the MIDI file
-	 * @return the MIDI file
-	 * @throws IOException              an i/o error occurred
-	 * @throws InvalidMidiDataException if the MIDI file is bad
+	 * @return the file
 	 */
-	@SuppressWarnings({"StatementWithEmptyBody", "java:S1160"})
-	public static MidiFile readMidiFile(File midiFile) throws IOException, InvalidMidiDataException {
-		/* Init vars */
-		Sequence sequence = new StandardMidiFileReader().getSequence(midiFile);
+	public static MidiFile live() {
 		MidiFile file = new MidiFile();
-		
-		/* Division and track count */
-		file.setDivision((short) sequence.getResolution());
-		file.setTracks(new MidiTrack[sequence.getTracks().length + 1]);
-		
-		/* For each track */
-		for (int j = 1; j <= sequence.getTracks().length; j++) {
-			file.getTracks()[j] = new MidiTrack();
-			Track track = sequence.getTracks()[j - 1];
-			
-			for (int i = 0; i < track.size(); i++) {
-				javax.sound.midi.MidiEvent midiEvent = track.get(i);
-				if (midiEvent.getMessage() instanceof MetaMessage) {
-					MetaMessage message = (MetaMessage) midiEvent.getMessage();
-					if (message.getType() == 0x51) { // Tempo
-						byte[] data = message.getData();
-						int tempo = (((data[0] & 0xff) << 16) | ((data[1] & 0xff) << 8)) | (data[2] & 0xff);
-						file.getTracks()[j].getEvents().add(new MidiTempoEvent(midiEvent.getTick(), tempo));
-					}
-				} else if (midiEvent.getMessage() instanceof ShortMessage) {
-					ShortMessage message = (ShortMessage) midiEvent.getMessage();
-					int command = message.getCommand();
-					if (command == ShortMessage.NOTE_ON) {
-						if (message.getData2() == 0) {
-							file.getTracks()[j].getEvents()
-									.add(midiNoteOffFromData(midiEvent.getTick(), message.getData1(), message.getChannel()));
-						} else {
-							file.getTracks()[j].getEvents()
-									.add(midiNoteOnFromData(midiEvent.getTick(), message.getData1(), message.getData2(), message.getChannel()));
-						}
-					} else if (command == ShortMessage.NOTE_OFF) {
-						file.getTracks()[j].getEvents()
-								.add(midiNoteOffFromData(midiEvent.getTick(), message.getData1(), message.getChannel()));
-					} else if (command == ShortMessage.PROGRAM_CHANGE) {
-						file.getTracks()[j].getEvents()
-								.add(programEventFromData(midiEvent.getTick(), message.getData1(), message.getChannel()));
-					} else if (command == ShortMessage.PITCH_BEND) {
-						int val = message.getData1() + message.getData2() * 128;
-						file.getTracks()[j].getEvents()
-								.add(new MidiPitchBendEvent(midiEvent.getTick(), message.getChannel(), val));
-					} else if (command == ShortMessage.CONTROL_CHANGE) {
-						file.getTracks()[j].getEvents()
-								.add(new MidiControlEvent(midiEvent.getTick(), message.getChannel(), message.getData1(), message.getData2()));
-					} else {
-						// Ignore message
-					}
-				} else {
-					// Ignore message
-				}
-			}
-		}
+		file.setDivision(LIVE_DIVISION);
+		file.setTracks(new MidiTrack[]{null});
 		file.calculateTempoMap();
-		for (MidiTrack track : file.getTracks()) {
-			if (track != null) {
-				for (MidiEvent event : track.getEvents()) {
-					file.eventToTime.put(event, file.eventInSeconds(event.getTime()));
-				}
-			}
-		}
 		return file;
 	}
 	
 	/**
-	 * Given data, returns a {@link MidiNoteOnEvent}.
-	 *
-	 * @param tick     the MIDI tick
-	 * @param note     the note
-	 * @param velocity the velocity
-	 * @param channel  the channel
-	 * @return a new {@link MidiNoteOnEvent}
-	 */
-	@NotNull
-	private static MidiNoteOnEvent midiNoteOnFromData(long tick, int note, int velocity, int channel) {
-		return new MidiNoteOnEvent(tick, channel, note, velocity);
-	}
-	
-	/**
-	 * Given data, returns a {@link MidiNoteOffEvent}.
+	 * Reads a MIDI file and parses pertinent information.
 	 *
-	 * @param tick    the MIDI tick
-	 * @param note    the note
-	 * @param channel the channel
-	 * @return a new {@link MidiNoteOffEvent}
+	 * @param midiFile the system file of the MIDI file
+	 * @return the MIDI file
+	 * @throws IOException              an i/o error occurred
+	 * @throws InvalidMidiDataException if the MIDI file is bad
 	 */
-	@NotNull
-	private static MidiNoteOffEvent midiNoteOffFromData(long tick, int note, int channel) {
-		return new MidiNoteOffEvent(tick, channel, note);
+	public static MidiFile readMidiFile(File midiFile) throws IOException, InvalidMidiDataException {
+		return readMidiFile(ByteBuffer.wrap(Files.readAllBytes(midiFile.toPath())));
 	}
 	
 	/**
-	 * Given data, returns a {@link MidiProgramEvent}.
+	 * Parses pertinent information from the contents of a MIDI file.
 	 *
-	 * @param tick    the MIDI tick
-	 * @param preset  the preset
-	 * @param channel the channel
-	 * @return a new {@link MidiProgramEvent}
+	 * @param bytes the contents of the MIDI file, positioned at the start of the file
+	 * @return the MIDI file
+	 * @throws IOException              the MIDI file ended unexpectedly
+	 * @throws InvalidMidiDataException if the MIDI file is bad
 	 */
-	@NotNull
-	private static MidiProgramEvent programEventFromData(long tick, int preset, int channel) {
-		return new MidiProgramEvent(tick, channel, preset);
+	public static MidiFile readMidiFile(ByteBuffer bytes) throws IOException, InvalidMidiDataException {
+		MidiFile file = new MidiFileParser(bytes).parse();
+		file.calculateTempoMap();
+		file.assignEventTimes();
+		return file;
 	}
 	
 	/** @return the first tempo event in the file, expressed in beats per minute */
@@ -197,9 +128,6 @@ public final class MidiFile {
 					.map(MidiTempoEvent.class::cast)
 					.collect(Collectors.toList()));
 		}
-		if (tempoEvents.isEmpty()) {
-			tempoEvents.add(new MidiTempoEvent(0, 500_000));
-		}
 		tempoEvents.sort(Comparator.comparingLong(MidiTempoEvent::getTime));
 		
 		/* Remove overlapping tempos (fuck you if you have two different tempos at the same time) */
@@ -208,7 +136,27 @@ public final class MidiFile {
 				tempoEvents.remove(i);
 			}
 		}
+		
+		/* The file plays at 120 BPM until the first tempo event */
+		if (tempoEvents.isEmpty() || tempoEvents.get(0).getTime() > 0) {
+			tempoEvents.add(0, new MidiTempoEvent(0, 500_000));
+		}
 		this.tempos = tempoEvents;
+		this.tempoMap = new TempoMap(tempoEvents, getDivision());
+	}
+	
+	/**
+	 * Assigns {@link MidiEvent#getTimeInSeconds() the time in seconds} of every event in this file. The tempo map must
+	 * have already been {@link #calculateTempoMap() calculated}.
+	 */
+	public void assignEventTimes() {
+		for (MidiTrack track : getTracks()) {
+			if (track != null) {
+				for (MidiEvent event : track.getEvents()) {
+					event.setTimeInSeconds(midiTickInSeconds(event.getTime()));
+				}
+			}
+		}
 	}
 	
 	/**
@@ -219,30 +167,18 @@ public final class MidiFile {
 	 * @return the tick as expressed in seconds
 	 */
 	public double midiTickInSeconds(long midiTick) {
-		List<MidiTempoEvent> temposToConsider = new ArrayList<>();
-		if (midiTick >= 0) {
-			for (MidiTempoEvent tempo : getTempos()) {
-				if (tempo.getTime() <= midiTick) {
-					temposToConsider.add(tempo);
-				}
-			}
-		} else {
-			temposToConsider.add(getTempos().get(0));
-		}
-		if (temposToConsider.isEmpty()) {
-			temposToConsider.add(new MidiTempoEvent(0, 500_000));
-		}
-		if (temposToConsider.size() == 1) {
-			return ((double) midiTick / getDivision()) * (60 / (6E7 / temposToConsider.get(0).getNumber()));
-		}
-		double seconds = 0;
-		for (int i = 0; i < temposToConsider.size() - 1; i++) {
-			seconds += ((double) (temposToConsider.get(i + 1).getTime() - temposToConsider.get(i).getTime()) / getDivision())
-					* (60 / (6E7 / temposToConsider.get(i).getNumber()));
-		}
-		MidiTempoEvent lastTempo = temposToConsider.get(temposToConsider.size() - 1);
-		seconds += ((double) (midiTick - lastTempo.getTime()) / getDivision()) * (60 / (6E7 / lastTempo.getNumber()));
-		return seconds;
+		return tempoMap.ticksToSeconds(midiTick);
+	}
+	
+	/**
+	 * Given a time in seconds, returns the time as expressed in MIDI ticks, calculated by the tempo map of this MIDI
+	 * file. This is the inverse of {@link #midiTickInSeconds(long)}.
+	 *
+	 * @param seconds the time to convert to MIDI ticks
+	 * @return the time as expressed in MIDI ticks
+	 */
+	public double secondsInMidiTicks(double seconds) {
+		return tempoMap.secondsToTicks(seconds);
 	}
 	
 	/**
@@ -252,11 +188,11 @@ public final class MidiFile {
 	 * @return the event's time, expressed in seconds
 	 */
 	public double eventInSeconds(MidiEvent event) {
-		final Double time = eventToTime.get(event);
-		if (time != null) {
-			return time;
-		} else {
+		final double time = event.getTimeInSeconds();
+		if (Double.isNaN(time)) {
 			return eventInSeconds(event.getTime());
+		} else {
+			return time;
 		}
 	}
 	
@@ -281,32 +217,50 @@ public final class MidiFile {
 		return tempoBefore(event.getTime());
 	}
 	
+	/**
+	 * Determines the tempo that is effective just before a MIDI tick.
+	 *
+	 * @param tick the MIDI tick
+	 * @return the effective tempo before the tick
+	 */
 	public MidiTempoEvent tempoBefore(long tick) {
-		MidiTempoEvent lastTempo = getTempos().get(0);
-		if (getTempos().size() > 1) {
-			for (MidiTempoEvent tempo : getTempos()) {
-				if (tempo.getTime() < tick) {
-					lastTempo = tempo;
-				} else {
-					return lastTempo;
-				}
-			}
-		}
-		return lastTempo;
+		return tempoMap.tempoBefore(tick);
 	}
 	
+	/**
+	 * Determines the tempo that is effective at a MIDI tick, including a tempo that begins on that tick.
+	 *
+	 * @param tick the MIDI tick
+	 * @return the effective tempo at the tick
+	 */
 	public MidiTempoEvent tempoAt(long tick) {
-		MidiTempoEvent lastTempo = getTempos().get(0);
-		if (getTempos().size() > 1) {
-			for (MidiTempoEvent tempo : getTempos()) {
-				if (tempo.getTime() <= tick) {
-					lastTempo = tempo;
-				} else {
-					return lastTempo;
-				}
+		return tempoMap.tempoAt(tick);
+	}
+	
+	/**
+	 * Determines the next tempo change after a MIDI tick.
+	 *
+	 * @param tick the MIDI tick
+	 * @return the first tempo that begins after the tick, or null if the tempo does not change after the tick
+	 */
+	public MidiTempoEvent tempoAfter(long tick) {
+		return tempoMap.tempoAfter(tick);
+	}
+	
+	/**
+	 * Determines the length of this MIDI file, which is the time of its last event.
+	 *
+	 * @return the length of this MIDI file, expressed in seconds
+	 */
+	public double lengthInSeconds() {
+		long lastTick = 0;
+		for (MidiTrack track : getTracks()) {
+			if (track == null) continue;
+			for (MidiEvent event : track.getEvents()) {
+				lastTick = Math.max(lastTick, event.getTime());
 			}
 		}
-		return lastTempo;
+		return midiTickInSeconds(lastTick);
 	}
 	
 	@Override
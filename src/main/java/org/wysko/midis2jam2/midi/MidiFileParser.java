@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package org.wysko.midis2jam2.midi;
+
+import org.wysko.midis2jam2.Midis2jam2;
+
+import javax.sound.midi.InvalidMidiDataException;
+import java.io.EOFException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a standard MIDI file straight into a {@link MidiFile}. The MThd and MTrk chunks are read from a buffer in a
+ * single pass, handling running status and tempo events inline, and only the events midis2jam2 uses are allocated.
+ * <p>
+ * Like the Java sound file reader this replaces, the parser is lenient towards truncated files: a track that does
+ * not fit in the file ends the file.
+ */
+final class MidiFileParser {
+	
+	private static final int MTHD_MAGIC = 0x4d546864; // 'MThd'
+	
+	private static final int MTRK_MAGIC = 0x4d54726b; // 'MTrk'
+	
+	private static final int META_TEMPO = 0x51;
+	
+	private static final int META_END_OF_TRACK = 0x2F;
+	
+	/** The bytes of the MIDI file, positioned at the start of the file. */
+	private final ByteBuffer buffer;
+	
+	/** The number of events that have been read. */
+	private int eventCount;
+	
+	/** The position in the buffer at which the chunk being read ends. Nothing can be skipped past it. */
+	private int chunkEnd;
+	
+	/**
+	 * Instantiates a new parser. The position of the passed buffer is not modified.
+	 *
+	 * @param buffer the bytes of the MIDI file
+	 */
+	MidiFileParser(ByteBuffer buffer) {
+		this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+		this.chunkEnd = this.buffer.limit();
+	}
+	
+	/**
+	 * Parses the file. Track 0 of the returned file is always null; the file's tracks begin at index 1.
+	 *
+	 * @return the MIDI file, without its tempo map
+	 * @throws InvalidMidiDataException if the MIDI file is bad
+	 * @throws EOFException             if the MIDI file ends in the middle of an event
+	 */
+	MidiFile parse() throws InvalidMidiDataException, EOFException {
+		long startTime = System.nanoTime();
+		MidiFile file = new MidiFile();
+		try {
+			/* Header */
+			if (buffer.getInt() != MTHD_MAGIC) {
+				throw new InvalidMidiDataException("not a valid MIDI file");
+			}
+			int headerLength = buffer.getInt();
+			int type = buffer.getShort();
+			int numberOfTracks = buffer.getShort() & 0xFFFF;
+			int timing = buffer.getShort();
+			skip(Math.max(0, headerLength - 6L));
+			
+			if (type != 0 && type != 1) {
+				throw new InvalidMidiDataException("Invalid or unsupported file type: " + type);
+			}
+			
+			/* Tempo-based timing is ticks per beat, SMPTE-based timing is ticks per frame */
+			file.setDivision((short) (timing > 0 ? timing : timing & 0xFF));
+			
+			/* Tracks */
+			List<MidiTrack> tracks = new ArrayList<>(numberOfTracks);
+			for (int i = 0; i < numberOfTracks; i++) {
+				MidiTrack track = nextTrack();
+				if (track == null) break;
+				tracks.add(track);
+			}
+			
+			MidiTrack[] trackArray = new MidiTrack[tracks.size() + 1];
+			for (int i = 0; i < tracks.size(); i++) {
+				trackArray[i + 1] = tracks.get(i);
+			}
+			file.setTracks(trackArray);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new EOFException("invalid MIDI file");
+		}
+		
+		double elapsed = (System.nanoTime() - startTime) / 1E9;
+		Midis2jam2.getLOGGER().info(() -> String.format("Parsed %d MIDI events in %.1f ms (%.0f events/s).",
+				eventCount, elapsed * 1000, eventCount / Math.max(elapsed, 1E-9)));
+		return file;
+	}
+	
+	/**
+	 * Finds the next MTrk chunk, skipping any unknown chunks, and reads it.
+	 *
+	 * @return the track, or null if there are no more complete tracks in the file
+	 */
+	private MidiTrack nextTrack() throws InvalidMidiDataException {
+		while (buffer.remaining() >= 8) {
+			int magic = buffer.getInt();
+			int length = buffer.getInt();
+			if (length < 0 || length > buffer.remaining()) {
+				return null;
+			}
+			if (magic == MTRK_MAGIC) {
+				int end = buffer.position() + length;
+				chunkEnd = end;
+				MidiTrack track = readTrack(end);
+				chunkEnd = buffer.limit();
+				buffer.position(end);
+				return track;
+			}
+			skip(length);
+		}
+		return null;
+	}
+	
+	/**
+	 * Reads the events of a track.
+	 *
+	 * @param end the position in the buffer at which the track ends
+	 * @return the track
+	 */
+	@SuppressWarnings("java:S3776")
+	private MidiTrack readTrack(int end) throws InvalidMidiDataException {
+		/* Most channel events take three or four bytes */
+		List<MidiEvent> events = new ArrayList<>((end - buffer.position()) / 4);
+		long tick = 0;
+		int status = 0;
+		
+		while (buffer.position() < end) {
+			tick += readVarInt();
+			
+			/* A data byte here means running status: reuse the last status */
+			int data1 = -1;
+			int byteValue = readUnsigned();
+			if (byteValue >= 0x80) {
+				if (byteValue < 0xF0) {
+					status = byteValue;
+				} else if (readSystemEvent(byteValue, tick, events)) {
+					break;
+				} else {
+					continue;
+				}
+			} else {
+				data1 = byteValue;
+			}
+			
+			int command = status & 0xF0;
+			int channel = status & 0x0F;
+			switch (command) {
+				case 0x80:
+				case 0x90:
+				case 0xA0:
+				case 0xB0:
+				case 0xE0: {
+					if (data1 == -1) data1 = readUnsigned();
+					int data2 = readUnsigned();
+					MidiEvent event = channelEvent(command, channel, data1, data2, tick);
+					if (event != null) events.add(event);
+					break;
+				}
+				case 0xC0:
+				case 0xD0:
+					if (data1 == -1) data1 = readUnsigned();
+					if (command == 0xC0) events.add(new MidiProgramEvent(tick, channel, data1));
+					break;
+				default:
+					throw new InvalidMidiDataException("Invalid status byte: " + status);
+			}
+		}
+		eventCount += events.size();
+		return new MidiTrack(events);
+	}
+	
+	/**
+	 * Creates the event for a channel voice message with two data bytes.
+	 *
+	 * @return the event, or null if midis2jam2 does not use this message
+	 */
+	private static MidiEvent channelEvent(int command, int channel, int data1, int data2, long tick) {
+		switch (command) {
+			case 0x90:
+				if (data2 == 0) {
+					return new MidiNoteOffEvent(tick, channel, data1);
+				}
+				return new MidiNoteOnEvent(tick, channel, data1, data2);
+			case 0x80:
+				return new MidiNoteOffEvent(tick, channel, data1);
+			case 0xB0:
+				return new MidiControlEvent(tick, channel, data1, data2);
+			case 0xE0:
+				return new MidiPitchBendEvent(tick, channel, data1 + data2 * 128);
+			default:
+				return null;
+		}
+	}
+	
+	/**
+	 * Reads a sysex or meta event. Tempo events are added to the track, everything else is skipped.
+	 *
+	 * @param status the status byte of the event
+	 * @return true if this event marks the end of the track, false otherwise
+	 */
+	private boolean readSystemEvent(int status, long tick, List<MidiEvent> events) throws InvalidMidiDataException {
+		switch (status) {
+			case 0xF0:
+			case 0xF7:
+				skip(readVarInt());
+				return false;
+			case 0xFF:
+				int metaType = readUnsigned();
+				long metaLength = readVarInt();
+				if (metaType == META_TEMPO && metaLength == 3) {
+					int tempo = (readUnsigned() << 16) | (readUnsigned() << 8) | readUnsigned();
+					events.add(new MidiTempoEvent(tick, tempo));
+				} else {
+					skip(metaLength);
+				}
+				return metaType == META_END_OF_TRACK;
+			default:
+				throw new InvalidMidiDataException("Invalid status byte: " + status);
+		}
+	}
+	
+	private int readUnsigned() {
+		return buffer.get() & 0xFF;
+	}
+	
+	private long readVarInt() {
+		long value = 0;
+		int currentByte;
+		do {
+			currentByte = readUnsigned();
+			value = (value << 7) + (currentByte & 0x7F);
+		} while ((currentByte & 0x80) != 0);
+		return value;
+	}
+	
+	/**
+	 * Skips over part of the current chunk.
+	 *
+	 * @param length the number of bytes to skip
+	 * @throws InvalidMidiDataException if the length is negative or runs past the end of the chunk
+	 */
+	private void skip(long length) throws InvalidMidiDataException {
+		if (length < 0 || length > chunkEnd - buffer.position()) {
+			throw new InvalidMidiDataException("Invalid length: " + length);
+		}
+		buffer.position(buffer.position() + (int) length);
+	}
+}
@@ -23,6 +23,9 @@ import org.wysko.midis2jam2.instrument.family.guitar.FrettedInstrument
 /**
  * A note period is a tuple consisting of a [MidiNoteOnEvent] and a [MidiNoteOffEvent]. A note period is the
  * equivalent of the blocks you would see in a MIDI piano roll editor.
+ *
+ * When MIDI is played live, the note off is not known when the note starts. Such a note period is [open], ends at
+ * [Double.POSITIVE_INFINITY] and is [closed][close] once its note off arrives.
  */
 open class NotePeriod(
     /** The MIDI pitch of this note period. */
@@ -38,8 +41,16 @@ open class NotePeriod(
     val noteOn: MidiNoteOnEvent,
 
     /** The [MidiNoteOffEvent]. */
-    val noteOff: MidiNoteOffEvent,
+    noteOff: MidiNoteOffEvent,
 ) {
+    /** The [MidiNoteOffEvent]. While this note period is [open][isOpen], this is a placeholder at the last tick. */
+    var noteOff: MidiNoteOffEvent = noteOff
+        private set
+
+    /** True if the note off of this note period has not yet been received, false otherwise. */
+    val isOpen: Boolean
+        get() = endTime == Double.POSITIVE_INFINITY
+
     /** [FrettedInstrument] gets help from this. */
     var animationStarted: Boolean = false
 
@@ -58,12 +69,39 @@ open class NotePeriod(
         return endTime - startTime
     }
 
+    /**
+     * Ends this note period, once its note off has been received.
+     *
+     * @param noteOff the note off
+     * @param endTime the time of the note off, expressed in seconds
+     */
+    fun close(noteOff: MidiNoteOffEvent, endTime: Double) {
+        this.noteOff = noteOff
+        this.endTime = endTime.coerceAtLeast(startTime)
+    }
+
     override fun toString(): String {
         return "NotePeriod(midiNote=$midiNote, startTime=$startTime, endTime=$endTime, noteOn=$noteOn, " +
                 "noteOff=$noteOff, animationStarted=$animationStarted)"
     }
 
     companion object {
+        /**
+         * Creates a note period that starts with [noteOn] and has not yet ended. It should be [closed][close] when its
+         * note off is received.
+         *
+         * @param noteOn    the note on
+         * @param startTime the time of the note on, expressed in seconds
+         * @return the open note period
+         */
+        fun open(noteOn: MidiNoteOnEvent, startTime: Double): NotePeriod = NotePeriod(
+            noteOn.note,
+            startTime,
+            Double.POSITIVE_INFINITY,
+            noteOn,
+            MidiNoteOffEvent(Long.MAX_VALUE, noteOn.channel, noteOn.note)
+        )
+
         /**
          * A MIDI file is a sequence of [MidiNoteOnEvents][MidiNoteOnEvent] and [MidiNoteOffEvents][MidiNoteOffEvent].
          * Each pair of a NoteOn and NoteOff event can correspond to a [NotePeriod]. This method calculates those
@@ -99,8 +137,8 @@ open class NotePeriod(
                         notePeriods.add(
                             NotePeriod(
                                 noteOff.note,
-                                instrument.context.file.eventInSeconds(it.time),
-                                instrument.context.file.eventInSeconds(noteOff.time),
+                                instrument.context.file.eventInSeconds(it),
+                                instrument.context.file.eventInSeconds(noteOff),
                                 it,
                                 noteOff
                             )
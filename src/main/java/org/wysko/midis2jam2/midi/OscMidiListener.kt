@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.midi
+
+import org.wysko.midis2jam2.Midis2jam2
+import java.io.Closeable
+import java.net.DatagramPacket
+import java.net.DatagramSocket
+import java.net.SocketException
+import java.net.SocketTimeoutException
+import java.nio.ByteBuffer
+import java.util.concurrent.TimeUnit
+import java.util.logging.Level
+
+/**
+ * Listens for MIDI sent over the network as OSC messages on a UDP port, and hands it to a [LiveMidiReceiver], so it
+ * is visualized like a MIDI input device.
+ *
+ * Each message is one OSC packet, sent to one of these addresses. The arguments are big-endian, as OSC requires:
+ *
+ * | Address    | Type tags | Arguments                                       |
+ * |------------|-----------|-------------------------------------------------|
+ * | `/note`    | `,ihiii`  | sequence, time, channel, note, velocity         |
+ * | `/cc`      | `,ihiii`  | sequence, time, channel, controller, value      |
+ * | `/program` | `,ihii`   | sequence, time, channel, program                |
+ *
+ * The sequence number counts up by one with each message the sender sends, so that lost and reordered packets can be
+ * detected. The time is when the message was sent, in microseconds, on any clock the sender keeps. A sender may
+ * restart its sequence number and clock at any time. A note with a velocity of 0 is a note off. Bundles and other
+ * addresses are counted as [malformed] and ignored.
+ *
+ * Packets are received on a thread of their own, which holds each message in a [JitterBuffer] and releases it to the
+ * receiver when it is due, so the network thread is the receiver's only producer. Nothing is allocated per packet.
+ */
+class OscMidiListener @JvmOverloads @Throws(SocketException::class) constructor(
+    /** The UDP port to listen on, or 0 for any free port. */
+    port: Int,
+
+    /** Receives the messages once they are released from the jitter buffer. */
+    private val receiver: LiveMidiReceiver,
+
+    /** How long to hold each message to smooth out network jitter, in seconds. */
+    delay: Double = DEFAULT_DELAY,
+) : Closeable {
+
+    private val socket = DatagramSocket(port)
+
+    private val buffer = ByteArray(MAX_PACKET_SIZE)
+
+    private val packet = DatagramPacket(buffer, buffer.size)
+
+    private val view = ByteBuffer.wrap(buffer)
+
+    private val jitterBuffer = JitterBuffer((delay * 1E9).toLong())
+
+    private val sink = MidiEventRing.Sink { message, _ -> receiver.sendPacked(message) }
+
+    private val thread = Thread(::listen, "OSC MIDI listener").apply { isDaemon = true }
+
+    @Volatile
+    private var running = false
+
+    /** The UDP port this listener is bound to. */
+    val port: Int
+        get() = socket.localPort
+
+    /** The number of messages waiting in the jitter buffer. */
+    val bufferDepth: Int
+        get() = jitterBuffer.depth
+
+    /** The number of messages that have been received, including late ones. */
+    val packetsReceived: Long
+        get() = jitterBuffer.received
+
+    /** The number of messages that were sent but never arrived. */
+    val packetsLost: Long
+        get() = jitterBuffer.lost
+
+    /** The number of messages that arrived too late to be played in order, arrived twice, or did not fit. */
+    val packetsLate: Long
+        get() = jitterBuffer.late + jitterBuffer.overflowed
+
+    /** The number of packets that were not messages of the schema. */
+    @Volatile
+    var malformed: Long = 0
+        private set
+
+    /** Starts listening. */
+    fun start() {
+        running = true
+        thread.start()
+        Midis2jam2.getLOGGER().info { "Listening for OSC MIDI on UDP port $port." }
+    }
+
+    private fun listen() {
+        while (running) {
+            /* Wake up when the next message is due, or wait for a packet if there is none */
+            val wait = jitterBuffer.nextDueTime().let {
+                if (it == Long.MAX_VALUE) 0L else TimeUnit.NANOSECONDS.toMillis(it - System.nanoTime()).coerceAtLeast(1)
+            }
+            try {
+                socket.soTimeout = wait.coerceAtMost(Int.MAX_VALUE.toLong()).toInt()
+                packet.setLength(buffer.size)
+                socket.receive(packet)
+                if (!parse(packet.length, System.nanoTime())) malformed++
+            } catch (e: SocketTimeoutException) {
+                // A message is due
+            } catch (e: SocketException) {
+                if (running) Midis2jam2.getLOGGER().log(Level.WARNING, "The OSC MIDI socket failed.", e)
+                break
+            }
+            jitterBuffer.release(System.nanoTime(), sink)
+        }
+    }
+
+    /**
+     * Reads the packet in the [buffer] and inserts its message into the jitter buffer.
+     *
+     * @param length the length of the packet
+     * @param now    when the packet was received, in nanoseconds
+     * @return true if the packet is a message of the schema, false otherwise
+     */
+    private fun parse(length: Int, now: Long): Boolean {
+        var kind = 0
+        while (kind < ADDRESSES.size && !matches(ADDRESSES[kind], 0)) kind++
+        if (kind == ADDRESSES.size) return false
+        val arguments = ADDRESSES[kind].size + TYPE_TAGS[kind].size
+        if (!matches(TYPE_TAGS[kind], ADDRESSES[kind].size) || length != arguments + ARGUMENT_SIZES[kind]) return false
+
+        val sequence = view.getInt(arguments).toLong() and 0xFFFFFFFFL
+        val time = view.getLong(arguments + 4)
+        val channel = view.getInt(arguments + 12)
+        val data1 = view.getInt(arguments + 16)
+        val data2 = if (kind == PROGRAM) 0 else view.getInt(arguments + 20)
+        if (channel !in 0..15 || data1 !in 0..127 || data2 !in 0..127) return false
+
+        val message = MidiEventRing.pack(STATUSES[kind] or channel, data1, data2)
+        jitterBuffer.insert(sequence, TimeUnit.MICROSECONDS.toNanos(time), message, now)
+        return true
+    }
+
+    /** True if the [buffer] holds [bytes] at [offset], false otherwise. */
+    private fun matches(bytes: ByteArray, offset: Int): Boolean {
+        if (offset + bytes.size > packet.length) return false
+        for (i in bytes.indices) {
+            if (buffer[offset + i] != bytes[i]) return false
+        }
+        return true
+    }
+
+    /** Stops listening and closes the socket. Messages still in the jitter buffer are discarded. */
+    override fun close() {
+        running = false
+        socket.close()
+        thread.join(TimeUnit.SECONDS.toMillis(1))
+    }
+
+    companion object {
+        /** Holds messages long enough to cover the jitter of a typical wireless network. */
+        const val DEFAULT_DELAY: Double = 0.03
+
+        /** The largest packet that fits in a single Ethernet frame. Messages of the schema are much smaller. */
+        private const val MAX_PACKET_SIZE = 1500
+
+        private const val PROGRAM = 2
+
+        private val ADDRESSES = arrayOf("/note", "/cc", "/program").map(::oscString).toTypedArray()
+
+        private val TYPE_TAGS = arrayOf(",ihiii", ",ihiii", ",ihii").map(::oscString).toTypedArray()
+
+        /** The size of the arguments of each kind of message: a sequence number, a time, and two or three ints. */
+        private val ARGUMENT_SIZES = intArrayOf(24, 24, 20)
+
+        private val STATUSES = intArrayOf(0x90, 0xB0, 0xC0)
+
+        /** Encodes [string] as an OSC string: ASCII, terminated by at least one null, padded to a multiple of 4. */
+        private fun oscString(string: String): ByteArray = string.toByteArray(Charsets.US_ASCII).copyOf(
+            (string.length / 4 + 1) * 4
+        )
+    }
+}
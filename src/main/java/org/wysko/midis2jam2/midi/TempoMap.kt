@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.midi
+
+/**
+ * A precomputed index of the tempo changes in a MIDI file. Each tempo starts a "segment" of the file where ticks
+ * elapse at a constant rate. The starting tick and the number of seconds that have elapsed at the start of each
+ * segment are stored in sorted primitive arrays, so conversions between ticks and seconds are a binary search
+ * followed by a single multiply.
+ *
+ * The map expects [tempos] to be sorted by time, without two tempos at the same tick, and to begin at tick 0.
+ * [MidiFile.calculateTempoMap] guarantees this.
+ */
+class TempoMap(
+    /** The tempos of the MIDI file, sorted by time. */
+    private val tempos: List<MidiTempoEvent>,
+
+    /** The division of the MIDI file, expressed as ticks per quarter-note. */
+    division: Short,
+) {
+
+    /** The MIDI tick at which each segment starts. */
+    private val segmentTicks: LongArray = LongArray(tempos.size) { tempos[it].time }
+
+    /** The number of seconds that elapse during a single tick in each segment. */
+    private val secondsPerTick: DoubleArray = DoubleArray(tempos.size) { tempos[it].secondsPerBeat() / division }
+
+    /** The number of seconds that have elapsed at the start of each segment. */
+    private val segmentSeconds: DoubleArray = DoubleArray(tempos.size).also {
+        for (i in 1 until tempos.size) {
+            it[i] = it[i - 1] + (segmentTicks[i] - segmentTicks[i - 1]) * secondsPerTick[i - 1]
+        }
+    }
+
+    /**
+     * Converts a MIDI tick to seconds. If the tick is negative, the first tempo is extrapolated backwards.
+     *
+     * @param tick the MIDI tick
+     * @return the tick, expressed in seconds
+     */
+    fun ticksToSeconds(tick: Long): Double {
+        val i = indexAt(tick)
+        return segmentSeconds[i] + (tick - segmentTicks[i]) * secondsPerTick[i]
+    }
+
+    /**
+     * Converts a time in seconds to a MIDI tick. This is the inverse of [ticksToSeconds], and likewise extrapolates
+     * the first tempo backwards for negative times.
+     *
+     * @param seconds the time, expressed in seconds
+     * @return the time, expressed in MIDI ticks (can be fractional)
+     */
+    fun secondsToTicks(seconds: Double): Double {
+        val i = lastIndexAtOrBelow(segmentSeconds, seconds)
+        return segmentTicks[i] + (seconds - segmentSeconds[i]) / secondsPerTick[i]
+    }
+
+    /** Returns the tempo that is effective at [tick]. A tempo that starts on [tick] is effective. */
+    fun tempoAt(tick: Long): MidiTempoEvent = tempos[indexAt(tick)]
+
+    /** Returns the first tempo that starts after [tick], or null if no tempo changes after [tick]. */
+    fun tempoAfter(tick: Long): MidiTempoEvent? {
+        val i = indexAt(tick)
+        return when {
+            segmentTicks[i] > tick -> tempos[i]
+            i + 1 < tempos.size -> tempos[i + 1]
+            else -> null
+        }
+    }
+
+    /** Returns the tempo that is effective just before [tick]. A tempo that starts on [tick] is not considered. */
+    fun tempoBefore(tick: Long): MidiTempoEvent = tempos[if (tick == Long.MIN_VALUE) 0 else indexAt(tick - 1)]
+
+    /** Returns the index of the segment that contains [tick], or 0 if the tick occurs before all segments. */
+    private fun indexAt(tick: Long): Int {
+        var low = 0
+        var high = segmentTicks.size - 1
+        while (low < high) {
+            val mid = (low + high + 1) ushr 1
+            if (segmentTicks[mid] <= tick) low = mid else high = mid - 1
+        }
+        return low
+    }
+
+    private companion object {
+        /** Returns the index of the last element in [array] that is less than or equal to [value], or 0 if none. */
+        fun lastIndexAtOrBelow(array: DoubleArray, value: Double): Int {
+            var low = 0
+            var high = array.size - 1
+            while (low < high) {
+                val mid = (low + high + 1) ushr 1
+                if (array[mid] <= value) low = mid else high = mid - 1
+            }
+            return low
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.midi
+
+import java.util.concurrent.locks.LockSupport
+import javax.sound.midi.Sequencer
+
+/**
+ * Applies the tempo changes of a MIDI file to a [Sequencer] as playback reaches them, since the Java sequencer does
+ * not always apply them itself.
+ *
+ * Rather than checking for a tempo change every millisecond, the scheduler's thread looks up the next tempo change in
+ * the tempo map, works out how long playback will take to reach it, and parks until then. Once the sequencer has
+ * reached the change, the tempo is applied and the next change is scheduled. After the last tempo change, or while
+ * the sequencer is stopped, the thread parks until it is [woken][wake] or [cancelled][cancel].
+ */
+internal class TempoScheduler(
+    /** The sequencer to apply tempos to. */
+    private val sequencer: Sequencer,
+
+    /** The MIDI file being played. */
+    private val file: MidiFile,
+) : Runnable {
+
+    @Volatile
+    private var running = true
+
+    private val thread = Thread(this, "TempoScheduler").apply { isDaemon = true }
+
+    /** Starts scheduling tempo changes. */
+    fun start() {
+        thread.start()
+    }
+
+    /** Reschedules the next tempo change. Call after the sequencer has been repositioned, started or stopped. */
+    fun wake() {
+        LockSupport.unpark(thread)
+    }
+
+    /** Stops scheduling tempo changes and ends the thread. */
+    fun cancel() {
+        running = false
+        LockSupport.unpark(thread)
+    }
+
+    override fun run() {
+        var applied: MidiTempoEvent? = null
+        while (running) {
+            val tick = sequencer.tickPosition
+            val tempo = file.tempoAt(tick)
+            if (tempo !== applied) {
+                sequencer.tempoInBPM = 60_000_000F / tempo.number
+                applied = tempo
+            }
+
+            val next = file.tempoAfter(tick)
+            if (next == null || !sequencer.isRunning) {
+                LockSupport.park(this)
+                continue
+            }
+
+            /* Parking can end early, in which case the loop finds the change has not been reached and parks again */
+            val wait = (file.midiTickInSeconds(next.time) - file.midiTickInSeconds(tick)) * 1E9
+            LockSupport.parkNanos(this, wait.toLong().coerceAtLeast(MIN_PARK_NANOS))
+        }
+    }
+
+    private companion object {
+        /** The shortest time to park for, so that a sequencer that has not quite reached a change is not spun on. */
+        const val MIN_PARK_NANOS = 200_000L
+    }
+}
@@ -25,15 +25,4 @@ interface ParticleGenerator {
      * @param active true if this particle generator should be generating
      */
     fun tick(delta: Float, active: Boolean)
-
-    /** A particle as generated by a [ParticleGenerator]. */
-    interface Particle {
-        /**
-         * Update animation.
-         *
-         * @param delta the amount of time since the last frame
-         * @return true if this particle needs to remain, false otherwise
-         */
-        fun tick(delta: Float): Boolean
-    }
 }
\ No newline at end of file
@@ -19,10 +19,14 @@ package org.wysko.midis2jam2.particle
 import com.jme3.math.FastMath
 import com.jme3.math.Quaternion
 import com.jme3.math.Vector3f
+import com.jme3.scene.Geometry
+import com.jme3.scene.Mesh
 import com.jme3.scene.Node
-import com.jme3.scene.Spatial
+import com.jme3.scene.VertexBuffer
+import com.jme3.util.BufferUtils
 import org.wysko.midis2jam2.Midis2jam2
-import org.wysko.midis2jam2.particle.SteamPuffer.Cloud
+import org.wysko.midis2jam2.util.Utils
+import java.nio.FloatBuffer
 import java.util.*
 import kotlin.math.ceil
 import kotlin.math.max
@@ -31,15 +35,19 @@ import kotlin.math.pow
 /**
  * The red, blue, white, and brown substances that emanate from the shaft of an instrument.
  *
- * The SteamPuffer works by creating a pool of [Clouds][Cloud] that are spawned and despawned. SteamPuffer only
- * handles the generation and spawning of [Clouds][Cloud]—animation is handled in the respective class.
+ * Clouds are spawned at a steady [SPAWN_RATE] while the puffer is active, whatever the frame rate, so the number of
+ * clouds that can be alive at once is known. They are kept in a pool of that size, with the state of each cloud (its
+ * life, random seeds and rotation) in primitive arrays. Live clouds occupy the front of the pool; when a cloud dies,
+ * the last live cloud takes its slot. Every cloud is drawn by a single [Geometry], whose mesh holds a copy of the
+ * cloud model for each slot of the pool and is rewritten on each frame. Slots without a live cloud are collapsed to a
+ * point. Nothing is allocated and the scene graph is not modified after the puffer is created.
  */
 class SteamPuffer(
     /** Context to the main class. */
-    private val context: Midis2jam2,
+    context: Midis2jam2,
 
     /** The type of steam puffer. */
-    private val type: SteamPuffType,
+    type: SteamPuffType,
 
     /** How large the clouds are. */
     private val scale: Double,
@@ -51,53 +59,197 @@ class SteamPuffer(
     /** Defines the root of the steam puffer. */
     val steamPuffNode: Node = Node()
 
-    /** The list of currently visible clouds. */
-    private val visibleClouds: MutableList<Cloud> = ArrayList()
+    /** The number of live clouds, which occupy the first slots of the pool. */
+    private var count = 0
 
-    /** A pool of clouds that this steam puffer can use. */
-    private val cloudPool: MutableList<Cloud> = ArrayList()
+    /** The number of slots that were drawn on the last frame. */
+    private var drawnCount = 0
 
-    /** Despawns a [cloud]. */
-    private fun despawnCloud(cloud: Cloud) {
-        steamPuffNode.detachChild(cloud.cloudNode)
+    /** The number of clouds that are due to be spawned, including a fraction of the next one. */
+    private var spawnBacklog = 0f
+
+    /** True if the puffer was active on the last frame, false otherwise. */
+    private var wasActive = false
+
+    /** The current duration into the life of each cloud. */
+    private val life = DoubleArray(CAPACITY)
+
+    /** A seed for random first axis transformation of each cloud. */
+    private val randA = FloatArray(CAPACITY)
+
+    /** A seed for random second axis transformation of each cloud. */
+    private val randB = FloatArray(CAPACITY)
+
+    /** The rotation of each cloud, as the components of a quaternion in the order x, y, z, w. */
+    private val rotations = FloatArray(CAPACITY * 4)
+
+    /** The positions of the vertices of the cloud model. */
+    private val cloudPositions: FloatArray
+
+    /** The normals of the vertices of the cloud model, or null if it has none. */
+    private val cloudNormals: FloatArray?
+
+    /** The number of vertices in the cloud model. */
+    private val cloudVertexCount: Int
+
+    /** The positions of the vertices of every slot. */
+    private val positions: FloatBuffer
+
+    /** The normals of the vertices of every slot, or null if the cloud model has none. */
+    private val normals: FloatBuffer?
+
+    /** The mesh that draws every cloud. */
+    private val mesh = Mesh()
+
+    /** The geometry that draws every cloud. */
+    private val geometry: Geometry
+
+    /** Temporary rotation, to avoid allocating one per cloud. */
+    private val rotation = Quaternion()
+
+    /** Temporary vector, to avoid allocating one per vertex. */
+    private val vertex = Vector3f()
+
+    init {
+        val model = context.loadModel("SteamCloud.obj", type.filename)
+        var template: Geometry? = null
+        model.depthFirstTraversal { if (template == null && it is Geometry) template = it }
+        val cloud = template!!
+        val cloudMesh = cloud.mesh
+
+        cloudPositions = toArray(cloudMesh.getFloatBuffer(VertexBuffer.Type.Position))
+        cloudNormals = cloudMesh.getFloatBuffer(VertexBuffer.Type.Normal)?.let { toArray(it) }
+        cloudVertexCount = cloudPositions.size / 3
+
+        /* Positions and normals are rewritten on each frame */
+        positions = BufferUtils.createFloatBuffer(CAPACITY * cloudPositions.size)
+        mesh.setBuffer(VertexBuffer.Type.Position, 3, positions)
+        mesh.getBuffer(VertexBuffer.Type.Position).usage = VertexBuffer.Usage.Stream
+        normals = cloudNormals?.let { BufferUtils.createFloatBuffer(CAPACITY * it.size) }
+        normals?.let {
+            mesh.setBuffer(VertexBuffer.Type.Normal, 3, it)
+            mesh.getBuffer(VertexBuffer.Type.Normal).usage = VertexBuffer.Usage.Stream
+        }
+
+        /* Texture coordinates and indices are the same for each slot */
+        cloudMesh.getFloatBuffer(VertexBuffer.Type.TexCoord)?.let {
+            val texCoords = toArray(it)
+            val slotTexCoords = FloatArray(CAPACITY * texCoords.size) { i -> texCoords[i % texCoords.size] }
+            mesh.setBuffer(VertexBuffer.Type.TexCoord, 2, BufferUtils.createFloatBuffer(*slotTexCoords))
+        }
+        val cloudIndices = cloudMesh.indicesAsList
+        val slotIndices = IntArray(CAPACITY * cloudIndices.size()) { i ->
+            i / cloudIndices.size() * cloudVertexCount + cloudIndices.get(i % cloudIndices.size())
+        }
+        mesh.setBuffer(VertexBuffer.Type.Index, 3, BufferUtils.createIntBuffer(*slotIndices))
+
+        geometry = Geometry("SteamPuffer", mesh).apply {
+            material = cloud.material
+            cullHint = Utils.cullHint(false)
+        }
+        steamPuffNode.attachChild(geometry)
     }
 
     override fun tick(delta: Float, active: Boolean) {
         if (active) {
-            /* If it happens to be the case that the amount of time since the last frame was so large that it
-             * warrants more than one cloud to be spawned on this frame, calculate the number of clouds to spawn. But we
-             * should always spawn at least one cloud on each frame. */
-            val n = ceil(max(delta / (1f / 60f), 1f).toDouble())
-            var i = 0
-            while (i < n) {
-                val cloud: Cloud = if (cloudPool.isEmpty()) {
-                    /* If the pool is empty, we need to make a new cloud. */
-                    Cloud()
-                } else {
-                    /* If there exists a cloud we can use, grab the first one. */
-                    cloudPool.removeAt(0) // NOSONAR java:S5413
-                }
-                /* Reinitialize cloud */
-                visibleClouds.add(cloud)
-                cloud.currentlyUsing = true
-                cloud.randomInit()
-                steamPuffNode.attachChild(cloud.cloudNode)
-                i++
+            /* Spawn by elapsed time, so that a long frame spawns several clouds and a short one may spawn none. A
+             * puffer that has just become active puffs straight away. */
+            spawnBacklog += delta * SPAWN_RATE
+            if (!wasActive) spawnBacklog = max(spawnBacklog, 1f)
+            while (spawnBacklog >= 1f && count < CAPACITY) {
+                spawn(count++)
+                spawnBacklog--
             }
+            spawnBacklog = spawnBacklog.coerceAtMost(1f)
+        } else {
+            spawnBacklog = 0f
         }
-        val iterator = visibleClouds.iterator()
-        /* Loop over each visible cloud */
-        while (iterator.hasNext()) {
-            val cloud = iterator.next()
-            val tick = cloud.tick(delta)
-            if (!tick) {
-                /* We need to despawn the cloud */
-                cloud.currentlyUsing = false
-                cloudPool.add(cloud)
-                despawnCloud(cloud)
-                iterator.remove()
+        wasActive = active
+
+        /* Animate each live cloud, replacing dead clouds with the last live cloud */
+        var slot = 0
+        while (slot < count) {
+            val currentLife = life[slot]
+            life[slot] += delta * AGING_RATE
+            if (life[slot] > END_OF_LIFE) {
+                moveSlot(--count, slot)
+            } else {
+                writeCloud(slot, currentLife)
+                slot++
             }
         }
+
+        /* Collapse the slots of clouds that died since the last frame */
+        for (index in count * cloudPositions.size until drawnCount * cloudPositions.size) {
+            positions.put(index, 0f)
+        }
+
+        if (count > 0 || drawnCount > 0) {
+            mesh.getBuffer(VertexBuffer.Type.Position).updateData(positions)
+            normals?.let { mesh.getBuffer(VertexBuffer.Type.Normal).updateData(it) }
+            geometry.updateModelBound()
+        }
+        geometry.cullHint = Utils.cullHint(count > 0)
+        drawnCount = count
+    }
+
+    /** Resets the life of the cloud in [slot], its transformation, and redefines random seeds. */
+    private fun spawn(slot: Int) {
+        randA[slot] = (RANDOM.nextFloat() - 0.5f) * 1.5f
+        randB[slot] = (RANDOM.nextFloat() - 0.5f) * 1.5f
+        rotation.fromAngles(
+            RANDOM.nextFloat() * FastMath.TWO_PI,
+            RANDOM.nextFloat() * FastMath.TWO_PI,
+            RANDOM.nextFloat() * FastMath.TWO_PI
+        )
+        rotations[slot * 4] = rotation.x
+        rotations[slot * 4 + 1] = rotation.y
+        rotations[slot * 4 + 2] = rotation.z
+        rotations[slot * 4 + 3] = rotation.w
+        life[slot] = (RANDOM.nextFloat() * 0.02f).toDouble()
+    }
+
+    /** Moves the state of the cloud in slot [from] to slot [to]. */
+    private fun moveSlot(from: Int, to: Int) {
+        life[to] = life[from]
+        randA[to] = randA[from]
+        randB[to] = randB[from]
+        System.arraycopy(rotations, from * 4, rotations, to * 4, 4)
+    }
+
+    /** Writes the vertices of the cloud in [slot], as it appears at the [time] into its life. */
+    private fun writeCloud(slot: Int, time: Double) {
+        val ease = locEase(time)
+        val x = ease * 6
+        val y = if (behavior == PuffBehavior.OUTWARDS) ease * randA[slot] else time.toFloat() * 10
+        val z = ease * randB[slot]
+        val cloudScale = ((0.75 * time + 1.2) * scale).toFloat()
+        rotation.set(rotations[slot * 4], rotations[slot * 4 + 1], rotations[slot * 4 + 2], rotations[slot * 4 + 3])
+
+        val offset = slot * cloudPositions.size
+        for (v in 0 until cloudVertexCount) {
+            val i = v * 3
+            vertex.set(cloudPositions[i], cloudPositions[i + 1], cloudPositions[i + 2])
+            rotation.mult(vertex, vertex)
+            positions.put(offset + i, vertex.x * cloudScale + x)
+            positions.put(offset + i + 1, vertex.y * cloudScale + y)
+            positions.put(offset + i + 2, vertex.z * cloudScale + z)
+        }
+        if (cloudNormals != null && normals != null) {
+            for (v in 0 until cloudVertexCount) {
+                val i = v * 3
+                vertex.set(cloudNormals[i], cloudNormals[i + 1], cloudNormals[i + 2])
+                rotation.mult(vertex, vertex)
+                normals.put(offset + i, vertex.x)
+                normals.put(offset + i + 1, vertex.y)
+                normals.put(offset + i + 2, vertex.z)
+            }
+        }
+    }
+
+    /** Easing function to smoothen particle travel. */
+    private fun locEase(x: Double): Float {
+        return if (x == 1.0) 1f else (1 - 2.0.pow(-10 * x)).toFloat()
     }
 
     /** Defines how the clouds should animate. */
@@ -127,70 +279,27 @@ class SteamPuffer(
         WHISTLE("SteamPuff_Whistle.bmp");
     }
 
-    /** Defines how a cloud in the steam puffer animates. */
-    internal inner class Cloud : ParticleGenerator.Particle {
-
-        /** Contains the geometry of the cloud (the [.cube]). */
-        val cloudNode = Node()
-
-        /** The mesh of the cloud. */
-        private val cube: Spatial = context.loadModel("SteamCloud.obj", type.filename)
-
-        /** A seed for random first axis transformation. */
-        private var randA = 0f
-
-        /** A seed for random second axis transformation. */
-        private var randB = 0f
-
-        /** The current duration into the life of the cloud. */
-        private var life = 0.0
-
-        /** True if this cloud is currently being animated, false if it is idling in the pool. */
-        var currentlyUsing = false
-
-        /** Resets the life of the cloud, its transformation, and redefines random seeds. */
-        fun randomInit() {
-            randA = (RANDOM.nextFloat() - 0.5f) * 1.5f
-            randB = (RANDOM.nextFloat() - 0.5f) * 1.5f
-            cube.localRotation = Quaternion().fromAngles(
-                floatArrayOf(
-                    RANDOM.nextFloat() * FastMath.TWO_PI,
-                    RANDOM.nextFloat() * FastMath.TWO_PI,
-                    RANDOM.nextFloat() * FastMath.TWO_PI
-                )
-            )
-            life = (RANDOM.nextFloat() * 0.02f).toDouble()
-            cloudNode.localTranslation = Vector3f.ZERO
-        }
-
-        override fun tick(delta: Float): Boolean {
-            if (!currentlyUsing) return false
-            if (behavior == PuffBehavior.OUTWARDS) {
-                cloudNode.setLocalTranslation(locEase(life) * 6, locEase(life) * randA, locEase(life) * randB)
-            } else {
-                cloudNode.setLocalTranslation(locEase(life) * 6, life.toFloat() * 10, locEase(life) * randB)
-            }
-            cloudNode.setLocalScale(((0.75 * life + 1.2) * scale).toFloat())
-            life += delta * 1.5
-            return life <= END_OF_LIFE
-        }
-
-        /** Easing function to smoothen particle travel. */
-        private fun locEase(x: Double): Float {
-            return if (x == 1.0) 1f else (1 - 2.0.pow(-10 * x)).toFloat()
-        }
-
-        init {
-            randomInit()
-            cloudNode.attachChild(cube)
-        }
-    }
-
     companion object {
         /** For RNG. */
         private val RANDOM = Random()
 
         /** How long a cloud deserves to live. */
         const val END_OF_LIFE: Double = 0.7
+
+        /** How much faster than real time the life of a cloud passes. */
+        private const val AGING_RATE = 1.5
+
+        /** The number of clouds an active puffer spawns each second, which is one per frame at 60 frames per second. */
+        private const val SPAWN_RATE = 60f
+
+        /**
+         * The number of clouds that a steam puffer can show at once: every cloud that is spawned during the life of a
+         * cloud, plus one for the cloud that is spawned as soon as the puffer becomes active.
+         */
+        private val CAPACITY = ceil(END_OF_LIFE / AGING_RATE * SPAWN_RATE).toInt() + 1
+
+        /** Copies the contents of a [buffer], from the start to its limit, to an array. */
+        private fun toArray(buffer: FloatBuffer): FloatArray =
+            FloatArray(buffer.limit()).also { buffer.duplicate().apply { rewind() }.get(it) }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.starter
+
+import com.jme3.app.SimpleApplication
+import com.jme3.system.AppSettings
+import org.wysko.midis2jam2.LiveMidis2jam2
+import org.wysko.midis2jam2.midi.LiveMidiReceiver
+import org.wysko.midis2jam2.midi.OscMidiListener
+import org.wysko.midis2jam2.util.M2J2Settings
+import java.awt.Toolkit
+
+/** Opens a window that visualizes a live MIDI stream with [LiveMidis2jam2], from the command line. */
+class LiveLiaison @JvmOverloads constructor(
+    /** Receives the stream. */
+    private val receiver: LiveMidiReceiver,
+
+    /** The settings. */
+    private val m2j2settings: M2J2Settings,
+
+    /** True to open in fullscreen, false to open in a window. */
+    private val fullscreen: Boolean,
+
+    /** Sends the stream from the network to the [receiver], or null if it comes from a device. */
+    private val listener: OscMidiListener? = null,
+) : SimpleApplication() {
+
+    override fun start() {
+        val dim = Toolkit.getDefaultToolkit().screenSize
+        setSettings(AppSettings(true).apply {
+            frameRate = 120
+            frequency = 60
+            title = "midis2jam2"
+            isVSync = true
+            isResizable = true
+            samples = 4
+            isFullscreen = fullscreen
+            if (fullscreen) {
+                setResolution(dim.width, dim.height)
+            } else {
+                setResolution((dim.width * 0.95).toInt(), (dim.height * 0.85).toInt())
+            }
+        })
+        setDisplayStatView(false)
+        setDisplayFps(false)
+        isPauseOnLostFocus = false
+        isShowSettings = false
+        super.start()
+    }
+
+    override fun simpleInitApp() {
+        val midis2jam2 = LiveMidis2jam2(receiver, listener, m2j2settings)
+        stateManager.attach(midis2jam2)
+        rootNode.attachChild(midis2jam2.rootNode)
+    }
+
+    /** Exits the program once the app states have been cleaned up, since MIDI devices may keep threads running. */
+    override fun destroy() {
+        super.destroy()
+        Runtime.getRuntime().halt(0)
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.starter
+
+import kotlin.math.abs
+import kotlin.math.max
+
+/**
+ * Derives the time of the visualization from the position of a [sequencer], so that the visualization stays in step
+ * with the audio for the length of a file, however long it is and however unevenly frames are rendered.
+ *
+ * The sequencer only reports its position coarsely, so the clock fits a line through the reported positions against
+ * [System.nanoTime] and reads the time off that line on each frame. Every poll nudges the line a fraction of the way
+ * towards the reported position, which filters out the jitter of the reports while still following the audio. A
+ * report further off the line than [MAX_SMOOTH_DRIFT], like after a seek, moves the line at once.
+ *
+ * The visualization is shown [latency] seconds plus the [deviceLatency] behind the sequencer. The device latency is
+ * how long the device playing the sequence takes to make a sound, as reported by the [sequencer]. It is followed
+ * gradually, so the estimate can change during playback without making instruments jump.
+ *
+ * Before the sequencer starts, and after it stops, the clock advances by the duration of each frame.
+ */
+class PlaybackClock(
+    /** The sequencer to follow. */
+    private val sequencer: SequencerHandler,
+
+    /** The number of seconds the visualization is shown behind the sequencer, to fix A/V sync. */
+    private val latency: Double,
+) {
+
+    /**
+     * How far the sequencer's position was from the clock's line on the last frame, in seconds. Positive if the
+     * sequencer was ahead of the clock.
+     */
+    var drift: Double = 0.0
+        private set
+
+    /** The largest [drift], in either direction, since the clock last locked onto the sequencer. */
+    var maxDrift: Double = 0.0
+        private set
+
+    /** The current estimate of the latency of the device playing the sequence, in seconds. */
+    var deviceLatency: Double = sequencer.latency()
+        private set
+
+    /** True if the clock is following the sequencer, false if the sequencer is not playing. */
+    private var locked = false
+
+    /* The clock's line: the sequencer was at anchorPosition seconds at anchorNanos */
+    private var anchorPosition = 0.0
+    private var anchorNanos = 0L
+
+    /**
+     * Advances the time of the visualization by a frame.
+     *
+     * @param time  the time of the visualization on the last frame, in seconds
+     * @param delta the amount of time since the last frame, in seconds
+     * @param now   the current [System.nanoTime]
+     * @return the time of the visualization on this frame, in seconds
+     */
+    @JvmOverloads
+    fun advance(time: Double, delta: Float, now: Long = System.nanoTime()): Double {
+        if (!sequencer.isRunning()) {
+            locked = false
+            return time + delta
+        }
+
+        val reported = sequencer.positionInSeconds()
+        drift = if (locked) reported - positionAt(now) else 0.0
+        val jumped = !locked || abs(drift) > MAX_SMOOTH_DRIFT
+        if (jumped) {
+            anchorPosition = reported
+            anchorNanos = now
+            maxDrift = 0.0
+            locked = true
+        } else {
+            anchorPosition += drift * POSITION_GAIN
+            maxDrift = max(maxDrift, abs(drift))
+        }
+        deviceLatency += (sequencer.latency() - deviceLatency) * LATENCY_GAIN
+
+        val visual = positionAt(now) - latency - deviceLatency
+        /* Small corrections never turn time back; jumps, like seeks, do */
+        return if (jumped) visual else max(visual, time)
+    }
+
+    /**
+     * Returns the position the sequencer should be at when the visualization is at [time].
+     *
+     * @param time the time of the visualization, in seconds
+     * @return the position of the sequencer, in seconds
+     */
+    fun sequencerTime(time: Double): Double = time + latency + deviceLatency
+
+    /** Returns the sequencer's position on the clock's line at [nanos], in seconds. */
+    private fun positionAt(nanos: Long): Double = anchorPosition + (nanos - anchorNanos) / 1E9
+
+    private companion object {
+        /** The fraction of the distance to the reported position the clock's line moves on each frame. */
+        const val POSITION_GAIN = 0.05
+
+        /** The fraction of the distance to the reported device latency the estimate moves on each frame. */
+        const val LATENCY_GAIN = 0.02
+
+        /** A drift larger than this, in seconds, moves the clock's line at once rather than gradually. */
+        const val MAX_SMOOTH_DRIFT = 0.25
+    }
+}
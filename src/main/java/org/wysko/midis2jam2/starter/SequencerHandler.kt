@@ -29,10 +29,16 @@ interface SequencerHandler {
     /** Returns true if the sequencer is open and ready for playback, false otherwise. */
     fun isOpen(): Boolean
 
-    /** Begins playback. */
+    /** Returns true if the sequencer is playing, false otherwise. */
+    fun isRunning(): Boolean
+
+    /**
+     * Begins playback from the current position. Tempo changes in [midiFile] are applied as playback reaches them,
+     * until playback is [stopped][stop].
+     */
     fun start(midiFile: MidiFile)
 
-    /** Stops playback. */
+    /** Stops playback, stops applying tempo changes, and releases the sequencer. */
     fun stop()
 
     /** Returns the current position in the song. The unit does not matter, as long as it is the same as [duration]. */
@@ -41,4 +47,21 @@ interface SequencerHandler {
     /** Returns the length of the song. The unit does not matter, as long as it is the same as [position]. */
     fun duration(): Long
 
+    /** Returns the current position in the song, in seconds since the beginning of the song. */
+    fun positionInSeconds(): Double
+
+    /**
+     * Returns how long the device playing the song takes to make a sound, in seconds, or 0 if the device does not
+     * report it.
+     */
+    fun latency(): Double
+
+    /**
+     * Repositions playback to [seconds] into the song, applying the tempo that is effective there.
+     *
+     * @param midiFile the MIDI file being played, used to convert [seconds] to a position in the song
+     * @param seconds  the time to seek to, in seconds since the beginning of the song
+     */
+    fun seek(midiFile: MidiFile, seconds: Double)
+
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.util
+
+import com.jme3.asset.AssetKey
+import com.jme3.asset.AssetManager
+import com.jme3.asset.DesktopAssetManager
+import com.jme3.asset.plugins.FileLocator
+import com.jme3.export.Savable
+import com.jme3.export.binary.BinaryExporter
+import com.jme3.scene.Geometry
+import com.jme3.scene.Spatial
+import com.jme3.texture.Texture
+import jme3tools.converters.MipMapGenerator
+import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.util.Utils.exceptionToLines
+import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * The binary asset pack. Models are shipped as OBJ and FBX files and textures as BMP and PNG files, which are slow
+ * to parse. At build time, the `assetPack` Gradle task runs [main] to convert every model to jME's binary j3o format
+ * and every texture to a j3o image with precomputed mipmaps.
+ *
+ * Assets are loaded with [loadModel] and [loadTexture], which load from the pack and fall back to the original source
+ * when an asset is not in the pack, like when running from an IDE without building the pack. Assets that are loaded
+ * from their source are converted the same way and kept in the [diskCache], so they are only parsed once.
+ */
+object AssetPack {
+
+    /** The folder that holds the pack. Each asset is packed at its original path, prefixed by this folder. */
+    private const val ROOT = "AssetPack/"
+
+    /** The extensions of models that are packed. */
+    private val MODEL_EXTENSIONS = setOf("obj", "fbx")
+
+    /** The extensions of textures that are packed. */
+    private val TEXTURE_EXTENSIONS = setOf("bmp", "png")
+
+    /** Whether each asset that has been loaded is in the pack. */
+    private val packed = ConcurrentHashMap<String, Boolean>()
+
+    /**
+     * Holds the assets that are not in the pack, converted, across launches, or null to parse them from their source
+     * on every launch. See [DiskAssetCache.fromSystemProperties] for the default. Tests and headless runs set this to
+     * null, so that they do not write to the user's home.
+     */
+    @JvmStatic
+    @Volatile
+    var diskCache: DiskAssetCache? = DiskAssetCache.fromSystemProperties()
+
+    /** Returns the path of the packed version of the asset at [path]. */
+    @JvmStatic
+    fun packedPath(path: String): String = "$ROOT$path.j3o"
+
+    /**
+     * Loads a model from the pack, or from the disk cache or its source if it is not in the pack. The model has no
+     * materials.
+     *
+     * @param assetManager the asset manager
+     * @param path         the path to the source model
+     * @return the model
+     */
+    @JvmStatic
+    fun loadModel(assetManager: AssetManager, path: String): Spatial =
+        if (isPacked(assetManager, path)) {
+            assetManager.loadModel(packedPath(path))
+        } else {
+            diskCache?.loadModel(assetManager, path) ?: assetManager.loadModel(path)
+        }
+
+    /**
+     * Loads a texture from the pack, or from the disk cache or its source if it is not in the pack.
+     *
+     * @param assetManager the asset manager
+     * @param path         the path to the source texture
+     * @return the texture
+     */
+    @JvmStatic
+    fun loadTexture(assetManager: AssetManager, path: String): Texture =
+        if (isPacked(assetManager, path)) {
+            /* Packed textures are cached as is, so hand out a copy like the texture loader does */
+            assetManager.loadAsset(AssetKey<Texture>(packedPath(path))).clone()
+        } else {
+            diskCache?.loadTexture(assetManager, path) ?: assetManager.loadTexture(path)
+        }
+
+    /** Determines whether the asset at [path] is in the pack. The answer is remembered. */
+    private fun isPacked(assetManager: AssetManager, path: String): Boolean = packed.computeIfAbsent(path) {
+        assetManager.locateAsset(AssetKey<Any>(packedPath(it))) != null
+    }
+
+    /**
+     * Builds the pack. Every model and texture in the `Assets` folder of the resources is converted and written to
+     * the output folder. An asset that fails to convert is left out of the pack and logged, so it is loaded from its
+     * source.
+     *
+     * @param args the resources folder and the output folder
+     */
+    @JvmStatic
+    fun main(args: Array<String>) {
+        require(args.size == 2) { "Usage: AssetPack <resources folder> <output folder>" }
+        val resources = File(args[0])
+        val output = File(args[1])
+        val assetManager = DesktopAssetManager(true).apply {
+            registerLocator(resources.absolutePath, FileLocator::class.java)
+        }
+
+        var count = 0
+        File(resources, "Assets").walk().filter { it.isFile }.forEach { file ->
+            val path = file.relativeTo(resources).invariantSeparatorsPath
+            try {
+                val savable = when (file.extension.lowercase()) {
+                    in MODEL_EXTENSIONS -> packModel(assetManager, path)
+                    in TEXTURE_EXTENSIONS -> packTexture(assetManager, path)
+                    else -> return@forEach
+                }
+                BinaryExporter.getInstance().save(savable, File(output, packedPath(path)))
+                count++
+            } catch (e: Exception) {
+                Midis2jam2.getLOGGER().warning("Could not pack $path, it will be loaded from its source.")
+                Midis2jam2.getLOGGER().warning(exceptionToLines(e))
+            }
+        }
+        Midis2jam2.getLOGGER().info("Packed $count assets into $output.")
+    }
+
+    /** Loads a model and strips its materials, since every model is given a material once it is loaded. */
+    internal fun packModel(assetManager: AssetManager, path: String): Savable =
+        assetManager.loadModel(path).apply {
+            depthFirstTraversal { if (it is Geometry) it.material = null }
+        }
+
+    /** Loads a texture, generates its mipmaps, and drops its key so that the image itself is written. */
+    internal fun packTexture(assetManager: AssetManager, path: String): Savable =
+        assetManager.loadTexture(path).apply {
+            MipMapGenerator.generateMipMaps(image)
+            key = null
+        }
+}
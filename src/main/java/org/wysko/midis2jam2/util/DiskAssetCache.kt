@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.util
+
+import com.jme3.asset.AssetKey
+import com.jme3.asset.AssetManager
+import com.jme3.asset.AssetNotFoundException
+import com.jme3.export.Savable
+import com.jme3.export.binary.BinaryExporter
+import com.jme3.export.binary.BinaryImporter
+import com.jme3.scene.Spatial
+import com.jme3.texture.Texture
+import org.wysko.midis2jam2.Midis2jam2
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * A persistent cache of converted assets on disk, so that assets that have to be loaded from their sources are only
+ * parsed on the first launch. Models and textures are converted like the [AssetPack] converts them and written in
+ * jME's binary j3o format. Later launches map the cached file into memory and read it with the binary importer.
+ *
+ * Each asset is stored under the SHA-256 hash of its source, so an edited asset is converted again. Each build of
+ * midis2jam2 gets its own folder, so the cache is invalidated when the jar changes. Builds that are installed side by
+ * side keep their own folders; only the folders of builds that have not been used for [MAX_AGE_MILLIS], or of all but
+ * the [MAX_BUILDS] most recently used builds, are deleted. Within a launch, each asset is read once and copies of it
+ * are handed out, sharing its meshes and images.
+ *
+ * The cache is best-effort: if it cannot be read or written, assets are loaded from their sources as usual.
+ */
+class DiskAssetCache(
+    /** The folder that holds the cache of every build. */
+    private val root: File,
+
+    /** Identifies this build of midis2jam2, see [buildFingerprint]. */
+    private val build: String,
+) {
+
+    /** The folder of this build. It is created or marked as used, and old builds are pruned, on first use. */
+    private val folder: File by lazy {
+        File(root, build).apply {
+            mkdirs()
+            setLastModified(System.currentTimeMillis())
+            prune()
+        }
+    }
+
+    /** The models that have been loaded during this launch. */
+    private val models = ConcurrentHashMap<String, Spatial>()
+
+    /** The textures that have been loaded during this launch. */
+    private val textures = ConcurrentHashMap<String, Texture>()
+
+    /**
+     * Loads a model from the cache, or from its source if it is not cached yet. The model has no materials.
+     *
+     * @param assetManager the asset manager
+     * @param path         the path to the source model
+     * @return a copy of the model, sharing its meshes with every other copy
+     */
+    fun loadModel(assetManager: AssetManager, path: String): Spatial =
+        models.computeIfAbsent(path) { load(assetManager, it, AssetPack::packModel) as Spatial }.clone(false)
+
+    /**
+     * Loads a texture from the cache, or from its source if it is not cached yet.
+     *
+     * @param assetManager the asset manager
+     * @param path         the path to the source texture
+     * @return a copy of the texture, sharing its image with every other copy
+     */
+    fun loadTexture(assetManager: AssetManager, path: String): Texture =
+        textures.computeIfAbsent(path) { load(assetManager, it, AssetPack::packTexture) as Texture }.clone()
+
+    /** Deletes the folders of builds that are too old, or that are not among the most recently used. */
+    private fun prune() {
+        val now = System.currentTimeMillis()
+        root.listFiles()?.filter { it.isDirectory && it.name != build }?.sortedByDescending { it.lastModified() }
+            ?.forEachIndexed { index, other ->
+                if (index >= MAX_BUILDS - 1 || now - other.lastModified() > MAX_AGE_MILLIS) other.deleteRecursively()
+            }
+    }
+
+    /** Reads the asset at [path] from the cache, or converts it with [convert] and writes it to the cache. */
+    private fun load(assetManager: AssetManager, path: String, convert: (AssetManager, String) -> Savable): Savable {
+        val info = assetManager.locateAsset(AssetKey<Any>(path)) ?: throw AssetNotFoundException(path)
+        val file = File(folder, "${info.openStream().use { hash(it) }}.${path.substringAfterLast('.')}.j3o")
+
+        if (file.isFile) {
+            try {
+                return read(assetManager, file)
+            } catch (e: IOException) {
+                Midis2jam2.getLOGGER().warning("Could not read $path from the asset cache, converting it again.")
+                file.delete()
+            }
+        }
+
+        return convert(assetManager, path).also { write(it, file) }
+    }
+
+    /** Maps [file] into memory and reads the asset in it. */
+    private fun read(assetManager: AssetManager, file: File): Savable =
+        FileChannel.open(file.toPath()).use { channel ->
+            val buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+            val importer = BinaryImporter.getInstance()
+            importer.setAssetManager(assetManager)
+            importer.load(MappedInputStream(buffer))
+        }
+
+    /** Writes [savable] to [file]. It is written to a temporary file first, so a partly written file is never read. */
+    private fun write(savable: Savable, file: File) {
+        try {
+            val temporary = File.createTempFile(file.name, ".tmp", folder)
+            BinaryExporter.getInstance().save(savable, temporary)
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING)
+        } catch (e: IOException) {
+            Midis2jam2.getLOGGER().warning("Could not write ${file.name} to the asset cache.")
+        }
+    }
+
+    /** Reads the bytes of a [ByteBuffer] as a stream. */
+    private class MappedInputStream(private val buffer: ByteBuffer) : InputStream() {
+        override fun read(): Int = if (buffer.hasRemaining()) buffer.get().toInt() and 0xFF else -1
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            if (!buffer.hasRemaining()) return -1
+            val count = minOf(len, buffer.remaining())
+            buffer.get(b, off, count)
+            return count
+        }
+    }
+
+    companion object {
+        /** The system property that names the folder of the cache, or is `none` to disable the cache. */
+        const val ROOT_PROPERTY: String = "midis2jam2.cache"
+
+        /** The number of builds whose folders are kept, including the current build. */
+        const val MAX_BUILDS: Int = 3
+
+        /** How long the folder of a build is kept after it was last used. */
+        val MAX_AGE_MILLIS: Long = TimeUnit.DAYS.toMillis(30)
+
+        /**
+         * Returns the cache in the folder named by the [ROOT_PROPERTY] system property, or in `.midis2jam2/cache` in
+         * the user's home if it is not set, for this build. Returns null if the property is `none`.
+         */
+        @JvmStatic
+        fun fromSystemProperties(): DiskAssetCache? {
+            val property = System.getProperty(ROOT_PROPERTY)
+            if (property == "none") return null
+            val root = property?.let(::File) ?: File(System.getProperty("user.home"), ".midis2jam2/cache")
+            return DiskAssetCache(root, buildFingerprint())
+        }
+
+        /**
+         * Identifies this build of midis2jam2 by the path, size and modification time of the jar that it was loaded
+         * from. When it is loaded from a folder of classes, like in an IDE, only the path is used, so recompiling does
+         * not invalidate the cache; the assets themselves are still keyed by the hash of their source.
+         */
+        @JvmStatic
+        fun buildFingerprint(): String {
+            val source = runCatching {
+                File(DiskAssetCache::class.java.protectionDomain.codeSource.location.toURI())
+            }.getOrNull()
+            val description = if (source?.isDirectory == true) {
+                source.absolutePath
+            } else {
+                "${source?.absolutePath}:${source?.length()}:${source?.lastModified()}"
+            }
+            return hash(description.byteInputStream()).take(16)
+        }
+
+        /** Returns the SHA-256 hash of the bytes of a [stream], in hexadecimal. */
+        private fun hash(stream: InputStream): String {
+            val digest = MessageDigest.getInstance("SHA-256")
+            val bytes = ByteArray(8192)
+            var count = stream.read(bytes)
+            while (count != -1) {
+                digest.update(bytes, 0, count)
+                count = stream.read(bytes)
+            }
+            return digest.digest().joinToString("") { "%02x".format(it) }
+        }
+    }
+}
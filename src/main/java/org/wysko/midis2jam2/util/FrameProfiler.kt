@@ -0,0 +1,488 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.util
+
+import org.wysko.midis2jam2.Midis2jam2
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline
+import java.io.Closeable
+import java.io.File
+import java.io.IOException
+import java.io.Writer
+import java.lang.management.ManagementFactory
+import kotlin.math.abs
+
+/**
+ * Measures where the time of each frame goes: how long each instrument took to tick, how long the rest of the scene
+ * took to update, how many events elapsed, what the renderer drew, how much memory the render thread allocated, and
+ * how far the playback clock drifted from the audio. When MIDI arrives over the network, the depth of the jitter buffer
+ * and the number of lost packets are kept as well.
+ *
+ * The last [historySize] frames are kept in preallocated ring buffers, along with the time each class of instrument
+ * took on each of those frames. When a frame takes much longer than the frames before it, it is logged as a stutter
+ * along with the instrument that took the longest, so stutters can be traced to an instrument family. If a [log] is
+ * given, every frame is also written to it as one JSON object per line.
+ *
+ * Apart from reading the allocation counter, measuring a frame does not allocate. On some JVMs, like Java 8, reading
+ * the counter allocates a few small arrays itself; that overhead is measured once, by [allocationOverhead], and taken
+ * off each frame, so the allocation counter only sees the rest of the program. The profiler must only be used from
+ * the render thread.
+ */
+class FrameProfiler @JvmOverloads constructor(
+    /** Receives one JSON object per frame, or null to not keep a log. */
+    private var log: Writer? = null,
+
+    /** The number of frames kept in the rolling history. */
+    private val historySize: Int = DEFAULT_HISTORY_SIZE,
+) : Closeable {
+
+    /** True if frames are being measured, false otherwise. */
+    var isEnabled: Boolean = false
+        set(value) {
+            if (value && !field) {
+                /* Don't count what was allocated or elapsed while disabled */
+                lastAllocated = -1
+                currentEvents = 0
+            }
+            field = value
+        }
+
+    /** True if every frame is written to a log, false otherwise. */
+    val isLogging: Boolean
+        get() = log != null
+
+    /** The number of frames that have been measured. */
+    var frameCount: Long = 0
+        private set
+
+    /** The number of frames that have been measured as stutters. */
+    var stutterCount: Int = 0
+        private set
+
+    /* The measurements of each frame in the history, indexed by frame count modulo the history size */
+    private val frameNanos = LongArray(historySize)
+    private val tickNanos = LongArray(historySize)
+    private val sceneNanos = LongArray(historySize)
+    private val events = IntArray(historySize)
+    private val drawCalls = IntArray(historySize)
+    private val triangles = IntArray(historySize)
+    private val allocated = LongArray(historySize)
+    private val driftNanos = LongArray(historySize)
+    private val jitterDepth = IntArray(historySize)
+
+    /** The number of frames in the history. */
+    private var filled = 0
+
+    /** The sum of [frameNanos] over the history. */
+    private var totalFrameNanos = 0L
+
+    /** Each class of instrument is given a slot the first time it ticks. */
+    private val slots = HashMap<Class<*>, Int>()
+
+    /** The label of each slot, the instrument family followed by the class name. */
+    private val slotLabels = ArrayList<String>()
+
+    /** The number of slots each frame of the [slotHistory] has room for. */
+    private var slotCapacity = INITIAL_SLOT_CAPACITY
+
+    /** The time each slot took on each frame in the history, one row of [slotCapacity] per frame. */
+    private var slotHistory = LongArray(historySize * slotCapacity)
+
+    /** The sum of the time each slot took over the history. */
+    private var slotTotals = LongArray(slotCapacity)
+
+    /** The time each slot has taken on the current frame. */
+    private var slotFrame = LongArray(slotCapacity)
+
+    private var currentTickNanos = 0L
+    private var currentSceneNanos = 0L
+    private var currentEvents = 0
+    private var currentDrawCalls = 0
+    private var currentTriangles = 0
+    private var currentDriftNanos = 0L
+    private var currentJitterDepth = 0
+    private var lastAllocated = -1L
+
+    /** The [allocationOverhead], measured when the profiler is created rather than in the middle of a frame. */
+    private val overhead = allocationOverhead
+
+    /** True if a playback clock has reported its drift, false otherwise. */
+    private var hasClock = false
+
+    /* The packet counters of the network input, which are totals rather than per frame */
+    private var packetsReceived = 0L
+    private var packetsLost = 0L
+    private var packetsLate = 0L
+
+    /** True if a network input has reported its jitter buffer, false otherwise. */
+    private var hasNetwork = false
+
+    /* The last stutter, for the summary */
+    private var lastStutterTime = 0.0
+    private var lastStutterNanos = 0L
+    private var lastStutterSlot = -1
+
+    /** Holds the JSON of a frame before it is copied to [chars] and written, so that nothing is allocated. */
+    private val line = StringBuilder(LINE_CAPACITY)
+    private var chars = CharArray(LINE_CAPACITY)
+
+    /**
+     * Records the time an instrument took to tick on the current frame.
+     *
+     * @param instrument the instrument
+     * @param nanos      the time it took, in nanoseconds
+     */
+    fun instrumentTicked(instrument: Any, nanos: Long) {
+        val slot = slots[instrument.javaClass] ?: addSlot(instrument.javaClass)
+        slotFrame[slot] += nanos
+        currentTickNanos += nanos
+    }
+
+    /** Records that [count] events elapsed on the current frame. [Timelines][Timeline] call this as they advance. */
+    fun eventsElapsed(count: Int) {
+        currentEvents += count
+    }
+
+    /** Records time spent updating the scene, apart from ticking instruments, on the current frame. */
+    fun sceneUpdated(nanos: Long) {
+        currentSceneNanos += nanos
+    }
+
+    /**
+     * Records how far the playback clock drifted from the audio on the current frame.
+     *
+     * @param drift the drift, in seconds
+     */
+    fun synced(drift: Double) {
+        currentDriftNanos = (drift * 1E9).toLong()
+        hasClock = true
+    }
+
+    /**
+     * Records the state of the network input on the current frame.
+     *
+     * @param depth    the number of messages waiting in the jitter buffer
+     * @param received the number of packets received so far
+     * @param lost     the number of packets lost so far
+     * @param late     the number of packets that arrived too late to be played so far
+     */
+    fun networked(depth: Int, received: Long, lost: Long, late: Long) {
+        currentJitterDepth = depth
+        packetsReceived = received
+        packetsLost = lost
+        packetsLate = late
+        hasNetwork = true
+    }
+
+    /** Records what the renderer drew. */
+    fun rendered(drawCalls: Int, triangles: Int) {
+        currentDrawCalls = drawCalls
+        currentTriangles = triangles
+    }
+
+    /**
+     * Completes the current frame: adds it to the history, checks whether it is a stutter, and writes it to the log.
+     *
+     * @param time         the time in the MIDI file, in seconds
+     * @param frameSeconds the time since the last frame, in seconds
+     */
+    fun endFrame(time: Double, frameSeconds: Float) {
+        val index = (frameCount % historySize).toInt()
+        val row = index * slotCapacity
+        val slotCount = slotLabels.size
+
+        /* Forget the oldest frame, which is about to be overwritten */
+        if (filled == historySize) {
+            totalFrameNanos -= frameNanos[index]
+            for (slot in 0 until slotCount) {
+                slotTotals[slot] -= slotHistory[row + slot]
+            }
+            filled--
+        }
+        val average = if (filled == 0) 0L else totalFrameNanos / filled
+
+        val nanos = (frameSeconds * 1E9).toLong()
+        val allocatedNow = threadAllocatedBytes()
+        var slowest = -1
+        for (slot in 0 until slotCount) {
+            slotHistory[row + slot] = slotFrame[slot]
+            slotTotals[slot] += slotFrame[slot]
+            if (slotFrame[slot] > 0 && (slowest == -1 || slotFrame[slot] > slotFrame[slowest])) slowest = slot
+        }
+        frameNanos[index] = nanos
+        tickNanos[index] = currentTickNanos
+        sceneNanos[index] = currentSceneNanos
+        events[index] = currentEvents
+        drawCalls[index] = currentDrawCalls
+        triangles[index] = currentTriangles
+        allocated[index] = if (lastAllocated < 0 || allocatedNow < 0) {
+            0
+        } else {
+            (allocatedNow - lastAllocated - overhead).coerceAtLeast(0)
+        }
+        driftNanos[index] = currentDriftNanos
+        jitterDepth[index] = currentJitterDepth
+        totalFrameNanos += nanos
+        filled++
+
+        val stutter = filled > MIN_STUTTER_FRAMES && nanos > STUTTER_FLOOR_NANOS && nanos > average * STUTTER_FACTOR
+        if (stutter) {
+            stutterCount++
+            lastStutterTime = time
+            lastStutterNanos = nanos
+            lastStutterSlot = slowest
+            Midis2jam2.getLOGGER().warning {
+                String.format(
+                    "Stutter: frame=%d time=%.3f frameMs=%.1f averageMs=%.1f instrumentsMs=%.2f sceneMs=%.2f " +
+                            "slowest=%s slowestMs=%.2f allocatedBytes=%d",
+                    frameCount, time, nanos / 1E6, average / 1E6, currentTickNanos / 1E6, currentSceneNanos / 1E6,
+                    if (slowest == -1) "none" else slotLabels[slowest],
+                    if (slowest == -1) 0.0 else slotFrame[slowest] / 1E6, allocated[index]
+                )
+            }
+        }
+
+        log?.let { writeFrame(it, index, time, stutter, slowest) }
+
+        frameCount++
+        lastAllocated = allocatedNow
+        currentTickNanos = 0
+        currentSceneNanos = 0
+        currentEvents = 0
+        currentDrawCalls = 0
+        currentTriangles = 0
+        currentDriftNanos = 0
+        currentJitterDepth = 0
+        slotFrame.fill(0, 0, slotCount)
+    }
+
+    /**
+     * Describes the history in a few lines of text, for an on-screen display. This allocates, so it should not be
+     * called on every frame.
+     */
+    fun summary(): String {
+        if (filled == 0) return "Profiling..."
+        var maxFrame = 0L
+        var totalTick = 0L
+        var totalScene = 0L
+        var totalEvents = 0L
+        var totalAllocated = 0L
+        var maxDrift = 0L
+        var maxJitterDepth = 0
+        for (i in 0 until filled) {
+            maxFrame = maxOf(maxFrame, frameNanos[i])
+            totalTick += tickNanos[i]
+            totalScene += sceneNanos[i]
+            totalEvents += events[i]
+            totalAllocated += allocated[i]
+            maxDrift = maxOf(maxDrift, abs(driftNanos[i]))
+            maxJitterDepth = maxOf(maxJitterDepth, jitterDepth[i])
+        }
+        val latest = ((frameCount - 1) % historySize).toInt()
+        val seconds = totalFrameNanos / 1E9
+        return buildString {
+            append(
+                String.format(
+                    "Frame %.1f ms (average %.1f ms, max %.1f ms over %d frames)%n",
+                    frameNanos[latest] / 1E6, totalFrameNanos / 1E6 / filled, maxFrame / 1E6, filled
+                )
+            )
+            append(
+                String.format(
+                    "Instruments %.2f ms  Scene %.2f ms  Events %.1f/frame%n",
+                    totalTick / 1E6 / filled, totalScene / 1E6 / filled, totalEvents.toDouble() / filled
+                )
+            )
+            append(
+                String.format(
+                    "Draw calls %d  Triangles %d  Allocated %.1f KB/frame (%.1f MB/s)%n",
+                    drawCalls[latest], triangles[latest], totalAllocated / 1024.0 / filled,
+                    if (seconds > 0) totalAllocated / 1048576.0 / seconds else 0.0
+                )
+            )
+            if (hasClock) {
+                append(
+                    String.format(
+                        "A/V drift %.2f ms (max %.2f ms)%n", driftNanos[latest] / 1E6, maxDrift / 1E6
+                    )
+                )
+            }
+            if (hasNetwork) {
+                val sent = packetsReceived + packetsLost
+                append(
+                    String.format(
+                        "Jitter buffer %d (max %d)  Packets %d  Lost %d (%.2f%%)  Late %d%n", jitterDepth[latest],
+                        maxJitterDepth, packetsReceived, packetsLost, if (sent > 0) packetsLost * 100.0 / sent else 0.0,
+                        packetsLate
+                    )
+                )
+            }
+            append("Slowest:")
+            slotLabels.indices.sortedByDescending { slotTotals[it] }.take(SUMMARY_SLOTS).forEach {
+                append(String.format("  %s %.2f ms", slotLabels[it], slotTotals[it] / 1E6 / filled))
+            }
+            append(String.format("%nStutters %d", stutterCount))
+            if (stutterCount > 0) {
+                append(
+                    String.format(
+                        ", last at %.1f s: %.1f ms, %s", lastStutterTime, lastStutterNanos / 1E6,
+                        if (lastStutterSlot == -1) "no instrument" else slotLabels[lastStutterSlot]
+                    )
+                )
+            }
+        }
+    }
+
+    /** Flushes and closes the log, if there is one. */
+    override fun close() {
+        try {
+            log?.close()
+        } catch (e: IOException) {
+            Midis2jam2.getLOGGER().warning("Could not close the profiler log.")
+        }
+        log = null
+    }
+
+    /** Gives a class of instrument the next slot, making room for it if needed. */
+    private fun addSlot(type: Class<*>): Int {
+        val slot = slotLabels.size
+        if (slot == slotCapacity) {
+            val capacity = slotCapacity * 2
+            val history = LongArray(historySize * capacity)
+            for (frame in 0 until historySize) {
+                System.arraycopy(slotHistory, frame * slotCapacity, history, frame * capacity, slotCapacity)
+            }
+            slotHistory = history
+            slotTotals = slotTotals.copyOf(capacity)
+            slotFrame = slotFrame.copyOf(capacity)
+            slotCapacity = capacity
+        }
+        val packageName = type.getPackage()?.name ?: ""
+        val family = if ("family." in packageName) {
+            packageName.substringAfter("family.")
+        } else {
+            packageName.substringAfterLast('.')
+        }
+        slotLabels.add("$family/${type.simpleName}")
+        slots[type] = slot
+        return slot
+    }
+
+    /** Writes a frame to the log as a line of JSON. Times are in microseconds. */
+    private fun writeFrame(writer: Writer, index: Int, time: Double, stutter: Boolean, slowest: Int) {
+        line.setLength(0)
+        line.append("{\"frame\":").append(frameCount)
+            .append(",\"timeMs\":").append((time * 1E3).toLong())
+            .append(",\"frameUs\":").append(frameNanos[index] / 1000)
+            .append(",\"instrumentsUs\":").append(tickNanos[index] / 1000)
+            .append(",\"sceneUs\":").append(sceneNanos[index] / 1000)
+            .append(",\"events\":").append(events[index])
+            .append(",\"drawCalls\":").append(drawCalls[index])
+            .append(",\"triangles\":").append(triangles[index])
+            .append(",\"allocatedBytes\":").append(allocated[index])
+            .append(",\"driftUs\":").append(driftNanos[index] / 1000)
+            .append(",\"jitterDepth\":").append(jitterDepth[index])
+            .append(",\"packetsLost\":").append(packetsLost)
+            .append(",\"packetsLate\":").append(packetsLate)
+            .append(",\"stutter\":").append(stutter)
+            .append(",\"slowest\":")
+        if (slowest == -1) line.append("null") else line.append('"').append(slotLabels[slowest]).append('"')
+        line.append(",\"instruments\":{")
+        var first = true
+        for (slot in 0 until slotLabels.size) {
+            if (slotFrame[slot] == 0L) continue
+            if (!first) line.append(',')
+            line.append('"').append(slotLabels[slot]).append("\":").append(slotFrame[slot] / 1000)
+            first = false
+        }
+        line.append("}}\n")
+
+        if (chars.size < line.length) chars = CharArray(line.length * 2)
+        line.getChars(0, line.length, chars, 0)
+        try {
+            writer.write(chars, 0, line.length)
+        } catch (e: IOException) {
+            Midis2jam2.getLOGGER().warning("Could not write to the profiler log, it will not be written anymore.")
+            Midis2jam2.getLOGGER().warning(Utils.exceptionToLines(e))
+            close()
+        }
+    }
+
+    companion object {
+        /** The default number of frames kept in the history, ten seconds at 60 frames per second. */
+        const val DEFAULT_HISTORY_SIZE: Int = 600
+
+        /** A frame is a stutter if it takes this many times longer than the average frame in the history. */
+        private const val STUTTER_FACTOR = 2
+
+        /** A frame that takes less than this is never a stutter, however fast the frames before it were. */
+        private const val STUTTER_FLOOR_NANOS = 25_000_000L
+
+        /** Stutters are not looked for until the history has this many frames. */
+        private const val MIN_STUTTER_FRAMES = 30
+
+        /** The number of slots there is room for at first. Slots are added as new classes of instrument tick. */
+        private const val INITIAL_SLOT_CAPACITY = 32
+
+        /** The number of slowest classes of instruments to show in the summary. */
+        private const val SUMMARY_SLOTS = 3
+
+        /** The initial capacity of a line of the log. */
+        private const val LINE_CAPACITY = 1024
+
+        /** The number of times the [allocationOverhead] is measured. */
+        private const val OVERHEAD_SAMPLES = 1000
+
+        private val threads = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+
+        /**
+         * Creates a profiler that logs every frame to [file], replacing its contents.
+         *
+         * @throws IOException if the file cannot be opened for writing
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun toFile(file: File): FrameProfiler = FrameProfiler(file.bufferedWriter())
+
+        /**
+         * Returns the number of bytes the current thread has allocated, or -1 if the JVM cannot measure it. The bytes
+         * that this call allocates itself, which is [allocationOverhead], are partly counted in the result of this
+         * call and partly in the result of the next.
+         */
+        @JvmStatic
+        fun threadAllocatedBytes(): Long {
+            val bean = threads ?: return -1
+            if (!bean.isThreadAllocatedMemorySupported || !bean.isThreadAllocatedMemoryEnabled) return -1
+            return bean.getThreadAllocatedBytes(Thread.currentThread().id)
+        }
+
+        /**
+         * The number of bytes that a call to [threadAllocatedBytes] allocates, which is 0 on JVMs that read the
+         * counter without allocating. The difference between two consecutive readings is exactly one call's worth, so
+         * the overhead is the smallest such difference over a few tries, once the call has been compiled.
+         */
+        @JvmStatic
+        val allocationOverhead: Long by lazy {
+            var overhead = Long.MAX_VALUE
+            repeat(OVERHEAD_SAMPLES) {
+                val before = threadAllocatedBytes()
+                val after = threadAllocatedBytes()
+                overhead = minOf(overhead, after - before)
+            }
+            if (threadAllocatedBytes() < 0) 0 else overhead.coerceAtLeast(0)
+        }
+    }
+}
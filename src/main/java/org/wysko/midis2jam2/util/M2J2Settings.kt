@@ -16,10 +16,21 @@
  */
 package org.wysko.midis2jam2.util
 
+import java.io.File
+
 /** Provides some configurable settings for running the program. */
-data class M2J2Settings(
+data class M2J2Settings @JvmOverloads constructor(
     /** The amount to shift the audio by to fix A/V sync, in milliseconds. */
     val latencyFix: Int,
     /** The speed to transition instruments. */
     val transitionSpeed: InstrumentTransition,
-)
\ No newline at end of file
+    /** The estimated size of meshes that instruments can hold before idle ones are evicted, in megabytes. */
+    val instrumentMemoryBudget: Int = DEFAULT_INSTRUMENT_MEMORY_BUDGET,
+    /** If not null, every frame is profiled and written to this file, see [FrameProfiler]. */
+    val profileLog: File? = null,
+) {
+    companion object {
+        /** The default [instrumentMemoryBudget], in megabytes. */
+        const val DEFAULT_INSTRUMENT_MEMORY_BUDGET: Int = 256
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.util
+
+import com.jme3.material.Material
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Shares [Materials][Material] between every model that uses the same texture, [MatType] and brightness. Without
+ * this, every model would get its own material, which wastes memory and defeats the renderer's sorting by material.
+ *
+ * Each [acquire] of a material counts as a reference to it, and each [release] removes one. When a material has no
+ * references left, it is evicted. [clear] evicts every material, for when the scene is torn down. The references that
+ * something takes while it is built can be [recorded][record], so that they can all be released when it is torn down.
+ *
+ * Instruments are constructed concurrently, so the cache is thread-safe. Materials that are handed out are shared, so
+ * they must not be modified.
+ */
+class MaterialCache(
+    /** Creates a material, given its texture, type and brightness. */
+    private val factory: (texture: String, type: MatType, brightness: Float) -> Material,
+) {
+
+    /** The cached materials and their reference counts. */
+    private val entries = ConcurrentHashMap<Key, Entry>()
+
+    /** The key of each cached material, for releasing. */
+    private val keys: MutableMap<Material, Key> = Collections.synchronizedMap(IdentityHashMap())
+
+    /** The references that the current thread has taken and not released while [recording][record], if it is. */
+    private val recording = ThreadLocal<MutableList<Material>?>()
+
+    /** The number of materials in the cache. */
+    val size: Int
+        get() = entries.size
+
+    /**
+     * Returns the material for a texture, type and brightness, creating it if it is not already cached, and adds a
+     * reference to it.
+     *
+     * @param texture    the path to the texture
+     * @param type       the type of material
+     * @param brightness the brightness of the reflection, which is ignored for unshaded materials
+     * @return the shared material
+     */
+    fun acquire(texture: String, type: MatType, brightness: Float): Material =
+        acquire(Key(texture, type, if (type == MatType.UNSHADED) 0f else brightness, false))
+
+    /**
+     * Returns the variant of a cached material that can be drawn with hardware instancing, and moves the reference
+     * that the caller held on [material] to it. The instanced variant is shared like any other material.
+     *
+     * @param material a material that was returned by [acquire]
+     * @return the shared, instanced material
+     * @throws IllegalArgumentException if the material is not in the cache
+     */
+    fun toInstanced(material: Material): Material {
+        val key = keys[material] ?: throw IllegalArgumentException("The material is not in the cache.")
+        if (key.instanced) return material
+        return acquire(key.copy(instanced = true)).also { release(material) }
+    }
+
+    private fun acquire(key: Key): Material = entries.compute(key) { _, entry ->
+        (entry ?: Entry(create(key)).also { keys[it.material] = key }).apply {
+            references++
+        }
+    }!!.material.also { recording.get()?.add(it) }
+
+    /**
+     * Runs [block] on the current thread and adds to [references] each reference to a material that it acquires and
+     * does not release, once per reference. Releasing every material in [references] undoes what [block] acquired.
+     *
+     * @param references receives the references
+     * @param block      acquires materials, like by building an instrument
+     * @return what [block] returns
+     */
+    fun <T> record(references: MutableList<Material>, block: () -> T): T {
+        val previous = recording.get()
+        recording.set(references)
+        try {
+            return block()
+        } finally {
+            recording.set(previous)
+        }
+    }
+
+    private fun create(key: Key): Material = factory(key.texture, key.type, key.brightness).apply {
+        if (key.instanced) setBoolean("UseInstancing", true)
+    }
+
+    /**
+     * Removes a reference to a material that was returned by [acquire]. The material is evicted when it has no
+     * references left. Materials that are not in the cache are ignored.
+     */
+    fun release(material: Material) {
+        recording.get()?.let { references ->
+            val index = references.indexOfFirst { it === material }
+            if (index != -1) references.removeAt(index)
+        }
+        val key = keys[material] ?: return
+        entries.computeIfPresent(key) { _, entry ->
+            entry.references--
+            if (entry.references > 0) entry else null.also { keys.remove(material) }
+        }
+    }
+
+    /** Evicts every material, regardless of how many references it has. */
+    fun clear() {
+        entries.clear()
+        keys.clear()
+    }
+
+    /** Identifies a material in the cache. */
+    private data class Key(val texture: String, val type: MatType, val brightness: Float, val instanced: Boolean)
+
+    /** A cached material and the number of references to it. Only modified while its key is locked. */
+    private class Entry(val material: Material) {
+        var references = 0
+    }
+}
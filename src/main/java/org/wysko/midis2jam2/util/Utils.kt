@@ -17,6 +17,7 @@
 package org.wysko.midis2jam2.util
 
 import com.jme3.math.FastMath
+import com.jme3.scene.Spatial
 import com.jme3.scene.Spatial.CullHint
 import com.jme3.scene.Spatial.CullHint.Always
 import com.jme3.scene.Spatial.CullHint.Dynamic
@@ -129,6 +130,28 @@ object Utils {
     @JvmStatic
     fun rad(deg: Double) = (deg / 180 * FastMath.PI).toFloat()
 
+    /** Scratch space for [localAngle], one per thread since instruments are built off the render thread. */
+    private val ANGLES = ThreadLocal.withInitial { FloatArray(3) }
+
+    /**
+     * Sets the local rotation of a [spatial] from Euler angles, expressed in radians, by modifying its existing
+     * rotation in place. Use this instead of `localRotation = Quaternion().fromAngles(x, y, z)` on every frame, which
+     * allocates a quaternion each time.
+     */
+    @JvmStatic
+    fun setLocalAngles(spatial: Spatial, x: Float, y: Float, z: Float) {
+        /* Setting the rotation to itself marks the transform as needing a refresh */
+        spatial.localRotation = spatial.localRotation.fromAngles(x, y, z)
+    }
+
+    /**
+     * Returns the Euler angle, expressed in radians, of the local rotation of a [spatial] about the axis with
+     * [componentIndex] (0 for X, 1 for Y, 2 for Z), without allocating.
+     */
+    @JvmStatic
+    fun localAngle(spatial: Spatial, componentIndex: Int): Float =
+        spatial.localRotation.toAngles(ANGLES.get())[componentIndex]
+
 
     /**
      * Given a string containing the path to a resource file, retrieves the contents of the file and returns it as a
@@ -143,5 +166,6 @@ object Utils {
             .collect(Collectors.joining("\n"))
 
     @JvmStatic
+    @Throws(IOException::class)
     fun fileToString(file: File) = file.readText()
 }
\ No newline at end of file
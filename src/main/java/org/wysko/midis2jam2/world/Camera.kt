@@ -68,12 +68,14 @@ enum class Camera(locX: Float, locY: Float, locZ: Float, rotX: Float, rotY: Floa
         /** Checks the camera's position and ensures it stays within a certain bounding box. */
         @JvmStatic
         fun preventCameraFromLeaving(camera: com.jme3.renderer.Camera) {
+            /* The camera returns its own location, so it is clamped in place */
             val location = camera.location
-            camera.location = Vector3f(
+            location.set(
                 if (location.x > 0) min(location.x, 400f) else max(location.x, -400f),
                 if (location.y > 0) min(location.y, 432f) else max(location.y, -432f),
                 if (location.z > 0) min(location.z, 400f) else max(location.z, -400f)
             )
+            camera.location = location
         }
     }
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.world
+
+import com.jme3.math.Transform
+import com.jme3.scene.Geometry
+import com.jme3.scene.Node
+import com.jme3.scene.Spatial
+import com.jme3.scene.Spatial.CullHint
+import com.jme3.scene.instancing.InstancedGeometry
+import com.jme3.scene.instancing.InstancedNode
+import org.wysko.midis2jam2.Midis2jam2
+
+/**
+ * Draws the repeated parts of an instrument, like the keys of a keyboard or the bars of a mallet instrument, with
+ * hardware instancing. Every part that uses the same mesh and material is drawn with a single instanced draw call,
+ * so the cost of drawing an instrument no longer grows with its number of keys.
+ *
+ * Parts are moved under an [InstancedNode] that is attached to the parent node without a transform of its own. Their
+ * transforms relative to the parent node are kept, so they do not move. Each instance is drawn with the world
+ * transform of its geometry, so parts are animated as usual, but cull hints of instanced geometries are ignored.
+ * Parts are shown and hidden with [setShown] instead, which scales them.
+ *
+ * Instancing needs support from the renderer, see [Midis2jam2.isInstancingSupported]. Instruments fall back to a
+ * [RestingBatch] without it.
+ */
+class InstancedParts(
+    /** Context to the main class. */
+    private val context: Midis2jam2,
+
+    /** The node that the instances are attached to. */
+    parent: Node,
+) {
+
+    /** Groups the geometry of the parts by mesh and material. */
+    private val node: InstancedNode = InstancedNode("InstancedParts").also { parent.attachChild(it) }
+
+    /**
+     * Adds a part. Its materials are switched to their instanced variants and it is moved under the instanced node.
+     * The part must be a descendant of the parent node and must not be hidden with a cull hint. Once added, it is
+     * no longer moved by the nodes between it and the parent node.
+     */
+    fun add(spatial: Spatial) {
+        spatial.depthFirstTraversal {
+            if (it is Geometry) it.material = context.materialCache.toInstanced(it.material)
+        }
+        val transform = Transform().apply { set(spatial.localTransform) }
+        var ancestor = spatial.parent
+        while (ancestor != null && ancestor !== node.parent) {
+            transform.combineWithParent(ancestor.localTransform)
+            ancestor = ancestor.parent
+        }
+        spatial.localTransform = transform
+        node.attachChild(spatial)
+    }
+
+    /** Groups every part into instanced geometries. Parts must not be added after this is called. */
+    fun build() {
+        node.instance()
+
+        /* The bounds of instanced geometries do not follow their instances, so only the node is culled */
+        node.children.filterIsInstance<InstancedGeometry>().forEach { it.cullHint = CullHint.Never }
+    }
+
+    companion object {
+        /** Shows or hides an instanced [spatial] by scaling it. A hidden part collapses to a point. */
+        @JvmStatic
+        fun setShown(spatial: Spatial, shown: Boolean) {
+            spatial.setLocalScale(if (shown) 1f else 0f)
+        }
+    }
+}
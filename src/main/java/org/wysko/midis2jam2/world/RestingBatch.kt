@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package org.wysko.midis2jam2.world
+
+import com.jme3.material.Material
+import com.jme3.math.Transform
+import com.jme3.scene.Geometry
+import com.jme3.scene.Mesh
+import com.jme3.scene.Node
+import com.jme3.scene.Spatial
+import com.jme3.scene.Spatial.CullHint
+import com.jme3.scene.VertexBuffer
+import jme3tools.optimize.GeometryBatchFactory
+import java.nio.FloatBuffer
+
+/**
+ * Merges the resting geometry of an instrument into one mesh per material, so that the dozens or hundreds of parts of
+ * an instrument like a keyboard are drawn with a handful of draw calls instead of one per part.
+ *
+ * Instruments opt in by adding parts to a batch and then calling [build]. There are two kinds of parts:
+ *
+ * * Static parts, added with [addStatic], never move. They are merged and removed from the scene.
+ * * Swappable parts, added with [addPart], sit still most of the time but animate when a note plays. While a part is
+ *   [resting][Part.setResting], it is drawn by the batch and the part itself is hidden. When it leaves rest, its
+ *   vertices in the batch are collapsed and the part itself is shown, so it can be animated as usual.
+ *
+ * Only the geometry that is visible when the batch is built is merged. Parts must not be moved relative to the
+ * parent node after the batch is built.
+ */
+class RestingBatch(
+    /** The node that the batch is attached to. Every part must be a descendant of this node. */
+    private val parent: Node,
+) {
+
+    /** The static parts. */
+    private val statics: MutableList<Spatial> = ArrayList()
+
+    /** The swappable parts. */
+    private val parts: MutableList<Part> = ArrayList()
+
+    /** The merged geometries. */
+    private val batches: MutableList<Batch> = ArrayList()
+
+    /** Adds a part that never moves. It is removed from the scene when the batch is [built][build]. */
+    fun addStatic(spatial: Spatial) {
+        statics.add(spatial)
+    }
+
+    /** Adds a part that is swapped out of the batch when it animates. Its resting state is controlled by the part. */
+    fun addPart(spatial: Spatial): Part = Part(spatial).also { parts.add(it) }
+
+    /**
+     * Merges every part into one geometry per material and attaches them to the parent node. Swappable parts are
+     * hidden, since they begin resting.
+     */
+    fun build() {
+        /* Collect the visible geometry of each part, in parent space */
+        val owners = LinkedHashMap<Geometry, Part?>()
+        statics.forEach { spatial -> visibleGeometries(spatial).forEach { owners[inParentSpace(it)] = null } }
+        parts.forEach { part -> visibleGeometries(part.spatial).forEach { owners[inParentSpace(it)] = part } }
+
+        /* Meshes can only be merged if they have the same material and the same kinds of buffers */
+        owners.keys.groupBy { BatchKey(it.material, it.mesh.bufferList.map { buffer -> buffer.bufferType }.toSet()) }
+            .forEach { (key, geometries) ->
+                val mesh = Mesh()
+                GeometryBatchFactory.mergeGeometries(geometries, mesh)
+                val batch = Batch(Geometry("RestingBatch", mesh).apply { setMaterial(key.material) })
+                batches.add(batch)
+                parent.attachChild(batch.geometry)
+
+                /* Geometries are merged in order, so each one owns the next range of vertices */
+                var start = 0
+                geometries.forEach {
+                    owners[it]?.ranges?.add(Range(batch, start, it.vertexCount))
+                    start += it.vertexCount
+                }
+            }
+
+        statics.forEach { it.removeFromParent() }
+        statics.clear()
+        parts.forEach { it.spatial.cullHint = CullHint.Always }
+    }
+
+    /** Returns a detached copy of [geometry], sharing its mesh, whose local transform places it in parent space. */
+    private fun inParentSpace(geometry: Geometry): Geometry {
+        val transform = Transform().apply { set(geometry.localTransform) }
+        var node = geometry.parent
+        while (node != null && node !== parent) {
+            transform.combineWithParent(node.localTransform)
+            node = node.parent
+        }
+        return geometry.clone(false).apply {
+            localTransform = transform
+            updateGeometricState()
+        }
+    }
+
+    /** Returns every geometry under [spatial] that is not culled. */
+    private fun visibleGeometries(spatial: Spatial): List<Geometry> = when {
+        spatial.cullHint == CullHint.Always -> emptyList()
+        spatial is Geometry -> listOf(spatial)
+        spatial is Node -> spatial.children.flatMap { visibleGeometries(it) }
+        else -> emptyList()
+    }
+
+    /** A swappable part of the batch. */
+    class Part internal constructor(
+        /** The part. */
+        internal val spatial: Spatial,
+    ) {
+        /** The vertices of this part in each batch. */
+        internal val ranges: MutableList<Range> = ArrayList()
+
+        /** True if this part is drawn by the batch, false if it is drawn by itself. */
+        private var resting = true
+
+        /**
+         * Sets whether this part is resting. A resting part is drawn by the batch, otherwise the part is drawn by
+         * itself. Does nothing if the state has not changed.
+         */
+        fun setResting(resting: Boolean) {
+            if (this.resting == resting) return
+            this.resting = resting
+            ranges.forEach { if (resting) it.restore() else it.collapse() }
+            spatial.cullHint = if (resting) CullHint.Always else CullHint.Inherit
+        }
+    }
+
+    /** A range of vertices in a batch. */
+    internal class Range(private val batch: Batch, private val start: Int, private val count: Int) {
+
+        /** Collapses every vertex of this range onto its first, so its triangles have no area and are not drawn. */
+        fun collapse() {
+            val positions = batch.positions
+            for (i in start * 3 until (start + count) * 3) {
+                positions.put(i, batch.original[start * 3 + i % 3])
+            }
+            batch.markUpdated()
+        }
+
+        /** Moves every vertex of this range back to where it was when the batch was built. */
+        fun restore() {
+            val positions = batch.positions
+            for (i in start * 3 until (start + count) * 3) {
+                positions.put(i, batch.original[i])
+            }
+            batch.markUpdated()
+        }
+    }
+
+    /** A merged geometry. */
+    internal class Batch(val geometry: Geometry) {
+
+        /** The position buffer of the merged mesh. */
+        val positions: FloatBuffer = geometry.mesh.getFloatBuffer(VertexBuffer.Type.Position)
+
+        /** The positions as they were when the batch was built. */
+        val original: FloatArray = FloatArray(positions.limit()).also {
+            for (i in it.indices) it[i] = positions.get(i)
+        }
+
+        /** Flags the position buffer to be uploaded again. */
+        fun markUpdated() {
+            geometry.mesh.getBuffer(VertexBuffer.Type.Position).setUpdateNeeded()
+        }
+    }
+
+    /** Identifies the meshes that can be merged together. */
+    private data class BatchKey(val material: Material, val bufferTypes: Set<VertexBuffer.Type>)
+}
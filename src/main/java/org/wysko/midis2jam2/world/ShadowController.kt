@@ -30,6 +30,7 @@ import org.wysko.midis2jam2.instrument.family.guitar.Guitar
 import org.wysko.midis2jam2.instrument.family.percussion.Percussion
 import org.wysko.midis2jam2.instrument.family.piano.Keyboard
 import org.wysko.midis2jam2.instrument.family.strings.Harp
+import org.wysko.midis2jam2.util.AssetPack
 import org.wysko.midis2jam2.util.Jme3Constants.COLOR_MAP
 import org.wysko.midis2jam2.util.Jme3Constants.UNSHADED_MAT
 import org.wysko.midis2jam2.util.Utils
@@ -55,37 +56,70 @@ import org.wysko.midis2jam2.util.Utils
 class ShadowController(
     /** Context to midis2jam2. */
     private val context: Midis2jam2,
-    /** The number of harps. */
-    harpCount: Int,
-    /** The number of guitars. */
-    guitarCount: Int,
-    /** The number of bass guitars. */
-    bassGuitarCount: Int,
 ) {
     /** The keyboard shadow. */
     private val keyboardShadow: Spatial = shadow(context, "Assets/PianoShadow.obj", "Assets/KeyboardShadow.png")
 
     /** The harp shadows. */
-    private val harpShadows: MutableList<Spatial>
+    private val harpShadows: MutableList<Spatial> = ArrayList()
 
     /** The guitar shadows. */
-    private val guitarShadows: MutableList<Spatial>
+    private val guitarShadows: MutableList<Spatial> = ArrayList()
 
     /** The bass guitar shadows. */
-    private val bassGuitarShadows: MutableList<Spatial>
+    private val bassGuitarShadows: MutableList<Spatial> = ArrayList()
 
     /** Call this method on each frame to update the visibility of shadows. */
     fun tick() {
         /* Update keyboard shadow */
-        val isKeyboardVisible = context.instruments.any { it is Keyboard && it.isVisible }
+        val isKeyboardVisible = context.instrumentRegistry.anyVisible(Keyboard::class.java)
         keyboardShadow.cullHint = Utils.cullHint(isKeyboardVisible)
 
+        /* Instruments can finish loading during playback, so add shadows for any new ones */
+        addShadows(harpShadows, Harp::class.java, ::harpShadow)
+        addShadows(guitarShadows, Guitar::class.java, ::guitarShadow)
+        addShadows(bassGuitarShadows, BassGuitar::class.java, ::bassGuitarShadow)
+
         /* Update rest of shadows */
         updateArrayShadows(harpShadows, Harp::class.java)
         updateArrayShadows(guitarShadows, Guitar::class.java)
         updateArrayShadows(bassGuitarShadows, BassGuitar::class.java)
     }
 
+    /**
+     * Creates shadows, with [create], until there is one for each instrument of a [clazz], and attaches them to the
+     * root node.
+     */
+    private inline fun addShadows(
+        shadows: MutableList<Spatial>,
+        clazz: Class<out Instrument>,
+        create: (Int) -> Spatial
+    ) {
+        for (i in shadows.size until context.instrumentRegistry.count(clazz)) {
+            shadows.add(create(i).also { context.rootNode.attachChild(it) })
+        }
+    }
+
+    /** Creates the shadow of the [i]th harp. */
+    private fun harpShadow(i: Int): Spatial = shadow(context, "Assets/HarpShadow.obj", "Assets/HarpShadow.png").apply {
+        setLocalTranslation(-126f, 0.1f, -30f + (60f * i))
+        localRotation = Quaternion().fromAngles(0f, Utils.rad(-35f), 0f)
+    }
+
+    /** Creates the shadow of the [i]th guitar. */
+    private fun guitarShadow(i: Int): Spatial =
+        shadow(context, "Assets/GuitarShadow.obj", "Assets/GuitarShadow.png").apply {
+            setLocalTranslation(43.431f + 5 * (i * 1.5f), 0.1f + 0.01f * (i * 1.5f), 7.063f)
+            localRotation = Quaternion().fromAngles(0f, Utils.rad(-49f), 0f)
+        }
+
+    /** Creates the shadow of the [i]th bass guitar. */
+    private fun bassGuitarShadow(i: Int): Spatial =
+        shadow(context, "Assets/BassShadow.obj", "Assets/BassShadow.png").apply {
+            setLocalTranslation(51.5863f + 7 * i, 0.1f + 0.01f * i, -16.5817f)
+            localRotation = Quaternion().fromAngles(0f, Utils.rad(-43.5), 0f)
+        }
+
     /**
      * For instruments that have multiple shadows for multiple instances of an instrument (e.g., guitar, bass guitar,
      * harp), sets the correct number of shadows that should be visible. Note: the shadows for mallets are direct
@@ -96,8 +130,10 @@ class ShadowController(
      * @param clazz   the class of the instrument
      */
     private fun updateArrayShadows(shadows: MutableList<Spatial>, clazz: Class<out Instrument>) {
-        val numVisible = context.instruments.count { it != null && clazz.isInstance(it) && it.isVisible }
-        shadows.forEachIndexed { index, shadow -> shadow.cullHint = Utils.cullHint(index < numVisible) }
+        val numVisible = context.instrumentRegistry.visibleCount(clazz)
+        for (index in shadows.indices) {
+            shadows[index].cullHint = Utils.cullHint(index < numVisible)
+        }
     }
 
     companion object {
@@ -111,10 +147,10 @@ class ShadowController(
          */
         @JvmStatic
         @Contract(pure = true)
-        fun shadow(context: Midis2jam2, model: String?, texture: String?): Spatial {
-            val shadow = context.assetManager.loadModel(model)
+        fun shadow(context: Midis2jam2, model: String, texture: String): Spatial {
+            val shadow = AssetPack.loadModel(context.assetManager, model)
             val material = Material(context.assetManager, UNSHADED_MAT)
-            material.setTexture(COLOR_MAP, context.assetManager.loadTexture(texture))
+            material.setTexture(COLOR_MAP, AssetPack.loadTexture(context.assetManager, texture))
             material.additionalRenderState.blendMode = RenderState.BlendMode.Alpha
             material.setFloat("AlphaDiscardThreshold", 0.01F)
             shadow.queueBucket = RenderQueue.Bucket.Transparent
@@ -128,35 +164,5 @@ class ShadowController(
         keyboardShadow.move(-47f, 0.1f, -3f)
         keyboardShadow.rotate(0f, Utils.rad(45f), 0f)
         context.rootNode.attachChild(keyboardShadow)
-
-        /* Load harp shadows */
-        harpShadows = ArrayList()
-        for (i in 0 until harpCount) {
-            val shadow = shadow(context, "Assets/HarpShadow.obj", "Assets/HarpShadow.png")
-            harpShadows.add(shadow)
-            context.rootNode.attachChild(shadow)
-            shadow.setLocalTranslation(-126f, 0.1f, -30f + (60f * i))
-            shadow.localRotation = Quaternion().fromAngles(0f, Utils.rad(-35f), 0f)
-        }
-
-        /* Add guitar shadows */
-        guitarShadows = ArrayList()
-        for (i in 0 until guitarCount) {
-            val shadow = shadow(context, "Assets/GuitarShadow.obj", "Assets/GuitarShadow.png")
-            guitarShadows.add(shadow)
-            context.rootNode.attachChild(shadow)
-            shadow.setLocalTranslation(43.431f + 5 * (i * 1.5f), 0.1f + 0.01f * (i * 1.5f), 7.063f)
-            shadow.localRotation = Quaternion().fromAngles(0f, Utils.rad(-49f), 0f)
-        }
-
-        /* Add bass guitar shadows */
-        bassGuitarShadows = ArrayList()
-        for (i in 0 until bassGuitarCount) {
-            val shadow = shadow(context, "Assets/BassShadow.obj", "Assets/BassShadow.png")
-            bassGuitarShadows.add(shadow)
-            context.rootNode.attachChild(shadow)
-            shadow.setLocalTranslation(51.5863f + 7 * i, 0.1f + 0.01f * i, -16.5817f)
-            shadow.localRotation = Quaternion().fromAngles(0f, Utils.rad(-43.5), 0f)
-        }
     }
 }
\ No newline at end of file
@@ -23,7 +23,6 @@ import org.wysko.midis2jam2.instrument.Instrument
 import org.wysko.midis2jam2.instrument.family.chromaticpercussion.Mallets
 import org.wysko.midis2jam2.instrument.family.piano.Keyboard
 import org.wysko.midis2jam2.util.Utils
-import java.util.*
 
 /**
  * Responsible for setting the visibility of the keyboard and mallet stands. The stand is simply shown if there is at
@@ -51,9 +50,7 @@ class StandController(
      */
     private fun setStandVisibility(stand: Spatial, clazz: Class<out Instrument>) {
         when {
-            context.instruments
-                .filter { obj: Instrument? -> Objects.nonNull(obj) }
-                .any { i: Instrument -> i.isVisible && clazz.isInstance(i) } -> {
+            context.instrumentRegistry.anyVisible(clazz) -> {
                 stand.cullHint = CullHint.Dynamic
             }
             else -> {
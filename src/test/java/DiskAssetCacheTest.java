@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.DesktopAssetManager;
+import com.jme3.asset.plugins.FileLocator;
+import com.jme3.scene.Spatial;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wysko.midis2jam2.util.DiskAssetCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests converting, writing and reading assets with the {@link DiskAssetCache}. */
+class DiskAssetCacheTest {
+	
+	@TempDir
+	Path folder;
+	
+	private final AssetManager assetManager = new DesktopAssetManager(true);
+	
+	private File root;
+	
+	@BeforeEach
+	void setUp() throws IOException {
+		Path assets = Files.createDirectory(folder.resolve("assets"));
+		Files.write(assets.resolve("Quad.obj"),
+				"v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nf 1 2 3\nf 1 3 4\n".getBytes(StandardCharsets.US_ASCII));
+		assetManager.registerLocator(assets.toString(), FileLocator.class);
+		root = folder.resolve("cache").toFile();
+	}
+	
+	@Test
+	void testCachedAcrossLaunches() {
+		Spatial parsed = new DiskAssetCache(root, "build").loadModel(assetManager, "Quad.obj");
+		File[] cached = new File(root, "build").listFiles();
+		assertNotNull(cached);
+		assertEquals(1, cached.length, "The converted model is written to the cache.");
+		
+		Spatial read = new DiskAssetCache(root, "build").loadModel(assetManager, "Quad.obj");
+		assertEquals(parsed.getTriangleCount(), read.getTriangleCount(), "A later launch reads the same model.");
+	}
+	
+	@Test
+	void testOldBuildsPruned() {
+		long now = System.currentTimeMillis();
+		String[] builds = {"ancient", "older", "old", "recent"};
+		long[] ages = {TimeUnit.DAYS.toMillis(60), TimeUnit.HOURS.toMillis(3), TimeUnit.HOURS.toMillis(2), 0};
+		for (int i = 0; i < builds.length; i++) {
+			File build = new File(root, builds[i]);
+			assertTrue(build.mkdirs());
+			assertTrue(build.setLastModified(now - ages[i]));
+		}
+		
+		new DiskAssetCache(root, "recent").loadModel(assetManager, "Quad.obj");
+		assertTrue(new File(root, "old").exists(), "Another build that was used recently is kept.");
+		assertTrue(new File(root, "older").exists());
+		assertFalse(new File(root, "ancient").exists(), "A build that has not been used for a long time is deleted.");
+		
+		new DiskAssetCache(root, "new").loadModel(assetManager, "Quad.obj");
+		assertTrue(new File(root, "new").exists());
+		assertTrue(new File(root, "recent").exists());
+		assertTrue(new File(root, "old").exists());
+		assertFalse(new File(root, "older").exists(), "Only the most recently used builds are kept.");
+	}
+}
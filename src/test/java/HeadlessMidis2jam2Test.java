@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.wysko.midis2jam2.HeadlessMidis2jam2;
+import org.wysko.midis2jam2.instrument.Instrument;
+import org.wysko.midis2jam2.instrument.family.ensemble.PizzicatoStrings;
+import org.wysko.midis2jam2.instrument.family.piano.Keyboard;
+import org.wysko.midis2jam2.midi.*;
+import org.wysko.midis2jam2.util.AssetPack;
+import org.wysko.midis2jam2.util.FrameProfiler;
+import org.wysko.midis2jam2.util.InstrumentTransition;
+import org.wysko.midis2jam2.util.M2J2Settings;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.ShortMessage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/** Tests simulating a MIDI file with {@link HeadlessMidis2jam2}, without a window or renderer. */
+class HeadlessMidis2jam2Test {
+	
+	/** Loads assets from their source, so that the tests do not write to the asset cache in the user's home. */
+	@BeforeAll
+	static void disableDiskCache() {
+		AssetPack.setDiskCache(null);
+	}
+	
+	/** Returns a file where a piano plays a C major scale, one note per beat at 120 BPM. */
+	private static MidiFile pianoScale() {
+		List<MidiEvent> events = new ArrayList<>();
+		events.add(new MidiProgramEvent(0, 0, 0));
+		int[] scale = {60, 62, 64, 65, 67, 69, 71, 72};
+		for (int i = 0; i < scale.length; i++) {
+			events.add(new MidiNoteOnEvent(i * 480L, 0, scale[i], 100));
+			events.add(new MidiNoteOffEvent(i * 480L + 240, 0, scale[i]));
+		}
+		
+		MidiFile file = new MidiFile();
+		file.setDivision((short) 480);
+		file.setTracks(new MidiTrack[]{null, new MidiTrack(events)});
+		file.calculateTempoMap();
+		file.assignEventTimes();
+		return file;
+	}
+	
+	@Test
+	void testSimulate() {
+		MidiFile file = pianoScale();
+		try (HeadlessMidis2jam2 midis2jam2 = new HeadlessMidis2jam2(file,
+				new M2J2Settings(0, InstrumentTransition.NONE))) {
+			midis2jam2.initializeHeadless();
+			assertEquals(1, midis2jam2.instruments.size(), "One instrument is built for the channel.");
+			
+			midis2jam2.seek(0);
+			HeadlessMidis2jam2.SimulationResult result = midis2jam2.simulate(1 / 60F);
+			assertEquals(Math.ceil(file.lengthInSeconds() * 60), result.getFrames(), 1,
+					"The file is stepped at 60 fps.");
+			assertTrue(midis2jam2.getTimeSinceStart() >= file.lengthInSeconds(), "The simulation runs to the end.");
+		}
+	}
+	
+	/**
+	 * Adds a channel that repeats a pattern until {@code end}, which is a tick. Each note of the pattern starts
+	 * {@code spacing} ticks after the last and lasts {@code length} ticks, so notes overlap if it is longer.
+	 */
+	private static void repeat(List<MidiEvent> events, int channel, int program, int[] pattern, int spacing,
+	                           int length, long end) {
+		events.add(new MidiProgramEvent(0, channel, program));
+		for (long tick = 0, i = 0; tick + length <= end; tick += spacing, i++) {
+			int note = pattern[(int) (i % pattern.length)];
+			events.add(new MidiNoteOnEvent(tick, channel, note, 100));
+			events.add(new MidiNoteOffEvent(tick + length, channel, note));
+		}
+	}
+	
+	@Test
+	void testSteadyStateAllocation() {
+		/* A band plays for twenty seconds at 120 BPM: a piano holds a chord while the other families repeat figures */
+		long end = 480 * 40;
+		List<MidiEvent> events = new ArrayList<>();
+		events.add(new MidiProgramEvent(0, 0, 0));
+		for (int note : new int[]{60, 64, 67}) {
+			events.add(new MidiNoteOnEvent(0, 0, note, 100));
+			events.add(new MidiNoteOffEvent(end, 0, note));
+		}
+		
+		/* Drums, hit with sticks: kick and snare on the beats and a hi-hat on every eighth note */
+		repeat(events, 9, 0, new int[]{36, 38}, 480, 120, end);
+		repeat(events, 9, 0, new int[]{42}, 240, 60, end);
+		
+		/* A guitar line on the fretted strings, and an alto sax line whose notes overlap, so it plays with clones */
+		repeat(events, 1, 25, new int[]{52, 55, 57, 59, 57, 55}, 240, 200, end);
+		repeat(events, 2, 65, new int[]{67, 69, 71, 72}, 480, 720, end);
+		
+		/* Accordion chords, which animate the bellows, and a trombone line, which moves the slide */
+		for (int note : new int[]{53, 57, 60}) {
+			repeat(events, 3, 21, new int[]{note, note + 2}, 960, 900, end);
+		}
+		repeat(events, 4, 57, new int[]{41, 43, 45, 46}, 480, 400, end);
+		events.sort(Comparator.comparingLong(MidiEvent::getTime));
+		
+		MidiFile file = new MidiFile();
+		file.setDivision((short) 480);
+		file.setTracks(new MidiTrack[]{null, new MidiTrack(events)});
+		file.calculateTempoMap();
+		file.assignEventTimes();
+		
+		try (HeadlessMidis2jam2 midis2jam2 = new HeadlessMidis2jam2(file,
+				new M2J2Settings(0, InstrumentTransition.NORMAL))) {
+			midis2jam2.initializeHeadless();
+			midis2jam2.seek(0);
+			
+			/* Let the instruments settle and every tick path warm up, then measure the frames while the band plays */
+			for (int i = 0; i < 300; i++) {
+				midis2jam2.step(1 / 60F);
+			}
+			HeadlessMidis2jam2.SimulationResult result = midis2jam2.simulate(1 / 60F);
+			assumeTrue(result.getBytesAllocated() >= 0, "The JVM can measure the memory allocated by a thread.");
+			assertTrue(result.bytesPerFrame() < 64, "Steady-state frames allocate next to nothing: " + result);
+		}
+	}
+	
+	@Test
+	void testProfiler() {
+		try (HeadlessMidis2jam2 midis2jam2 = new HeadlessMidis2jam2(pianoScale(),
+				new M2J2Settings(0, InstrumentTransition.NONE))) {
+			midis2jam2.initializeHeadless();
+			midis2jam2.seek(0);
+			
+			FrameProfiler profiler = midis2jam2.getProfiler();
+			assertFalse(profiler.isEnabled(), "The profiler is disabled unless there is a log.");
+			profiler.setEnabled(true);
+			HeadlessMidis2jam2.SimulationResult result = midis2jam2.simulate(1 / 60F);
+			
+			assertEquals(result.getFrames(), profiler.getFrameCount(), "Every frame is measured.");
+			assertTrue(profiler.summary().contains("piano/Keyboard"), "Tick time is attributed to the piano family.");
+		}
+	}
+	
+	@Test
+	void testLive() throws InvalidMidiDataException {
+		try (HeadlessMidis2jam2 midis2jam2 = new HeadlessMidis2jam2(MidiFile.live(),
+				new M2J2Settings(0, InstrumentTransition.NONE))) {
+			midis2jam2.initializeHeadless();
+			LiveMidiReceiver receiver = new LiveMidiReceiver();
+			midis2jam2.listen(receiver);
+			midis2jam2.step(1 / 60F);
+			assertTrue(midis2jam2.instruments.isEmpty(), "No instrument is created before the stream plays.");
+			
+			/* Messages sent straight to the receiver are played, like a loopback device */
+			receiver.send(new ShortMessage(ShortMessage.NOTE_ON, 0, 60, 100), -1);
+			midis2jam2.step(1 / 60F);
+			assertEquals(1, midis2jam2.instruments.size(), "An instrument is created for the first note.");
+			Instrument piano = midis2jam2.instruments.get(0);
+			assertTrue(piano instanceof Keyboard, "The channel plays program 0 until its program changes.");
+			assertTrue(piano.isVisible(), "The note is shown on the next frame.");
+			
+			receiver.send(new ShortMessage(ShortMessage.NOTE_OFF, 0, 60, 0), -1);
+			for (int i = 0; i < 300; i++) {
+				midis2jam2.step(1 / 60F);
+			}
+			assertFalse(piano.isVisible(), "The piano hides a while after its note ends.");
+			
+			receiver.send(new ShortMessage(ShortMessage.PROGRAM_CHANGE, 1, 45, 0), -1);
+			receiver.send(new ShortMessage(ShortMessage.PROGRAM_CHANGE, 2, 10, 0), -1);
+			midis2jam2.step(1 / 60F);
+			assertEquals(3, midis2jam2.instruments.size(), "Instruments are created when the program changes.");
+			assertTrue(midis2jam2.instruments.get(1) instanceof PizzicatoStrings);
+			assertTrue(midis2jam2.instruments.get(2) instanceof Keyboard,
+					"An instrument that cannot be played live is replaced by a piano.");
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import com.jme3.material.Material;
+import org.junit.jupiter.api.Test;
+import org.wysko.midis2jam2.util.MatType;
+import org.wysko.midis2jam2.util.MaterialCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests sharing and eviction of materials in the {@link MaterialCache}. */
+class MaterialCacheTest {
+	
+	private final MaterialCache cache = new MaterialCache((texture, type, brightness) -> new Material());
+	
+	@Test
+	void testSharing() {
+		Material wood = cache.acquire("Assets/Wood.bmp", MatType.UNSHADED, 0);
+		assertSame(wood, cache.acquire("Assets/Wood.bmp", MatType.UNSHADED, 0.5F),
+				"Unshaded materials ignore brightness.");
+		assertNotSame(wood, cache.acquire("Assets/Wood.bmp", MatType.REFLECTIVE, 0.9F));
+		assertNotSame(cache.acquire("Assets/Wood.bmp", MatType.REFLECTIVE, 0.8F),
+				cache.acquire("Assets/Wood.bmp", MatType.REFLECTIVE, 0.9F));
+		assertEquals(3, cache.getSize());
+	}
+	
+	@Test
+	void testRelease() {
+		Material first = cache.acquire("Assets/Wood.bmp", MatType.UNSHADED, 0);
+		cache.acquire("Assets/Wood.bmp", MatType.UNSHADED, 0);
+		
+		cache.release(first);
+		assertEquals(1, cache.getSize(), "The material is kept while it has references.");
+		cache.release(first);
+		assertEquals(0, cache.getSize(), "The material is evicted when it has no references.");
+		
+		assertNotSame(first, cache.acquire("Assets/Wood.bmp", MatType.UNSHADED, 0),
+				"An evicted material is created again.");
+	}
+	
+	@Test
+	void testRecord() {
+		Material shared = cache.acquire("Assets/Wood.bmp", MatType.UNSHADED, 0);
+		List<Material> references = new ArrayList<>();
+		cache.record(references, () -> {
+			cache.acquire("Assets/Wood.bmp", MatType.UNSHADED, 0);
+			Material metal = cache.acquire("Assets/Metal.bmp", MatType.REFLECTIVE, 0.9F);
+			return cache.toInstanced(metal);
+		});
+		assertEquals(2, references.size(), "Each reference that is still held is recorded.");
+		assertTrue(references.contains(shared));
+		
+		references.forEach(cache::release);
+		assertEquals(1, cache.getSize(), "Releasing the recorded references only keeps what was held before.");
+		assertSame(shared, cache.acquire("Assets/Wood.bmp", MatType.UNSHADED, 0));
+	}
+}
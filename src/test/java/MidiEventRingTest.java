@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.wysko.midis2jam2.midi.MidiEventRing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Tests handing messages from one thread to another through a {@link MidiEventRing}. */
+class MidiEventRingTest {
+	
+	@Test
+	void testBackpressure() {
+		MidiEventRing ring = new MidiEventRing(5);
+		assertEquals(8, ring.getCapacity(), "The capacity is rounded up to a power of two.");
+		for (int i = 0; i < 8; i++) {
+			assertTrue(ring.offer(MidiEventRing.pack(0x90, i, 100), i));
+		}
+		assertFalse(ring.offer(MidiEventRing.pack(0x90, 8, 100), 8), "A full ring drops new messages.");
+		assertEquals(1, ring.getDropped());
+		assertEquals(8, ring.getHighWaterMark());
+		
+		int[] next = {0};
+		assertEquals(8, ring.drain((message, timestamp) -> {
+			assertEquals(0x90, MidiEventRing.status(message));
+			assertEquals(next[0]++, MidiEventRing.data1(message), "Messages are drained oldest first.");
+			assertEquals(100, MidiEventRing.data2(message));
+		}));
+		assertEquals(0, ring.getSize());
+		assertTrue(ring.offer(MidiEventRing.pack(0x80, 0, 0), 9), "Draining frees space.");
+	}
+	
+	@Test
+	void testFlood() throws InterruptedException {
+		MidiEventRing ring = new MidiEventRing(256);
+		int count = 200_000;
+		Thread producer = new Thread(() -> {
+			for (int i = 0; i < count; i++) {
+				/* Retry instead of dropping, so every message can be checked */
+				while (!ring.offer(MidiEventRing.pack(0x90 | (i & 0x0F), i & 0x7F, (i >> 7) & 0x7F), i)) {
+					Thread.yield();
+				}
+			}
+		});
+		producer.start();
+		
+		long[] received = {0};
+		while (received[0] < count) {
+			ring.drain((message, timestamp) -> {
+				int i = (int) timestamp;
+				assertEquals(received[0], timestamp, "Messages arrive in order, without gaps.");
+				assertEquals(MidiEventRing.pack(0x90 | (i & 0x0F), i & 0x7F, (i >> 7) & 0x7F), message);
+				received[0]++;
+			});
+		}
+		producer.join();
+		assertEquals(count, ring.getOffered(), "Only accepted messages are counted as offered.");
+		assertEquals(0, ring.getSize());
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.wysko.midis2jam2.midi.*;
+
+import javax.sound.midi.InvalidMidiDataException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Tests reading standard MIDI files into a {@link MidiFile}. */
+class MidiFileParserTest {
+	
+	private static MidiFile read(int... bytes) throws Exception {
+		byte[] data = new byte[bytes.length];
+		for (int i = 0; i < bytes.length; i++) {
+			data[i] = (byte) bytes[i];
+		}
+		return MidiFile.readMidiFile(ByteBuffer.wrap(data));
+	}
+	
+	@Test
+	void testRunningStatusAndTempo() throws Exception {
+		MidiFile file = read(
+				'M', 'T', 'h', 'd', 0, 0, 0, 6, 0, 0, 0, 1, 0x01, 0xE0, // Type 0, one track, 480 ticks per beat
+				'M', 'T', 'r', 'k', 0, 0, 0, 25,
+				0x00, 0xFF, 0x51, 0x03, 0x07, 0xA1, 0x20, // Tempo, 120 BPM
+				0x00, 0x90, 60, 100, // Note on
+				0x83, 0x60, 60, 0, // Running status note on with zero velocity, 480 ticks later
+				0x00, 0xC0, 5, // Program change
+				0x00, 0xFF, 0x2F, 0x00 // End of track
+		);
+		
+		assertEquals(480, file.getDivision(), "The division is read from the header.");
+		assertEquals(2, file.getTracks().length, "Track 0 is reserved.");
+		
+		List<MidiEvent> events = file.getTracks()[1].getEvents();
+		assertEquals(4, events.size(), "The end of track is not an event.");
+		assertEquals(new MidiTempoEvent(0, 500_000), events.get(0));
+		assertEquals(new MidiNoteOnEvent(0, 0, 60, 100), events.get(1));
+		assertEquals(new MidiNoteOffEvent(480, 0, 60), events.get(2), "Zero velocity note ons are note offs.");
+		assertEquals(new MidiProgramEvent(480, 0, 5), events.get(3));
+		assertEquals(0.5, file.eventInSeconds(events.get(2)), 1E-9, "Events are assigned their time in seconds.");
+	}
+	
+	@Test
+	void testMalformedLengths() {
+		/* A text meta event whose length is 2^32 - 1, which is negative as an int */
+		assertThrows(InvalidMidiDataException.class, () -> read(
+				'M', 'T', 'h', 'd', 0, 0, 0, 6, 0, 0, 0, 1, 0x01, 0xE0,
+				'M', 'T', 'r', 'k', 0, 0, 0, 12,
+				0x00, 0xFF, 0x01, 0x8F, 0xFF, 0xFF, 0xFF, 0x7F, 'a',
+				0x00, 0xFF, 0x2F
+		), "A negative length is invalid.");
+		
+		/* A sysex event that is longer than the rest of its track */
+		assertThrows(InvalidMidiDataException.class, () -> read(
+				'M', 'T', 'h', 'd', 0, 0, 0, 6, 0, 0, 0, 1, 0x01, 0xE0,
+				'M', 'T', 'r', 'k', 0, 0, 0, 8,
+				0x00, 0xF0, 0x40, 0x7E, 0x7F, 0xF7,
+				0x00, 0xFF,
+				0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+				0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0
+		), "A length that runs past the end of its track is invalid.");
+	}
+}
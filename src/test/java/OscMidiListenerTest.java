@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.wysko.midis2jam2.midi.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests receiving MIDI over the network with an {@link OscMidiListener}. */
+class OscMidiListenerTest {
+	
+	private static final long MS = 1_000_000;
+	
+	@Test
+	void testJitterBuffer() {
+		JitterBuffer buffer = new JitterBuffer(10 * MS);
+		List<Integer> released = new ArrayList<>();
+		MidiEventRing.Sink sink = (message, timestamp) -> released.add(MidiEventRing.data1(message));
+		
+		/* The fastest packet took 1 ms, so every message is due 11 ms after it was sent */
+		assertTrue(buffer.insert(0, 0, MidiEventRing.pack(0x90, 0, 100), MS));
+		assertTrue(buffer.insert(2, 2 * MS, MidiEventRing.pack(0x90, 2, 100), 3 * MS));
+		assertTrue(buffer.insert(1, MS, MidiEventRing.pack(0x90, 1, 100), 8 * MS), "A reordered packet is held.");
+		assertFalse(buffer.insert(0, 0, MidiEventRing.pack(0x90, 0, 100), 9 * MS), "A duplicate is dropped.");
+		assertEquals(3, buffer.getDepth());
+		assertEquals(11 * MS, buffer.nextDueTime());
+		
+		assertEquals(0, buffer.release(10 * MS, sink), "Nothing is released before it is due.");
+		assertEquals(2, buffer.release(12 * MS, sink));
+		assertEquals(1, buffer.release(13 * MS, sink));
+		assertEquals(List.of(0, 1, 2), released, "Messages are released in the order they were sent.");
+		assertEquals(Long.MAX_VALUE, buffer.nextDueTime());
+		
+		assertFalse(buffer.insert(1, MS, MidiEventRing.pack(0x90, 1, 100), 14 * MS), "A late packet is dropped.");
+		assertTrue(buffer.insert(5, 5 * MS, MidiEventRing.pack(0x90, 5, 100), 14 * MS));
+		assertEquals(1, buffer.release(20 * MS, sink));
+		assertEquals(2, buffer.getLost(), "Sequence numbers 3 and 4 never arrived.");
+		assertEquals(2, buffer.getLate());
+		assertEquals(6, buffer.getReceived());
+	}
+	
+	@Test
+	void testSenderRestart() {
+		JitterBuffer buffer = new JitterBuffer(10 * MS);
+		List<Integer> released = new ArrayList<>();
+		MidiEventRing.Sink sink = (message, timestamp) -> released.add(MidiEventRing.data1(message));
+		
+		assertTrue(buffer.insert(0, 0, MidiEventRing.pack(0x90, 0, 100), MS));
+		assertTrue(buffer.insert(1, MS, MidiEventRing.pack(0x90, 1, 100), 2 * MS));
+		assertEquals(1, buffer.release(11 * MS, sink));
+		
+		/* The sender restarts, counting from 0 again on a clock that is far ahead */
+		assertTrue(buffer.insert(0, 5000 * MS, MidiEventRing.pack(0x90, 2, 100), 11 * MS), "A new stream is held.");
+		assertTrue(buffer.insert(1, 5001 * MS, MidiEventRing.pack(0x90, 3, 100), 12 * MS));
+		assertEquals(12 * MS, buffer.nextDueTime(), "The old stream stays due at the same time.");
+		assertEquals(1, buffer.release(12 * MS, sink));
+		assertEquals(21 * MS, buffer.nextDueTime(), "The new stream is mapped by its own clock.");
+		assertEquals(1, buffer.release(21 * MS, sink));
+		assertEquals(1, buffer.release(22 * MS, sink));
+		
+		assertEquals(List.of(0, 1, 2, 3), released);
+		assertEquals(0, buffer.getLate());
+		assertEquals(0, buffer.getLost());
+	}
+	
+	@Test
+	void testStaleDuplicate() {
+		JitterBuffer buffer = new JitterBuffer(10 * MS);
+		List<Integer> released = new ArrayList<>();
+		MidiEventRing.Sink sink = (message, timestamp) -> released.add(MidiEventRing.data1(message));
+		
+		assertTrue(buffer.insert(0, 0, MidiEventRing.pack(0x90, 0, 100), MS));
+		assertTrue(buffer.insert(1, MS, MidiEventRing.pack(0x90, 1, 100), 2 * MS));
+		assertEquals(2, buffer.release(12 * MS, sink));
+		assertTrue(buffer.insert(2, 1500 * MS, MidiEventRing.pack(0x90, 2, 100), 1501 * MS));
+		assertEquals(1, buffer.release(1511 * MS, sink));
+		
+		/* A copy of the first packet turns up more than a second after it was sent */
+		assertFalse(buffer.insert(0, 0, MidiEventRing.pack(0x90, 0, 100), 1600 * MS), "A stale duplicate is dropped.");
+		assertTrue(buffer.insert(3, 1600 * MS, MidiEventRing.pack(0x90, 3, 100), 1601 * MS));
+		assertEquals(1611 * MS, buffer.nextDueTime(), "The clock mapping is kept.");
+		assertEquals(1, buffer.release(1611 * MS, sink));
+		
+		assertEquals(List.of(0, 1, 2, 3), released);
+		assertEquals(1, buffer.getLate());
+		assertEquals(0, buffer.getLost(), "The stream is not mistaken for a new one.");
+	}
+	
+	@Test
+	void testClockDrift() {
+		JitterBuffer buffer = new JitterBuffer(10 * MS);
+		MidiEventRing.Sink sink = (message, timestamp) -> {
+		};
+		
+		/* The sender's clock falls behind by 4 ms over a few seconds */
+		assertTrue(buffer.insert(0, 0, MidiEventRing.pack(0x90, 0, 100), MS));
+		assertTrue(buffer.insert(1, 5000 * MS, MidiEventRing.pack(0x90, 1, 100), 5005 * MS));
+		assertTrue(buffer.insert(2, 7500 * MS, MidiEventRing.pack(0x90, 2, 100), 7505 * MS));
+		assertEquals(2, buffer.release(7505 * MS, sink));
+		assertEquals(7515 * MS, buffer.nextDueTime(), "The fastest arrival of an old window is forgotten.");
+	}
+	
+	@Test
+	void testLoopback() throws IOException, InterruptedException {
+		LiveMidiReceiver receiver = new LiveMidiReceiver();
+		MidiFile file = MidiFile.live();
+		List<MidiChannelSpecificEvent> events = new ArrayList<>();
+		try (OscMidiListener listener = new OscMidiListener(0, receiver, 0.02);
+		     OscMidiSender sender = new OscMidiSender(InetAddress.getLoopbackAddress(), listener.getPort())) {
+			listener.start();
+			long now = TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+			
+			/* The second note arrives first, and the note off after a lost packet */
+			sender.send(OscMidiSender.encode("/note", 1, now + 1000, 0, 64, 90));
+			sender.send(OscMidiSender.encode("/note", 0, now, 0, 60, 100));
+			sender.send(OscMidiSender.encode("/note", 3, now + 3000, 0, 60, 0));
+			sender.send(OscMidiSender.encode("/pitch", 4, now + 4000, 0, 8192));
+			sender.send(OscMidiSender.encode("/cc", 4, now + 4000, 0, 64, 200));
+			
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (events.size() < 3 && System.nanoTime() < deadline) {
+				receiver.drain(file, 0, events::add);
+				Thread.sleep(5);
+			}
+			assertEquals(3, events.size());
+			assertEquals(60, ((MidiNoteOnEvent) events.get(0)).getNote(), "Messages are played in the order sent.");
+			assertEquals(64, ((MidiNoteOnEvent) events.get(1)).getNote());
+			assertEquals(60, ((MidiNoteOffEvent) events.get(2)).getNote(), "A velocity of 0 is a note off.");
+			assertEquals(1, listener.getPacketsLost());
+			assertEquals(2, listener.getMalformed(), "Unknown addresses and out of range values are ignored.");
+			
+			sender.send(OscMidiSender.encode("/note", 2, now + 2000, 0, 62, 80));
+			while (listener.getPacketsLate() == 0 && System.nanoTime() < deadline) {
+				Thread.sleep(5);
+			}
+			assertEquals(1, listener.getPacketsLate(), "A packet that arrives after later ones is dropped.");
+			assertEquals(0, listener.getBufferDepth());
+			assertEquals(4, listener.getPacketsReceived());
+		}
+	}
+}
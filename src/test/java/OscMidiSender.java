@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import org.wysko.midis2jam2.midi.OscMidiListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sends MIDI over the network as the OSC messages an {@link OscMidiListener} listens for. This is a stand-in for a
+ * sender on another machine, for testing on a single machine.
+ */
+final class OscMidiSender implements Closeable {
+	
+	/** The host to send to. */
+	private final InetAddress host;
+	
+	/** The UDP port to send to. */
+	private final int port;
+	
+	private final DatagramSocket socket;
+	
+	OscMidiSender(InetAddress host, int port) throws SocketException {
+		this.host = host;
+		this.port = port;
+		this.socket = new DatagramSocket();
+	}
+	
+	/**
+	 * Encodes a message of the {@link OscMidiListener} schema as an OSC packet.
+	 *
+	 * @param address  the address of the message, like {@code /note}
+	 * @param sequence the sequence number of the message
+	 * @param time     when the message is sent, in microseconds
+	 * @param data     the channel, followed by the data of the message
+	 * @return the packet
+	 */
+	static byte[] encode(String address, int sequence, long time, int... data) {
+		byte[] addressBytes = oscString(address);
+		StringBuilder tags = new StringBuilder(",ih");
+		for (int i = 0; i < data.length; i++) {
+			tags.append('i');
+		}
+		byte[] typeTags = oscString(tags.toString());
+		ByteBuffer buffer = ByteBuffer.allocate(addressBytes.length + typeTags.length + 12 + data.length * 4);
+		buffer.put(addressBytes).put(typeTags).putInt(sequence).putLong(time);
+		for (int value : data) {
+			buffer.putInt(value);
+		}
+		return buffer.array();
+	}
+	
+	/** Encodes a string as an OSC string: ASCII, terminated by at least one null, padded to a multiple of 4. */
+	private static byte[] oscString(String string) {
+		return Arrays.copyOf(string.getBytes(StandardCharsets.US_ASCII), (string.length() / 4 + 1) * 4);
+	}
+	
+	/** Sends an {@link #encode(String, int, long, int...) encoded} packet as is. */
+	void send(byte[] packet) throws IOException {
+		socket.send(new DatagramPacket(packet, packet.length, host, port));
+	}
+	
+	@Override
+	public void close() {
+		socket.close();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.wysko.midis2jam2.midi.MidiFile;
+import org.wysko.midis2jam2.starter.PlaybackClock;
+import org.wysko.midis2jam2.starter.SequencerHandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Tests that {@link PlaybackClock} follows a sequencer that reports its position coarsely. */
+class PlaybackClockTest {
+	
+	@Test
+	void testFollowsSequencerOverAnHour() {
+		FakeSequencer sequencer = new FakeSequencer();
+		PlaybackClock clock = new PlaybackClock(sequencer, 0.05);
+		assertEquals(0.1, clock.sequencerTime(-0.15), 1E-9, "The latency fix and device latency are added.");
+		
+		/* Frames alternate between 7 ms and 26 ms, and the sequencer only reports its position every 10 ms */
+		double time = 0;
+		long nanos = 0;
+		double maxError = 0;
+		for (int frame = 0; nanos < 3_600_000_000_000L; frame++) {
+			float delta = frame % 2 == 0 ? 0.007F : 0.026F;
+			nanos += (long) (delta * 1E9);
+			sequencer.position = Math.floor(nanos / 1E7) / 100;
+			double previous = time;
+			time = clock.advance(time, delta, nanos);
+			
+			assertTrue(time >= previous, "Time never turns back.");
+			if (frame > 100) {
+				maxError = Math.max(maxError, Math.abs(nanos / 1E9 - 0.15 - time));
+			}
+		}
+		assertTrue(maxError < 0.01, "The clock stays within 10 ms of the audio for an hour: " + maxError);
+		assertTrue(clock.getMaxDrift() < 0.02, "The drift is measured: " + clock.getMaxDrift());
+	}
+	
+	@Test
+	void testJumpsOnSeek() {
+		FakeSequencer sequencer = new FakeSequencer();
+		PlaybackClock clock = new PlaybackClock(sequencer, 0);
+		double time = clock.advance(0, 0.01F, 10_000_000L);
+		
+		sequencer.position = 60;
+		time = clock.advance(time, 0.01F, 20_000_000L);
+		assertEquals(59.9, time, 1E-9, "A large jump in position is followed at once.");
+		
+		sequencer.position = 5;
+		time = clock.advance(time, 0.01F, 30_000_000L);
+		assertEquals(4.9, time, 1E-9, "Time turns back when seeking backwards.");
+	}
+	
+	/** A sequencer that plays through a device with a latency of 100 ms, and reports a set position. */
+	private static final class FakeSequencer implements SequencerHandler {
+		
+		private double position;
+		
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+		
+		@Override
+		public boolean isRunning() {
+			return true;
+		}
+		
+		@Override
+		public void start(MidiFile midiFile) {
+			/* Always running */
+		}
+		
+		@Override
+		public void stop() {
+			/* Always running */
+		}
+		
+		@Override
+		public long position() {
+			return (long) (position * 1E6);
+		}
+		
+		@Override
+		public long duration() {
+			return Long.MAX_VALUE;
+		}
+		
+		@Override
+		public double positionInSeconds() {
+			return position;
+		}
+		
+		@Override
+		public double latency() {
+			return 0.1;
+		}
+		
+		@Override
+		public void seek(MidiFile midiFile, double seconds) {
+			position = seconds;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wysko.midis2jam2.midi.MidiEvent;
+import org.wysko.midis2jam2.midi.MidiFile;
+import org.wysko.midis2jam2.midi.MidiTempoEvent;
+import org.wysko.midis2jam2.midi.MidiTrack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Tests tick and second conversion from the tempo map of {@link MidiFile}. */
+class TempoMapTest {
+	
+	private MidiFile file;
+	
+	@BeforeEach
+	void setUp() {
+		/* 120 BPM until tick 960, then 60 BPM until tick 1920, then 240 BPM */
+		List<MidiEvent> events = new ArrayList<>();
+		events.add(new MidiTempoEvent(1920, 250_000));
+		events.add(new MidiTempoEvent(960, 1_000_000));
+		
+		file = new MidiFile();
+		file.setDivision((short) 480);
+		file.setTracks(new MidiTrack[]{null, new MidiTrack(events)});
+		file.calculateTempoMap();
+	}
+	
+	@Test
+	void testMidiTickInSeconds() {
+		assertEquals(0, file.midiTickInSeconds(0), 1E-9, "Tick 0 is 0 seconds.");
+		assertEquals(0.5, file.midiTickInSeconds(480), 1E-9, "Before the first tempo, the file plays at 120 BPM.");
+		assertEquals(1.0, file.midiTickInSeconds(960), 1E-9, "Tempo changes apply from their own tick.");
+		assertEquals(2.0, file.midiTickInSeconds(1440), 1E-9, "Seconds accumulate across tempo changes.");
+		assertEquals(3.25, file.midiTickInSeconds(2400), 1E-9, "The last tempo extends to infinity.");
+		assertEquals(-0.5, file.midiTickInSeconds(-480), 1E-9, "Negative ticks extrapolate the first tempo.");
+	}
+	
+	@Test
+	void testSecondsInMidiTicks() {
+		for (long tick : new long[]{-480, 0, 100, 960, 1000, 1920, 5000}) {
+			assertEquals(tick, file.secondsInMidiTicks(file.midiTickInSeconds(tick)), 1E-6,
+					"Converting to seconds and back returns the original tick.");
+		}
+	}
+	
+	@Test
+	void testTempoLookup() {
+		assertEquals(500_000, file.tempoAt(959).getNumber(), "The default tempo is effective before the first.");
+		assertEquals(1_000_000, file.tempoAt(960).getNumber(), "A tempo is effective on its own tick.");
+		assertEquals(500_000, file.tempoBefore(960).getNumber(), "A tempo is not effective just before its tick.");
+		assertEquals(250_000, file.tempoBefore(1921).getNumber(), "The last tempo is effective after it starts.");
+	}
+	
+	@Test
+	void testNextTempo() {
+		assertEquals(960, file.tempoAfter(0).getTime(), "The next tempo change is found from the start.");
+		assertEquals(1920, file.tempoAfter(960).getTime(), "A tempo that starts on the tick is not the next one.");
+		assertNull(file.tempoAfter(1920), "There is no tempo change after the last one.");
+	}
+}
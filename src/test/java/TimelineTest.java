@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2021 Jacob Wysko
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.wysko.midis2jam2.instrument.algorithmic.Timeline;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Tests advancing a {@link Timeline}. */
+class TimelineTest {
+	
+	private static Timeline<Double> timeline(Double... times) {
+		return new Timeline<>(Arrays.asList(times), time -> time);
+	}
+	
+	@Test
+	void testAdvanceTo() {
+		Timeline<Double> timeline = timeline(3.0, 1.0, 2.0, 2.0);
+		assertEquals(List.of(1.0, 2.0, 2.0, 3.0), timeline.getItems(), "Items are sorted by time.");
+		assertEquals(List.of(), timeline.advanceTo(0.5), "Nothing elapses before the first item.");
+		assertEquals(List.of(1.0, 2.0, 2.0), timeline.advanceTo(2.0), "Items on the current time elapse.");
+		assertEquals(List.of(), timeline.advanceTo(2.5), "Elapsed items are not returned twice.");
+		assertEquals(3.0, timeline.peek(), "The next item is the first that has not elapsed.");
+		assertEquals(2.0, timeline.lastElapsed(), "The last elapsed item is before the cursor.");
+		assertEquals(List.of(3.0), timeline.advanceTo(10.0));
+		assertFalse(timeline.hasNext());
+		assertNull(timeline.peek());
+		assertEquals(Double.POSITIVE_INFINITY, timeline.peekTime());
+	}
+	
+	@Test
+	void testAdvanceWhile() {
+		Timeline<Double> timeline = timeline(1.0, 2.0, 3.0);
+		assertEquals(List.of(1.0), timeline.advanceWhile((item, time) -> time < 2.0));
+		assertTrue(timeline.hasNext());
+		assertEquals(1, timeline.getCursor());
+	}
+	
+	@Test
+	void testAppend() {
+		Timeline<Double> timeline = timeline();
+		assertEquals(List.of(), timeline.advanceTo(1.0), "An empty timeline has nothing to elapse.");
+		for (int i = 0; i < 40; i++) {
+			timeline.append(2.0 + i);
+		}
+		assertEquals(40, timeline.getSize(), "The timeline grows past its initial capacity.");
+		assertEquals(List.of(2.0, 3.0), timeline.advanceTo(3.5), "Appended items elapse like any other.");
+		
+		timeline.append(0.5);
+		assertEquals(0.5, timeline.getItems().get(timeline.getSize() - 1), "An early item is still added to the end.");
+		assertEquals(timeline.getSize(), timeline.firstIndexAfter(41.0), "It is timed at the last item, not before.");
+		assertEquals(List.of(4.0), timeline.advanceTo(4.0));
+	}
+}